@@ -0,0 +1,111 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+
+/**
+ * Creates the in-memory HSQLDB database shared by all benchmarks and the {@link SqlSessionFactory} on top of it.
+ */
+public final class BenchmarkDatabase {
+
+  public static final int AUTHOR_COUNT = 100;
+  public static final int BLOG_COUNT = 200;
+  public static final int POSTS_PER_BLOG = 10;
+  public static final int POST_COUNT = BLOG_COUNT * POSTS_PER_BLOG;
+
+  private static final String CONFIG = "org/apache/ibatis/benchmarks/mybatis-config.xml";
+  private static final String SCHEMA = "org/apache/ibatis/benchmarks/schema.sql";
+
+  private BenchmarkDatabase() {
+    // Prevent Instantiation
+  }
+
+  public static SqlSessionFactory createSqlSessionFactory() throws IOException, SQLException {
+    SqlSessionFactory sqlSessionFactory;
+    try (InputStream inputStream = Resources.getResourceAsStream(CONFIG)) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(inputStream);
+    }
+    DataSource dataSource = sqlSessionFactory.getConfiguration().getEnvironment().getDataSource();
+    try (Connection connection = dataSource.getConnection()) {
+      runSchema(connection);
+      loadData(connection);
+    }
+    return sqlSessionFactory;
+  }
+
+  private static void runSchema(Connection connection) throws IOException {
+    ScriptRunner runner = new ScriptRunner(connection);
+    runner.setAutoCommit(true);
+    runner.setStopOnError(true);
+    runner.setLogWriter(null);
+    try (Reader reader = Resources.getResourceAsReader(SCHEMA)) {
+      runner.runScript(reader);
+    }
+  }
+
+  private static void loadData(Connection connection) throws SQLException {
+    connection.setAutoCommit(false);
+    try (PreparedStatement ps = connection.prepareStatement("insert into author (id, username, email, bio) values (?, ?, ?, ?)")) {
+      for (int i = 1; i <= AUTHOR_COUNT; i++) {
+        ps.setInt(1, i);
+        ps.setString(2, "author" + i);
+        ps.setString(3, "author" + i + "@example.com");
+        ps.setString(4, "Biography of author " + i);
+        ps.addBatch();
+      }
+      ps.executeBatch();
+    }
+    try (PreparedStatement ps = connection.prepareStatement("insert into blog (id, author_id, title) values (?, ?, ?)")) {
+      for (int i = 1; i <= BLOG_COUNT; i++) {
+        ps.setInt(1, i);
+        ps.setInt(2, (i % AUTHOR_COUNT) + 1);
+        ps.setString(3, "Blog " + i);
+        ps.addBatch();
+      }
+      ps.executeBatch();
+    }
+    try (PreparedStatement ps = connection.prepareStatement("insert into post (blog_id, created_on, subject, body) values (?, ?, ?, ?)")) {
+      Timestamp now = new Timestamp(System.currentTimeMillis());
+      for (int i = 1; i <= BLOG_COUNT; i++) {
+        for (int j = 1; j <= POSTS_PER_BLOG; j++) {
+          ps.setInt(1, i);
+          ps.setTimestamp(2, now);
+          ps.setString(3, "Post " + j + " of blog " + i);
+          ps.setString(4, "Body of post " + j + " of blog " + i);
+          ps.addBatch();
+        }
+      }
+      ps.executeBatch();
+    }
+    connection.commit();
+    connection.setAutoCommit(true);
+  }
+
+}
@@ -0,0 +1,66 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmark jar.
+ * <p>
+ * Accepts the regular JMH command line options. Unless told otherwise, results are written as JSON to
+ * {@code target/jmh-result.json} and the GC profiler is enabled so every score comes with its allocation rate per
+ * operation ({@code gc.alloc.rate.norm}). Two JSON files produced by different MyBatis versions can be compared
+ * benchmark by benchmark.
+ *
+ * <pre>
+ * mvn -f mybatis-benchmarks/pom.xml package
+ * java -jar mybatis-benchmarks/target/benchmarks.jar [regexp] [JMH options]
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+  private static final String DEFAULT_RESULT = "target/jmh-result.json";
+
+  private BenchmarkRunner() {
+    // Prevent Instantiation
+  }
+
+  public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+    CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+    ChainedOptionsBuilder builder = new OptionsBuilder().parent(commandLineOptions);
+    if (commandLineOptions.getIncludes().isEmpty()) {
+      builder.include(BenchmarkRunner.class.getPackage().getName() + ".*Benchmark");
+    }
+    if (!commandLineOptions.getResultFormat().hasValue()) {
+      builder.resultFormat(ResultFormatType.JSON);
+    }
+    if (!commandLineOptions.getResult().hasValue()) {
+      builder.result(DEFAULT_RESULT);
+    }
+    if (commandLineOptions.getProfilers().isEmpty()) {
+      builder.addProfiler(GCProfiler.class);
+    }
+    new Runner(builder.build()).run();
+  }
+
+}
@@ -0,0 +1,35 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+
+public interface BlogMapper {
+
+  List<Author> selectAuthors();
+
+  List<Blog> selectBlogsWithPosts(@Param("firstId") int firstId, @Param("lastId") int lastId);
+
+  List<Post> selectPostsIn(@Param("ids") List<Integer> ids);
+
+  Cursor<Post> selectAllPosts();
+
+  int insertPost(Post post);
+
+}
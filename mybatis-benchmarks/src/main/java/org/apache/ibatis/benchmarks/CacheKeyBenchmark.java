@@ -0,0 +1,114 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.SimpleExecutor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@code BaseExecutor.createCacheKey} and the local cache hit path it feeds. Run it with the GC profiler
+ * (the default of {@link BenchmarkRunner}) to see the bytes allocated per cache key.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class CacheKeyBenchmark {
+
+  private SqlSessionFactory sqlSessionFactory;
+  private Executor executor;
+  private MappedStatement mappedStatement;
+  private ParamMap<Object> parameter;
+  private BoundSql boundSql;
+  private CacheKey cachedKey;
+
+  @Setup
+  public void setup() throws Exception {
+    sqlSessionFactory = BenchmarkDatabase.createSqlSessionFactory();
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setLocalCacheScope(LocalCacheScope.SESSION);
+    executor = new SimpleExecutor(configuration, null);
+    mappedStatement = configuration.getMappedStatement("org.apache.ibatis.benchmarks.BlogMapper.selectBlogsWithPosts");
+    parameter = new ParamMap<>();
+    parameter.put("firstId", 1);
+    parameter.put("lastId", 10);
+    boundSql = mappedStatement.getBoundSql(parameter);
+    cachedKey = executor.createCacheKey(mappedStatement, parameter, RowBounds.DEFAULT, boundSql);
+  }
+
+  @Benchmark
+  public CacheKey createCacheKey() {
+    return executor.createCacheKey(mappedStatement, parameter, RowBounds.DEFAULT, boundSql);
+  }
+
+  @Benchmark
+  public boolean createAndCompareCacheKey() {
+    return executor.createCacheKey(mappedStatement, parameter, RowBounds.DEFAULT, boundSql).equals(cachedKey);
+  }
+
+  @Benchmark
+  public List<Blog> localCacheHit(OpenSession session) {
+    return session.mapper.selectBlogsWithPosts(1, 10);
+  }
+
+  @State(Scope.Thread)
+  public static class OpenSession {
+
+    private SqlSession sqlSession;
+    private BlogMapper mapper;
+
+    @Setup(Level.Iteration)
+    public void open(CacheKeyBenchmark benchmark) {
+      sqlSession = benchmark.sqlSessionFactory.openSession();
+      mapper = sqlSession.getMapper(BlogMapper.class);
+      // fills the local cache
+      mapper.selectBlogsWithPosts(1, 10);
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() {
+      sqlSession.close();
+    }
+
+  }
+
+}
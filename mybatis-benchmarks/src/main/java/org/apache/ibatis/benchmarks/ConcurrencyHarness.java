@@ -0,0 +1,188 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+/**
+ * Runs thousands of concurrent tasks through {@link SqlSession}s and reports their throughput, latency and, on virtual
+ * threads, the carrier thread pinning.
+ * <p>
+ * Each task opens a session, selects an author and closes the session, once through the {@link PooledDataSource} and
+ * once from the second level cache. On Java 21 or later the tasks run on virtual threads, otherwise on a fixed pool of
+ * platform threads. Pinning is only reported by the JVM when {@code jdk.tracePinnedThreads} is set; the harness counts
+ * the distinct pinned stacks it prints.
+ *
+ * <pre>
+ * java -Djdk.tracePinnedThreads=short -cp mybatis-benchmarks/target/benchmarks.jar \
+ *     org.apache.ibatis.benchmarks.ConcurrencyHarness [tasks] [platform threads]
+ * </pre>
+ */
+public final class ConcurrencyHarness {
+
+  private static final int DEFAULT_TASKS = 10000;
+  private static final int DEFAULT_PLATFORM_THREADS = 200;
+  // statements are called by id, mapper proxies need --add-opens java.base/java.lang.invoke on Java 17 and later
+  private static final String SELECT_AUTHOR = ConcurrencyMapper.class.getName() + ".selectAuthor";
+  private static final String SELECT_CACHED_AUTHOR = ConcurrencyMapper.class.getName() + ".selectCachedAuthor";
+
+  private ConcurrencyHarness() {
+    // Prevent Instantiation
+  }
+
+  public static void main(String[] args) throws Exception {
+    int tasks = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TASKS;
+    int platformThreads = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PLATFORM_THREADS;
+
+    SqlSessionFactory sqlSessionFactory = BenchmarkDatabase.createSqlSessionFactory();
+    sqlSessionFactory.getConfiguration().addMapper(ConcurrencyMapper.class);
+
+    PrintStream out = System.out;
+    PinnedStackCounter pinnedStacks = new PinnedStackCounter(out);
+    System.setOut(new PrintStream(pinnedStacks, true));
+    try {
+      run("pooled select", tasks, platformThreads, out, pinnedStacks, sqlSessionFactory, id -> {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+          sqlSession.selectOne(SELECT_AUTHOR, id);
+        }
+      });
+      run("cached select", tasks, platformThreads, out, pinnedStacks, sqlSessionFactory, id -> {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+          sqlSession.selectOne(SELECT_CACHED_AUTHOR, id);
+        }
+      });
+    } finally {
+      System.setOut(out);
+    }
+  }
+
+  private static void run(String name, int tasks, int platformThreads, PrintStream out, PinnedStackCounter pinnedStacks,
+      SqlSessionFactory sqlSessionFactory, IntConsumer task) throws Exception {
+    ExecutorService executor = newVirtualThreadPerTaskExecutor();
+    String threads = "virtual threads";
+    if (executor == null) {
+      executor = Executors.newFixedThreadPool(platformThreads);
+      threads = platformThreads + " platform threads";
+    }
+    long[] latencies = new long[tasks];
+    int pinnedBefore = pinnedStacks.getCount();
+    long start = System.nanoTime();
+    try {
+      List<Future<?>> futures = new ArrayList<>(tasks);
+      for (int i = 0; i < tasks; i++) {
+        int index = i;
+        futures.add(executor.submit(() -> {
+          long taskStart = System.nanoTime();
+          task.accept(index % BenchmarkDatabase.AUTHOR_COUNT + 1);
+          latencies[index] = System.nanoTime() - taskStart;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+    long elapsed = System.nanoTime() - start;
+    Arrays.sort(latencies);
+
+    out.printf("%s on %s%n", name, threads);
+    out.printf("  tasks               %d%n", tasks);
+    out.printf("  throughput          %.0f ops/s%n", tasks / (elapsed / 1e9));
+    out.printf("  latency p50         %.3f ms%n", latencies[tasks / 2] / 1e6);
+    out.printf("  latency p99         %.3f ms%n", latencies[(int) (tasks * 0.99)] / 1e6);
+    out.printf("  latency max         %.3f ms%n", latencies[tasks - 1] / 1e6);
+    DataSource dataSource = sqlSessionFactory.getConfiguration().getEnvironment().getDataSource();
+    if (dataSource instanceof PooledDataSource) {
+      out.printf("  pool waits          %d%n", ((PooledDataSource) dataSource).getPoolState().getHadToWaitCount());
+    }
+    if (System.getProperty("jdk.tracePinnedThreads") != null) {
+      out.printf("  pinned stacks       %d%n", pinnedStacks.getCount() - pinnedBefore);
+    } else {
+      out.printf("  pinned stacks       not traced, set -Djdk.tracePinnedThreads=short%n");
+    }
+  }
+
+  private static ExecutorService newVirtualThreadPerTaskExecutor() {
+    try {
+      Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) method.invoke(null);
+    } catch (ReflectiveOperationException e) {
+      // before Java 21
+      return null;
+    }
+  }
+
+  /**
+   * Passes the standard output through, counting the stacks the JVM prints when a virtual thread pins its carrier.
+   * Each of them starts with a line like {@code Thread[#22,ForkJoinPool-1-worker-1,5,CarrierThreads]}.
+   */
+  private static final class PinnedStackCounter extends FilterOutputStream {
+
+    private static final byte[] MARKER = "Thread[#".getBytes();
+
+    private int count;
+    private int matched;
+    private boolean lineStart = true;
+
+    PinnedStackCounter(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public synchronized void write(int b) throws IOException {
+      if (lineStart && matched < MARKER.length && b == MARKER[matched]) {
+        matched++;
+        if (matched == MARKER.length) {
+          count++;
+          lineStart = false;
+        }
+      } else {
+        lineStart = false;
+      }
+      if (b == '\n') {
+        lineStart = true;
+        matched = 0;
+      }
+      out.write(b);
+    }
+
+    synchronized int getCount() {
+      return count;
+    }
+
+  }
+
+}
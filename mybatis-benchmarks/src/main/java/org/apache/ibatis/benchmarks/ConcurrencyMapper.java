@@ -0,0 +1,39 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import org.apache.ibatis.annotations.CacheNamespace;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.ResultMap;
+import org.apache.ibatis.annotations.Select;
+
+/**
+ * The statements of the {@link ConcurrencyHarness}, one reading through the connection pool and one answered from the
+ * second level cache.
+ */
+@CacheNamespace(size = BenchmarkDatabase.AUTHOR_COUNT, readWrite = false)
+public interface ConcurrencyMapper {
+
+  @Select("select id, username, email, bio from author where id = #{id}")
+  @ResultMap("org.apache.ibatis.benchmarks.BlogMapper.authorResult")
+  @Options(useCache = false)
+  Author selectAuthor(int id);
+
+  @Select("select id, username, email, bio from author where id = #{id}")
+  @ResultMap("org.apache.ibatis.benchmarks.BlogMapper.authorResult")
+  Author selectCachedAuthor(int id);
+
+}
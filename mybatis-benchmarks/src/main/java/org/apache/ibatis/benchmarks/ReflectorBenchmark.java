@@ -0,0 +1,95 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.MethodHandleReflectorFactory;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the invokers of {@link DefaultReflectorFactory} (core reflection) with those of
+ * {@link MethodHandleReflectorFactory} (generated lambdas), alone and through the {@link MetaObject} used to bind
+ * parameters and map results.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ReflectorBenchmark {
+
+  @Param({"default", "methodHandle"})
+  public String reflectorFactory;
+
+  private ReflectorFactory factory;
+  private Invoker getUsername;
+  private Invoker setUsername;
+  private Invoker setId;
+  private Author author;
+  private Object[] usernameArgs;
+  private Object[] idArgs;
+
+  @Setup
+  public void setup() {
+    factory = "methodHandle".equals(reflectorFactory) ? new MethodHandleReflectorFactory() : new DefaultReflectorFactory();
+    Reflector reflector = factory.findForClass(Author.class);
+    getUsername = reflector.getGetInvoker("username");
+    setUsername = reflector.getSetInvoker("username");
+    setId = reflector.getSetInvoker("id");
+    author = new Author();
+    usernameArgs = new Object[] {"jim"};
+    idArgs = new Object[] {101};
+  }
+
+  @Benchmark
+  public Object getter() throws Exception {
+    return getUsername.invoke(author, null);
+  }
+
+  @Benchmark
+  public Object setter() throws Exception {
+    setUsername.invoke(author, usernameArgs);
+    return setId.invoke(author, idArgs);
+  }
+
+  @Benchmark
+  public Object metaObjectSetAndGet() {
+    MetaObject metaObject = MetaObject.forObject(author, SystemMetaObject.DEFAULT_OBJECT_FACTORY,
+        SystemMetaObject.DEFAULT_OBJECT_WRAPPER_FACTORY, factory);
+    metaObject.setValue("id", 101);
+    metaObject.setValue("username", "jim");
+    return metaObject.getValue("username");
+  }
+
+}
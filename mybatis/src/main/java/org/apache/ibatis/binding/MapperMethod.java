@@ -206,6 +206,16 @@ public class MapperMethod {
 
     private static final long serialVersionUID = -2212268410512043556L;
 
+    public ParamMap() {
+    }
+
+    /**
+     * @since 3.5.3
+     */
+    public ParamMap(int initialCapacity) {
+      super(initialCapacity);
+    }
+
     @Override
     public V get(Object key) {
       if (!super.containsKey(key)) {
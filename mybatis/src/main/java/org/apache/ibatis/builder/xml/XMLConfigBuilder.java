@@ -38,6 +38,7 @@ import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.ReflectorFactory;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
+import org.apache.ibatis.scripting.xmltags.OgnlCache;
 import org.apache.ibatis.session.AutoMappingBehavior;
 import org.apache.ibatis.session.AutoMappingUnknownColumnBehavior;
 import org.apache.ibatis.session.Configuration;
@@ -253,6 +254,14 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setDefaultExecutorType(ExecutorType.valueOf(props.getProperty("defaultExecutorType", "SIMPLE")));
     configuration.setDefaultStatementTimeout(integerValueOf(props.getProperty("defaultStatementTimeout"), null));
     configuration.setDefaultFetchSize(integerValueOf(props.getProperty("defaultFetchSize"), null));
+    configuration.setDefaultBatchSize(integerValueOf(props.getProperty("defaultBatchSize"), null));
+    configuration.setBatchMaxPendingRows(integerValueOf(props.getProperty("batchMaxPendingRows"), null));
+    configuration.setBatchReorderingEnabled(booleanValueOf(props.getProperty("batchReorderingEnabled"), false));
+    configuration.setBatchFlushParallelism(integerValueOf(props.getProperty("batchFlushParallelism"), null));
+    configuration.setCursorPrefetchSize(integerValueOf(props.getProperty("cursorPrefetchSize"), null));
+    configuration.setAsyncPoolSize(integerValueOf(props.getProperty("asyncPoolSize"), null));
+    configuration.setNestedSelectParallelism(integerValueOf(props.getProperty("nestedSelectParallelism"), null));
+    configuration.setCompiledInterceptorChainEnabled(booleanValueOf(props.getProperty("compiledInterceptorChainEnabled"), false));
     configuration.setDefaultResultSetType(resolveResultSetType(props.getProperty("defaultResultSetType")));
     configuration.setMapUnderscoreToCamelCase(booleanValueOf(props.getProperty("mapUnderscoreToCamelCase"), false));
     configuration.setSafeRowBoundsEnabled(booleanValueOf(props.getProperty("safeRowBoundsEnabled"), false));
@@ -265,6 +274,10 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setCallSettersOnNulls(booleanValueOf(props.getProperty("callSettersOnNulls"), false));
     configuration.setUseActualParamName(booleanValueOf(props.getProperty("useActualParamName"), true));
     configuration.setReturnInstanceForEmptyRow(booleanValueOf(props.getProperty("returnInstanceForEmptyRow"), false));
+    configuration.setCompiledRowMappingEnabled(booleanValueOf(props.getProperty("compiledRowMappingEnabled"), false));
+    configuration.setDynamicSqlCacheSize(integerValueOf(props.getProperty("dynamicSqlCacheSize"), 32));
+    configuration.setCompiledExpressionsEnabled(booleanValueOf(props.getProperty("compiledExpressionsEnabled"), false));
+    configuration.setOgnlCacheSize(integerValueOf(props.getProperty("ognlCacheSize"), OgnlCache.DEFAULT_SIZE));
     configuration.setLogPrefix(props.getProperty("logPrefix"));
     configuration.setConfigurationFactory(resolveClass(props.getProperty("configurationFactory")));
   }
@@ -15,8 +15,13 @@
  */
 package org.apache.ibatis.cache;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.StringJoiner;
 
@@ -31,30 +36,68 @@ public class CacheKey implements Cloneable, Serializable {
 
   public static final CacheKey NULL_CACHE_KEY = new NullCacheKey();
 
+  // keeps the serialized form of the versions that stored the updates in a list
+  private static final ObjectStreamField[] serialPersistentFields = {
+      new ObjectStreamField("multiplier", int.class),
+      new ObjectStreamField("hashcode", int.class),
+      new ObjectStreamField("checksum", long.class),
+      new ObjectStreamField("count", int.class),
+      new ObjectStreamField("updateList", List.class)
+  };
+
   private static final int DEFAULT_MULTIPLYER = 37;
   private static final int DEFAULT_HASHCODE = 17;
+  private static final int DEFAULT_CAPACITY = 10;
+  private static final Object[] EMPTY_UPDATES = {};
 
-  private final int multiplier;
+  // not final so that readObject can restore it
+  private int multiplier;
   private int hashcode;
   private long checksum;
   private int count;
+  // the first count elements hold the updates
   // 8/21/2017 - Sonarlint flags this as needing to be marked transient.  While true if content is not serializable, this is not always true and thus should not be marked transient.
-  private List<Object> updateList;
+  private Object[] updateList;
 
   public CacheKey() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates an empty cache key that can hold the given number of updates without growing.
+   *
+   * @param expectedUpdateCount the expected number of updates
+   * @since 3.5.3
+   */
+  public CacheKey(int expectedUpdateCount) {
     this.hashcode = DEFAULT_HASHCODE;
     this.multiplier = DEFAULT_MULTIPLYER;
     this.count = 0;
-    this.updateList = new ArrayList<>();
+    this.updateList = expectedUpdateCount == 0 ? EMPTY_UPDATES : new Object[expectedUpdateCount];
+  }
+
+  /**
+   * Creates a cache key that starts with the updates of another key, which is left unchanged.
+   *
+   * @param prefix the key whose updates are copied
+   * @param expectedAdditionalUpdateCount the expected number of updates that will be added to the new key
+   * @since 3.5.3
+   */
+  public CacheKey(CacheKey prefix, int expectedAdditionalUpdateCount) {
+    this.hashcode = prefix.hashcode;
+    this.multiplier = prefix.multiplier;
+    this.checksum = prefix.checksum;
+    this.count = prefix.count;
+    this.updateList = Arrays.copyOf(prefix.updateList, prefix.count + expectedAdditionalUpdateCount);
   }
 
   public CacheKey(Object[] objects) {
-    this();
+    this(objects.length);
     updateAll(objects);
   }
 
   public int getUpdateCount() {
-    return updateList.size();
+    return count;
   }
 
   public void update(Object object) {
@@ -66,7 +109,10 @@ public class CacheKey implements Cloneable, Serializable {
 
     hashcode = multiplier * hashcode + baseHashCode;
 
-    updateList.add(object);
+    if (count > updateList.length) {
+      updateList = Arrays.copyOf(updateList, Math.max(count, updateList.length * 2));
+    }
+    updateList[count - 1] = object;
   }
 
   public void updateAll(Object[] objects) {
@@ -96,10 +142,11 @@ public class CacheKey implements Cloneable, Serializable {
       return false;
     }
 
-    for (int i = 0; i < updateList.size(); i++) {
-      Object thisObject = updateList.get(i);
-      Object thatObject = cacheKey.updateList.get(i);
-      if (!ArrayUtil.equals(thisObject, thatObject)) {
+    for (int i = 0; i < count; i++) {
+      Object thisObject = updateList[i];
+      Object thatObject = cacheKey.updateList[i];
+      // the statement id and a static SQL are usually the same instance
+      if (thisObject != thatObject && !ArrayUtil.equals(thisObject, thatObject)) {
         return false;
       }
     }
@@ -116,15 +163,35 @@ public class CacheKey implements Cloneable, Serializable {
     StringJoiner returnValue = new StringJoiner(":");
     returnValue.add(String.valueOf(hashcode));
     returnValue.add(String.valueOf(checksum));
-    updateList.stream().map(ArrayUtil::toString).forEach(returnValue::add);
+    Arrays.stream(updateList, 0, count).map(ArrayUtil::toString).forEach(returnValue::add);
     return returnValue.toString();
   }
 
   @Override
   public CacheKey clone() throws CloneNotSupportedException {
     CacheKey clonedCacheKey = (CacheKey) super.clone();
-    clonedCacheKey.updateList = new ArrayList<>(updateList);
+    clonedCacheKey.updateList = Arrays.copyOf(updateList, count);
     return clonedCacheKey;
   }
 
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    ObjectOutputStream.PutField fields = out.putFields();
+    fields.put("multiplier", multiplier);
+    fields.put("hashcode", hashcode);
+    fields.put("checksum", checksum);
+    fields.put("count", count);
+    fields.put("updateList", new ArrayList<>(Arrays.asList(updateList).subList(0, count)));
+    out.writeFields();
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    ObjectInputStream.GetField fields = in.readFields();
+    multiplier = fields.get("multiplier", DEFAULT_MULTIPLYER);
+    hashcode = fields.get("hashcode", DEFAULT_HASHCODE);
+    checksum = fields.get("checksum", 0L);
+    count = fields.get("count", 0);
+    List<?> updates = (List<?>) fields.get("updateList", null);
+    updateList = updates == null ? EMPTY_UPDATES : updates.toArray();
+  }
+
 }
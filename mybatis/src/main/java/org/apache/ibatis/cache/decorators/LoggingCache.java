@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.concurrent.atomic.LongAdder;
+
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
@@ -26,8 +28,9 @@ public class LoggingCache implements Cache {
 
   private final Log log;
   private final Cache delegate;
-  protected int requests = 0;
-  protected int hits = 0;
+  // updated without locking when the cache is not wrapped in a SynchronizedCache
+  protected final LongAdder requests = new LongAdder();
+  protected final LongAdder hits = new LongAdder();
 
   public LoggingCache(Cache delegate) {
     this.delegate = delegate;
@@ -51,10 +54,10 @@ public class LoggingCache implements Cache {
 
   @Override
   public Object getObject(Object key) {
-    requests++;
+    requests.increment();
     final Object value = delegate.getObject(key);
     if (value != null) {
-      hits++;
+      hits.increment();
     }
     if (log.isDebugEnabled()) {
       log.debug("Cache Hit Ratio [" + getId() + "]: " + getHitRatio());
@@ -83,7 +86,7 @@ public class LoggingCache implements Cache {
   }
 
   private double getHitRatio() {
-    return (double) hits / (double) requests;
+    return hits.doubleValue() / requests.doubleValue();
   }
 
 }
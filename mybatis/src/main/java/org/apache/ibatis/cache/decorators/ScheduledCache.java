@@ -24,7 +24,8 @@ public class ScheduledCache implements Cache {
 
   private final Cache delegate;
   protected long clearInterval;
-  protected long lastClear;
+  // volatile rather than locked: concurrent threads at worst clear the delegate more than once
+  protected volatile long lastClear;
 
   public ScheduledCache(Cache delegate) {
     this.delegate = delegate;
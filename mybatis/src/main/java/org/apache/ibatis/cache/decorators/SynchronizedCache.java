@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.concurrent.locks.ReentrantLock;
+
 import org.apache.ibatis.cache.Cache;
 
 /**
@@ -22,6 +24,8 @@ import org.apache.ibatis.cache.Cache;
  */
 public class SynchronizedCache implements Cache {
 
+  // a lock rather than a monitor, so that virtual threads do not pin their carrier thread while holding it
+  private final ReentrantLock lock = new ReentrantLock();
   private final Cache delegate;
 
   public SynchronizedCache(Cache delegate) {
@@ -34,28 +38,53 @@ public class SynchronizedCache implements Cache {
   }
 
   @Override
-  public synchronized int getSize() {
-    return delegate.getSize();
+  public int getSize() {
+    lock.lock();
+    try {
+      return delegate.getSize();
+    } finally {
+      lock.unlock();
+    }
   }
 
   @Override
-  public synchronized void putObject(Object key, Object object) {
-    delegate.putObject(key, object);
+  public void putObject(Object key, Object object) {
+    lock.lock();
+    try {
+      delegate.putObject(key, object);
+    } finally {
+      lock.unlock();
+    }
   }
 
   @Override
-  public synchronized Object getObject(Object key) {
-    return delegate.getObject(key);
+  public Object getObject(Object key) {
+    lock.lock();
+    try {
+      return delegate.getObject(key);
+    } finally {
+      lock.unlock();
+    }
   }
 
   @Override
-  public synchronized Object removeObject(Object key) {
-    return delegate.removeObject(key);
+  public Object removeObject(Object key) {
+    lock.lock();
+    try {
+      return delegate.removeObject(key);
+    } finally {
+      lock.unlock();
+    }
   }
 
   @Override
-  public synchronized void clear() {
-    delegate.clear();
+  public void clear() {
+    lock.lock();
+    try {
+      delegate.clear();
+    } finally {
+      lock.unlock();
+    }
   }
 
   @Override
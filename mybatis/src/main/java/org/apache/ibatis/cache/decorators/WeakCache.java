@@ -19,6 +19,7 @@ import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.util.Deque;
 import java.util.LinkedList;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.ibatis.cache.Cache;
 
@@ -30,6 +31,7 @@ import org.apache.ibatis.cache.Cache;
  */
 public class WeakCache implements Cache {
   private final Deque<Object> hardLinksToAvoidGarbageCollection;
+  private final ReentrantLock hardLinksLock = new ReentrantLock();
   private final ReferenceQueue<Object> queueOfGarbageCollectedEntries;
   private final Cache delegate;
   private int numberOfHardLinks;
@@ -72,9 +74,15 @@ public class WeakCache implements Cache {
       if (result == null) {
         delegate.removeObject(key);
       } else {
-        hardLinksToAvoidGarbageCollection.addFirst(result);
-        if (hardLinksToAvoidGarbageCollection.size() > numberOfHardLinks) {
-          hardLinksToAvoidGarbageCollection.removeLast();
+        // like SoftCache, modifications need more than a read lock
+        hardLinksLock.lock();
+        try {
+          hardLinksToAvoidGarbageCollection.addFirst(result);
+          if (hardLinksToAvoidGarbageCollection.size() > numberOfHardLinks) {
+            hardLinksToAvoidGarbageCollection.removeLast();
+          }
+        } finally {
+          hardLinksLock.unlock();
         }
       }
     }
@@ -89,7 +97,12 @@ public class WeakCache implements Cache {
 
   @Override
   public void clear() {
-    hardLinksToAvoidGarbageCollection.clear();
+    hardLinksLock.lock();
+    try {
+      hardLinksToAvoidGarbageCollection.clear();
+    } finally {
+      hardLinksLock.unlock();
+    }
     removeGarbageCollectedItems();
     delegate.clear();
   }
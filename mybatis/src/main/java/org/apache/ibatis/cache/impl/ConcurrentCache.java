@@ -0,0 +1,262 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+
+/**
+ * A thread safe, bounded cache that does not need to be wrapped in a
+ * {@link org.apache.ibatis.cache.decorators.SynchronizedCache}.
+ * <p>
+ * Reads are lock free. Writes are serialized, and when the cache is full a write evicts the least recently used of a
+ * few randomly sampled entries (sampled LRU), so reads never have to reorder a shared list. Hits, misses and
+ * evictions are counted without contention.
+ * <p>
+ * It can be used either as the cache type or as the eviction policy of a mapper cache:
+ * <pre>
+ * &lt;cache type="CONCURRENT" size="512"/&gt;
+ * &lt;cache eviction="CONCURRENT" size="512"/&gt;
+ * </pre>
+ *
+ * @since 3.5.3
+ */
+public class ConcurrentCache implements Cache {
+
+  private static final int DEFAULT_SIZE = 1024;
+  private static final int DEFAULT_SAMPLE_SIZE = 8;
+
+  private final String id;
+  private final ConcurrentHashMap<Object, Entry> cache = new ConcurrentHashMap<>();
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  // incremented on every write, entries remember the value of their last access
+  private volatile long clock;
+
+  // every entry owns a slot so that eviction can sample them, guarded by writeLock
+  private Entry[] slots = new Entry[DEFAULT_SIZE];
+  private int count;
+  private int size = DEFAULT_SIZE;
+  private int sampleSize = DEFAULT_SAMPLE_SIZE;
+
+  public ConcurrentCache(String id) {
+    this.id = id;
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public int getSize() {
+    return cache.size();
+  }
+
+  /**
+   * Sets the maximum number of entries. Entries are evicted immediately if the cache holds more.
+   *
+   * @param size the maximum number of entries
+   */
+  public void setSize(int size) {
+    if (size < 1) {
+      throw new CacheException("The size of cache '" + id + "' must be positive but was " + size);
+    }
+    writeLock.lock();
+    try {
+      while (count > size) {
+        evict();
+      }
+      this.size = size;
+      this.slots = Arrays.copyOf(slots, size);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Sets the number of entries sampled to choose the one to evict. Larger samples are closer to an exact LRU.
+   *
+   * @param sampleSize the number of sampled entries
+   */
+  public void setSampleSize(int sampleSize) {
+    if (sampleSize < 1) {
+      throw new CacheException("The sample size of cache '" + id + "' must be positive but was " + sampleSize);
+    }
+    this.sampleSize = sampleSize;
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    writeLock.lock();
+    try {
+      long now = ++clock;
+      Entry entry = cache.get(key);
+      if (entry != null) {
+        entry.value = value;
+        entry.lastAccess = now;
+        return;
+      }
+      if (count >= size) {
+        evict();
+      }
+      entry = new Entry(key, value, count, now);
+      slots[count++] = entry;
+      cache.put(key, entry);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Entry entry = cache.get(key);
+    Object value = entry == null ? null : entry.value;
+    if (value == null) {
+      misses.increment();
+      return null;
+    }
+    long now = clock;
+    if (entry.lastAccess != now) {
+      entry.lastAccess = now;
+    }
+    hits.increment();
+    return value;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    writeLock.lock();
+    try {
+      Entry entry = cache.remove(key);
+      if (entry == null) {
+        return null;
+      }
+      removeSlot(entry);
+      return entry.value;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    writeLock.lock();
+    try {
+      cache.clear();
+      Arrays.fill(slots, 0, count, null);
+      count = 0;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  public double getHitRatio() {
+    long hitCount = hits.sum();
+    long requestCount = hitCount + misses.sum();
+    return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+  }
+
+  private void evict() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    Entry victim = null;
+    for (int i = Math.min(sampleSize, count); i > 0; i--) {
+      Entry candidate = sampleSize >= count ? slots[i - 1] : slots[random.nextInt(count)];
+      if (victim == null || candidate.lastAccess < victim.lastAccess) {
+        victim = candidate;
+      }
+    }
+    if (victim != null) {
+      cache.remove(victim.key);
+      removeSlot(victim);
+      evictions.increment();
+    }
+  }
+
+  private void removeSlot(Entry entry) {
+    Entry last = slots[--count];
+    slots[entry.slot] = last;
+    last.slot = entry.slot;
+    slots[count] = null;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Cache)) {
+      return false;
+    }
+
+    Cache otherCache = (Cache) o;
+    return getId().equals(otherCache.getId());
+  }
+
+  @Override
+  public int hashCode() {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    return getId().hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return "ConcurrentCache[" + id + "] size=" + getSize() + ", hits=" + getHitCount() + ", misses=" + getMissCount()
+        + ", evictions=" + getEvictionCount();
+  }
+
+  private static final class Entry {
+    private final Object key;
+    private volatile Object value;
+    private volatile long lastAccess;
+    // guarded by writeLock
+    private int slot;
+
+    Entry(Object key, Object value, int slot, long lastAccess) {
+      this.key = key;
+      this.value = value;
+      this.slot = slot;
+      this.lastAccess = lastAccess;
+    }
+  }
+
+}
@@ -0,0 +1,251 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
+import org.apache.ibatis.executor.resultset.ResultSetWrapper;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * A cursor that fetches and maps the rows on a background thread while the caller consumes them.
+ * <p>
+ * The background thread starts with the first fetch and keeps at most {@code prefetchSize} mapped objects ahead of the
+ * caller. Since the result set is read on that thread, the session must not run other statements while the cursor is
+ * open, and result maps with nested selects are not supported. This implementation is not thread safe.
+ *
+ * @since 3.5.3
+ */
+public class PrefetchingCursor<T> implements Cursor<T> {
+
+  private static final AtomicInteger threadCount = new AtomicInteger();
+  private static final Object END = new Object();
+  private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+  private final DefaultResultSetHandler resultSetHandler;
+  private final ResultMap resultMap;
+  private final ResultSetWrapper rsw;
+  private final RowBounds rowBounds;
+  private final BlockingQueue<Object> queue;
+
+  private final CursorIterator cursorIterator = new CursorIterator();
+  private boolean iteratorRetrieved;
+
+  private volatile boolean closed;
+  private boolean consumed;
+  private Thread fetcher;
+  private volatile Throwable failure;
+
+  public PrefetchingCursor(DefaultResultSetHandler resultSetHandler, ResultMap resultMap, ResultSetWrapper rsw,
+      RowBounds rowBounds, int prefetchSize) {
+    this.resultSetHandler = resultSetHandler;
+    this.resultMap = resultMap;
+    this.rsw = rsw;
+    this.rowBounds = rowBounds;
+    this.queue = new ArrayBlockingQueue<>(prefetchSize);
+  }
+
+  @Override
+  public boolean isOpen() {
+    return fetcher != null && !closed;
+  }
+
+  @Override
+  public boolean isConsumed() {
+    return consumed;
+  }
+
+  @Override
+  public int getCurrentIndex() {
+    return rowBounds.getOffset() + cursorIterator.iteratorIndex;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    if (iteratorRetrieved) {
+      throw new IllegalStateException("Cannot open more than one iterator on a Cursor");
+    }
+    if (closed) {
+      throw new IllegalStateException("A Cursor is already closed.");
+    }
+    iteratorRetrieved = true;
+    return cursorIterator;
+  }
+
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (fetcher != null) {
+      // the result set is closed once the fetcher no longer reads it
+      queue.clear();
+      boolean interrupted = false;
+      while (fetcher.isAlive()) {
+        try {
+          fetcher.join();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    ResultSet rs = rsw.getResultSet();
+    try {
+      if (rs != null) {
+        rs.close();
+      }
+    } catch (SQLException e) {
+      // ignore
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  protected T fetchNextObject() {
+    if (closed) {
+      return null;
+    }
+    if (fetcher == null) {
+      fetcher = new Thread(this::fetchAll, "mybatis-cursor-prefetch-" + threadCount.incrementAndGet());
+      fetcher.setDaemon(true);
+      fetcher.start();
+    }
+    Object next;
+    try {
+      next = queue.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for the next object of the cursor", e);
+    }
+    if (next != END) {
+      return (T) next;
+    }
+    close();
+    if (failure != null) {
+      if (failure instanceof RuntimeException) {
+        throw (RuntimeException) failure;
+      } else if (failure instanceof Error) {
+        throw (Error) failure;
+      }
+      throw new RuntimeException(failure);
+    }
+    consumed = true;
+    return null;
+  }
+
+  private void fetchAll() {
+    try {
+      if (!rsw.getResultSet().isClosed()) {
+        resultSetHandler.handleRowValues(rsw, resultMap, new QueueingResultHandler(), RowBounds.DEFAULT, null);
+      }
+    } catch (Throwable t) {
+      failure = t;
+    } finally {
+      put(END);
+    }
+  }
+
+  private boolean put(Object object) {
+    try {
+      while (!closed) {
+        if (queue.offer(object, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+          return true;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return false;
+  }
+
+  private class QueueingResultHandler implements ResultHandler<T> {
+
+    private int readCount;
+
+    @Override
+    public void handleResult(ResultContext<? extends T> context) {
+      T object = context.getResultObject();
+      if (object == null) {
+        // ends the cursor, like a default cursor does
+        context.stop();
+        return;
+      }
+      readCount++;
+      if (readCount > rowBounds.getOffset() && !put(object)) {
+        context.stop();
+      } else if (readCount - rowBounds.getOffset() >= rowBounds.getLimit()) {
+        context.stop();
+      }
+    }
+  }
+
+  private class CursorIterator implements Iterator<T> {
+
+    /**
+     * Holder for the next object to be returned.
+     */
+    T object;
+
+    /**
+     * Index of objects returned using next(), and as such, visible to users.
+     */
+    int iteratorIndex = -1;
+
+    @Override
+    public boolean hasNext() {
+      if (object == null) {
+        object = fetchNextObject();
+      }
+      return object != null;
+    }
+
+    @Override
+    public T next() {
+      T next = object;
+
+      if (next == null) {
+        next = fetchNextObject();
+      }
+
+      if (next != null) {
+        object = null;
+        iteratorIndex++;
+        return next;
+      }
+      throw new NoSuchElementException();
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("Cannot remove element from Cursor");
+    }
+  }
+}
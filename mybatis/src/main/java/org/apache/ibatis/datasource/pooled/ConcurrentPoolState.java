@@ -0,0 +1,97 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link PoolState} of a {@link ConcurrentPooledDataSource}, whose statistics are recorded without locking.
+ *
+ * @since 3.5.3
+ */
+class ConcurrentPoolState extends PoolState {
+
+  final LongAdder requests = new LongAdder();
+  final LongAdder requestTime = new LongAdder();
+  final LongAdder checkoutTime = new LongAdder();
+  final LongAdder claimedOverdueConnections = new LongAdder();
+  final LongAdder overdueCheckoutTime = new LongAdder();
+  final LongAdder waitTime = new LongAdder();
+  final LongAdder waits = new LongAdder();
+  final LongAdder badConnections = new LongAdder();
+
+  private final ConcurrentPooledDataSource concurrentDataSource;
+
+  ConcurrentPoolState(ConcurrentPooledDataSource dataSource) {
+    super(dataSource);
+    this.concurrentDataSource = dataSource;
+  }
+
+  @Override
+  public long getRequestCount() {
+    return requests.sum();
+  }
+
+  @Override
+  public long getAverageRequestTime() {
+    long count = requests.sum();
+    return count == 0 ? 0 : requestTime.sum() / count;
+  }
+
+  @Override
+  public long getAverageWaitTime() {
+    long count = waits.sum();
+    return count == 0 ? 0 : waitTime.sum() / count;
+  }
+
+  @Override
+  public long getHadToWaitCount() {
+    return waits.sum();
+  }
+
+  @Override
+  public long getBadConnectionCount() {
+    return badConnections.sum();
+  }
+
+  @Override
+  public long getClaimedOverdueConnectionCount() {
+    return claimedOverdueConnections.sum();
+  }
+
+  @Override
+  public long getAverageOverdueCheckoutTime() {
+    long count = claimedOverdueConnections.sum();
+    return count == 0 ? 0 : overdueCheckoutTime.sum() / count;
+  }
+
+  @Override
+  public long getAverageCheckoutTime() {
+    long count = requests.sum();
+    return count == 0 ? 0 : checkoutTime.sum() / count;
+  }
+
+  @Override
+  public int getIdleConnectionCount() {
+    return concurrentDataSource.getIdleConnectionCount();
+  }
+
+  @Override
+  public int getActiveConnectionCount() {
+    return concurrentDataSource.getActiveConnectionCount();
+  }
+
+}
@@ -0,0 +1,532 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.lang.ref.WeakReference;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * A {@link PooledDataSource} that does not serialize checkouts and returns on a single monitor.
+ * <p>
+ * Connections are kept in a lock-free bag: each pooled connection carries its own state that is claimed with a CAS,
+ * the connection last returned by a thread is tried first when that thread asks for a connection again, physical
+ * connections are opened, validated and rolled back without holding any lock.
+ * <p>
+ * Threads that have to wait are served on a best-effort basis, not in FIFO order. A returned connection is handed to
+ * the waiting thread that has been polling for it the longest, but a connection returned while no waiting thread is
+ * polling stays idle until one of them looks at the pool again, which each does every 50 milliseconds, and a thread
+ * that just asked for a connection may take it first.
+ * <p>
+ * The configuration properties and their meaning are the same as {@link PooledDataSource}.
+ *
+ * @since 3.5.3
+ */
+public class ConcurrentPooledDataSource extends PooledDataSource {
+
+  private static final Log log = LogFactory.getLog(ConcurrentPooledDataSource.class);
+
+  private static final int STATE_NOT_IN_USE = 0;
+  private static final int STATE_IN_USE = 1;
+  private static final int STATE_RESERVED = 2;
+  private static final int STATE_REMOVED = -1;
+
+  // offered to waiting threads when a connection is closed so that they can open a new one
+  private static final Entry SLOT_FREED = new Entry();
+  // how long a waiting thread polls for a hand-off before it looks at the pool again, as a hand-off offered while it
+  // was not polling yet is not retried
+  private static final long HANDOFF_POLL_MILLIS = 50;
+
+  private final ConcurrentPoolState state = new ConcurrentPoolState(this);
+
+  private final List<Entry> entries = new CopyOnWriteArrayList<>();
+  private final AtomicInteger totalConnections = new AtomicInteger();
+  private final AtomicInteger idleConnections = new AtomicInteger();
+  private final AtomicInteger waiters = new AtomicInteger();
+  // incremented by forceCloseAll()
+  private final AtomicInteger closeAllCount = new AtomicInteger();
+  private final SynchronousQueue<Entry> handoffQueue = new SynchronousQueue<>(true);
+  private final ThreadLocal<WeakReference<Entry>> lastUsedEntry = new ThreadLocal<>();
+
+  public ConcurrentPooledDataSource() {
+    super();
+  }
+
+  public ConcurrentPooledDataSource(UnpooledDataSource dataSource) {
+    super(dataSource);
+  }
+
+  public ConcurrentPooledDataSource(String driver, String url, String username, String password) {
+    super(driver, url, username, password);
+  }
+
+  public ConcurrentPooledDataSource(String driver, String url, Properties driverProperties) {
+    super(driver, url, driverProperties);
+  }
+
+  public ConcurrentPooledDataSource(ClassLoader driverClassLoader, String driver, String url, String username, String password) {
+    super(driverClassLoader, driver, url, username, password);
+  }
+
+  public ConcurrentPooledDataSource(ClassLoader driverClassLoader, String driver, String url, Properties driverProperties) {
+    super(driverClassLoader, driver, url, driverProperties);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return popConnection(dataSource.getUsername(), dataSource.getPassword()).getProxyConnection();
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return popConnection(username, password).getProxyConnection();
+  }
+
+  @Override
+  public PoolState getPoolState() {
+    return state;
+  }
+
+  int getIdleConnectionCount() {
+    return idleConnections.get();
+  }
+
+  int getActiveConnectionCount() {
+    return Math.max(entries.size() - idleConnections.get(), 0);
+  }
+
+  /**
+   * Closes all active and idle connections in the pool and stops the housekeeper, which
+   * {@link #startHousekeeping()} restarts.
+   */
+  @Override
+  public void forceCloseAll() {
+    stopHousekeeping();
+    closeAllCount.incrementAndGet();
+    expectedConnectionTypeCode = assembleConnectionTypeCode(dataSource.getUrl(), dataSource.getUsername(), dataSource.getPassword());
+    for (Entry entry : entries) {
+      int previousState = entry.state.getAndSet(STATE_REMOVED);
+      if (previousState == STATE_REMOVED) {
+        continue;
+      }
+      if (previousState == STATE_NOT_IN_USE) {
+        idleConnections.decrementAndGet();
+      }
+      closeQuietly(entry);
+      if (entries.remove(entry)) {
+        totalConnections.decrementAndGet();
+      }
+    }
+    if (log.isDebugEnabled()) {
+      log.debug("ConcurrentPooledDataSource forcefully closed/removed all connections.");
+    }
+  }
+
+  @Override
+  protected void pushConnection(PooledConnection conn) throws SQLException {
+    final Entry entry = ((EntryConnection) conn).entry;
+    if (entry.connection != conn || !entry.state.compareAndSet(STATE_IN_USE, STATE_RESERVED)) {
+      // the connection has been claimed as overdue or closed by forceCloseAll()
+      if (log.isDebugEnabled()) {
+        log.debug("A bad connection (" + conn.getRealHashCode() + ") attempted to return to the pool, discarding connection.");
+      }
+      state.badConnections.increment();
+      getPoolMetrics().badConnectionDetected();
+      return;
+    }
+    if (!validateConnection(conn)) {
+      if (log.isDebugEnabled()) {
+        log.debug("A bad connection (" + conn.getRealHashCode() + ") attempted to return to the pool, discarding connection.");
+      }
+      state.badConnections.increment();
+      getPoolMetrics().badConnectionDetected();
+      removeEntry(entry);
+      return;
+    }
+    state.checkoutTime.add(conn.getCheckoutTime());
+    getPoolMetrics().connectionReturned(conn.getCheckoutNanos());
+    try {
+      if (!conn.getRealConnection().getAutoCommit()) {
+        conn.getRealConnection().rollback();
+      }
+    } catch (SQLException e) {
+      removeEntry(entry);
+      throw e;
+    }
+    if (idleConnections.get() >= poolMaximumIdleConnections || conn.getConnectionTypeCode() != expectedConnectionTypeCode
+        || isExpired(conn)) {
+      removeEntry(entry);
+      if (log.isDebugEnabled()) {
+        log.debug("Closed connection " + conn.getRealHashCode() + ".");
+      }
+      return;
+    }
+    PooledConnection newConn = new EntryConnection(conn.getRealConnection(), this, entry);
+    newConn.setCreatedTimestamp(conn.getCreatedTimestamp());
+    newConn.setLastUsedTimestamp(conn.getLastUsedTimestamp());
+    newConn.setLastPingTimestamp(conn.getLastPingTimestamp());
+    conn.invalidate();
+    entry.connection = newConn;
+    WeakReference<Entry> reference = lastUsedEntry.get();
+    if (reference == null || reference.get() != entry) {
+      lastUsedEntry.set(new WeakReference<>(entry));
+    }
+    if (releaseToIdle(entry) && log.isDebugEnabled()) {
+      log.debug("Returned connection " + newConn.getRealHashCode() + " to pool.");
+    }
+  }
+
+  /**
+   * Performs one housekeeping run. Idle connections are reserved one at a time while they are checked, so the
+   * housekeeper never blocks threads that check out other connections.
+   */
+  @Override
+  protected void housekeep() {
+    int generation = closeAllCount.get();
+    for (Entry entry : entries) {
+      if (!reserveIdle(entry)) {
+        continue;
+      }
+      PooledConnection conn = entry.connection;
+      if (isExpired(conn) || (idleConnections.get() >= poolMinimumIdleConnections && isIdleTooLong(conn))) {
+        if (log.isDebugEnabled()) {
+          log.debug("Evicted idle connection " + conn.getRealHashCode() + ".");
+        }
+        removeEntry(entry);
+        getPoolMetrics().connectionEvicted();
+      } else if (isPingDue(conn) && !validateConnection(conn)) {
+        if (log.isDebugEnabled()) {
+          log.debug("A bad idle connection (" + conn.getRealHashCode() + ") was found by the housekeeper, discarding connection.");
+        }
+        state.badConnections.increment();
+        getPoolMetrics().badConnectionDetected();
+        removeEntry(entry);
+      } else {
+        releaseToIdle(entry);
+      }
+    }
+    while (idleConnections.get() < Math.min(poolMinimumIdleConnections, poolMaximumIdleConnections)) {
+      Entry entry;
+      try {
+        entry = createEntry();
+      } catch (SQLException e) {
+        log.warn("The housekeeper could not open a connection. Cause: " + e);
+        return;
+      }
+      if (entry == null) {
+        return;
+      }
+      if (generation != closeAllCount.get()) {
+        // opened after forceCloseAll() closed the pool
+        removeEntry(entry);
+        return;
+      }
+      releaseToIdle(entry);
+    }
+  }
+
+  private PooledConnection popConnection(String username, String password) throws SQLException {
+    boolean countedWait = false;
+    long t = System.currentTimeMillis();
+    long startNanos = System.nanoTime();
+    int localBadConnectionCount = 0;
+
+    while (true) {
+      Entry entry = reserveLastUsedEntry();
+      if (entry == null) {
+        entry = reserveIdleEntry();
+      }
+      if (entry == null) {
+        entry = createEntry();
+      }
+      if (entry == null) {
+        entry = claimOverdueEntry();
+      }
+      if (entry == null) {
+        if (!countedWait) {
+          state.waits.increment();
+          countedWait = true;
+        }
+        if (log.isDebugEnabled()) {
+          log.debug("Waiting as long as " + poolTimeToWait + " milliseconds for connection.");
+        }
+        long wt = System.currentTimeMillis();
+        getPoolMetrics().waitStarted();
+        try {
+          entry = awaitEntry();
+        } finally {
+          getPoolMetrics().waitFinished();
+        }
+        state.waitTime.add(System.currentTimeMillis() - wt);
+        if (entry == null) {
+          continue;
+        }
+      }
+      PooledConnection conn = entry.connection;
+      // ping to server and check the connection is valid or not
+      if (validateConnection(conn)) {
+        try {
+          if (!conn.getRealConnection().getAutoCommit()) {
+            conn.getRealConnection().rollback();
+          }
+        } catch (SQLException e) {
+          removeEntry(entry);
+          throw e;
+        }
+        conn.setConnectionTypeCode(assembleConnectionTypeCode(dataSource.getUrl(), username, password));
+        conn.setCheckoutTimestamp(System.currentTimeMillis());
+        conn.setLastUsedTimestamp(System.currentTimeMillis());
+        if (entry.state.compareAndSet(STATE_RESERVED, STATE_IN_USE)) {
+          state.requests.increment();
+          state.requestTime.add(System.currentTimeMillis() - t);
+          getPoolMetrics().connectionAcquired(System.nanoTime() - startNanos);
+          return conn;
+        }
+        // removed by forceCloseAll() in the meantime
+        continue;
+      }
+      if (log.isDebugEnabled()) {
+        log.debug("A bad connection (" + conn.getRealHashCode() + ") was returned from the pool, getting another connection.");
+      }
+      state.badConnections.increment();
+      getPoolMetrics().badConnectionDetected();
+      localBadConnectionCount++;
+      removeEntry(entry);
+      if (localBadConnectionCount > (poolMaximumIdleConnections + poolMaximumLocalBadConnectionTolerance)) {
+        if (log.isDebugEnabled()) {
+          log.debug("ConcurrentPooledDataSource: Could not get a good connection to the database.");
+        }
+        throw new SQLException("ConcurrentPooledDataSource: Could not get a good connection to the database.");
+      }
+    }
+  }
+
+  private Entry reserveLastUsedEntry() {
+    WeakReference<Entry> reference = lastUsedEntry.get();
+    if (reference != null) {
+      Entry entry = reference.get();
+      if (entry != null && reserveIdle(entry)) {
+        if (log.isDebugEnabled()) {
+          log.debug("Checked out connection " + entry.connection.getRealHashCode() + " from pool.");
+        }
+        return entry;
+      }
+    }
+    return null;
+  }
+
+  private Entry reserveIdleEntry() {
+    for (Entry entry : entries) {
+      if (reserveIdle(entry)) {
+        if (log.isDebugEnabled()) {
+          log.debug("Checked out connection " + entry.connection.getRealHashCode() + " from pool.");
+        }
+        return entry;
+      }
+    }
+    return null;
+  }
+
+  private boolean releaseToIdle(Entry entry) {
+    idleConnections.incrementAndGet();
+    if (!entry.state.compareAndSet(STATE_RESERVED, STATE_NOT_IN_USE)) {
+      // removed by forceCloseAll() in the meantime
+      idleConnections.decrementAndGet();
+      return false;
+    }
+    if (waiters.get() > 0) {
+      // a waiter that is not polling yet finds the entry in the idle list instead
+      handoffQueue.offer(entry);
+    }
+    return true;
+  }
+
+  private boolean reserveIdle(Entry entry) {
+    if (entry.state.compareAndSet(STATE_NOT_IN_USE, STATE_RESERVED)) {
+      idleConnections.decrementAndGet();
+      return true;
+    }
+    return false;
+  }
+
+  private Entry createEntry() throws SQLException {
+    int total;
+    do {
+      total = totalConnections.get();
+      if (total >= poolMaximumActiveConnections) {
+        return null;
+      }
+    } while (!totalConnections.compareAndSet(total, total + 1));
+    try {
+      Entry entry = new Entry();
+      entry.connection = new EntryConnection(dataSource.getConnection(), this, entry);
+      entries.add(entry);
+      getPoolMetrics().connectionCreated();
+      if (log.isDebugEnabled()) {
+        log.debug("Created connection " + entry.connection.getRealHashCode() + ".");
+      }
+      return entry;
+    } catch (SQLException | RuntimeException e) {
+      releaseSlot();
+      throw e;
+    }
+  }
+
+  private Entry claimOverdueEntry() {
+    Entry oldestActiveEntry = null;
+    long longestCheckoutTime = 0;
+    for (Entry entry : entries) {
+      if (entry.state.get() == STATE_IN_USE) {
+        long checkoutTime = entry.connection.getCheckoutTime();
+        if (checkoutTime > longestCheckoutTime) {
+          oldestActiveEntry = entry;
+          longestCheckoutTime = checkoutTime;
+        }
+      }
+    }
+    if (oldestActiveEntry == null || longestCheckoutTime <= poolMaximumCheckoutTime
+        || !oldestActiveEntry.state.compareAndSet(STATE_IN_USE, STATE_RESERVED)) {
+      return null;
+    }
+    // Can claim overdue connection
+    PooledConnection oldestActiveConnection = oldestActiveEntry.connection;
+    longestCheckoutTime = oldestActiveConnection.getCheckoutTime();
+    state.claimedOverdueConnections.increment();
+    getPoolMetrics().overdueConnectionClaimed();
+    state.overdueCheckoutTime.add(longestCheckoutTime);
+    state.checkoutTime.add(longestCheckoutTime);
+    oldestActiveConnection.invalidate();
+    try {
+      if (!oldestActiveConnection.getRealConnection().getAutoCommit()) {
+        oldestActiveConnection.getRealConnection().rollback();
+      }
+    } catch (SQLException e) {
+      // a bad connection is detected by the validation that follows
+      log.debug("Bad connection. Could not roll back");
+    }
+    PooledConnection conn = new EntryConnection(oldestActiveConnection.getRealConnection(), this, oldestActiveEntry);
+    conn.setCreatedTimestamp(oldestActiveConnection.getCreatedTimestamp());
+    conn.setLastUsedTimestamp(oldestActiveConnection.getLastUsedTimestamp());
+    conn.setLastPingTimestamp(oldestActiveConnection.getLastPingTimestamp());
+    oldestActiveEntry.connection = conn;
+    if (log.isDebugEnabled()) {
+      log.debug("Claimed overdue connection " + conn.getRealHashCode() + ".");
+    }
+    return oldestActiveEntry;
+  }
+
+  /**
+   * Waits for a connection to be handed off or for a slot to be freed, at most {@code poolTimeToWait} milliseconds.
+   * Only the threads in here count as waiters. Idle entries are looked for again every {@code HANDOFF_POLL_MILLIS},
+   * so a waiter may be overtaken by a thread that finds the same entry first.
+   *
+   * @return the reserved entry, or {@code null} when the caller should look at the pool again
+   */
+  private Entry awaitEntry() throws SQLException {
+    waiters.incrementAndGet();
+    try {
+      long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(poolTimeToWait);
+      while (true) {
+        // catches the entries released before this thread counted as a waiter
+        Entry entry = reserveIdleEntry();
+        if (entry != null) {
+          return entry;
+        }
+        if (totalConnections.get() < poolMaximumActiveConnections) {
+          return null;
+        }
+        long pollMillis = HANDOFF_POLL_MILLIS;
+        if (poolTimeToWait > 0) {
+          long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+          if (remainingMillis <= 0) {
+            return null;
+          }
+          pollMillis = Math.min(pollMillis, remainingMillis);
+        }
+        entry = handoffQueue.poll(pollMillis, TimeUnit.MILLISECONDS);
+        if (entry == SLOT_FREED) {
+          return null;
+        }
+        if (entry != null && reserveIdle(entry)) {
+          if (log.isDebugEnabled()) {
+            log.debug("Checked out connection " + entry.connection.getRealHashCode() + " from pool.");
+          }
+          return entry;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("ConcurrentPooledDataSource: Interrupted while waiting for a connection.", e);
+    } finally {
+      waiters.decrementAndGet();
+    }
+  }
+
+  private void removeEntry(Entry entry) {
+    entry.state.set(STATE_REMOVED);
+    closeQuietly(entry);
+    if (entries.remove(entry)) {
+      releaseSlot();
+    }
+  }
+
+  private void releaseSlot() {
+    totalConnections.decrementAndGet();
+    if (waiters.get() > 0) {
+      handoffQueue.offer(SLOT_FREED);
+    }
+  }
+
+  private void closeQuietly(Entry entry) {
+    PooledConnection conn = entry.connection;
+    conn.invalidate();
+    try {
+      Connection realConn = conn.getRealConnection();
+      if (!realConn.getAutoCommit()) {
+        realConn.rollback();
+      }
+      realConn.close();
+      getPoolMetrics().connectionClosed();
+    } catch (Exception e) {
+      // ignore
+    }
+  }
+
+  private static final class Entry {
+    private final AtomicInteger state = new AtomicInteger(STATE_RESERVED);
+    private volatile PooledConnection connection;
+  }
+
+  private static final class EntryConnection extends PooledConnection {
+    private final Entry entry;
+
+    EntryConnection(Connection connection, PooledDataSource dataSource, Entry entry) {
+      super(connection, dataSource);
+      this.entry = entry;
+    }
+  }
+
+}
@@ -0,0 +1,152 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A latency histogram with power-of-two buckets that can be recorded by many threads without contention.
+ * <p>
+ * Values are recorded in nanoseconds. Bucket {@code i} counts the values between {@code 2^(i-1)} (inclusive) and
+ * {@code 2^i} (exclusive), bucket 0 counts zero, so percentiles are accurate to a factor of two.
+ *
+ * @since 3.5.3
+ */
+public class LatencyHistogram {
+
+  private static final int BUCKET_COUNT = 64;
+
+  private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+  private final LongAdder count = new LongAdder();
+  private final LongAdder total = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+  public LatencyHistogram() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Records a value.
+   *
+   * @param nanos the latency in nanoseconds, negative values are recorded as zero
+   */
+  public void record(long nanos) {
+    long value = Math.max(nanos, 0L);
+    buckets[bucketIndex(value)].increment();
+    count.increment();
+    total.add(value);
+    max.accumulate(value);
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public long getTotal(TimeUnit unit) {
+    return unit.convert(total.sum(), TimeUnit.NANOSECONDS);
+  }
+
+  public long getMax(TimeUnit unit) {
+    return unit.convert(max.get(), TimeUnit.NANOSECONDS);
+  }
+
+  public long getMean(TimeUnit unit) {
+    long n = count.sum();
+    return n == 0 ? 0 : unit.convert(total.sum() / n, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns an upper bound of the given percentile.
+   *
+   * @param percentile the percentile between 0 and 100
+   * @param unit the unit of the returned value
+   * @return the upper bound of the bucket holding the percentile, never more than the maximum recorded value
+   */
+  public long getPercentile(double percentile, TimeUnit unit) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100 but was " + percentile);
+    }
+    long[] counts = getBucketCounts();
+    long n = 0;
+    for (long c : counts) {
+      n += c;
+    }
+    if (n == 0) {
+      return 0;
+    }
+    long rank = Math.max((long) Math.ceil(n * percentile / 100), 1L);
+    long seen = 0;
+    long upperBound = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        upperBound = i == 0 ? 0 : (i == BUCKET_COUNT - 1 ? Long.MAX_VALUE : (1L << i) - 1);
+        break;
+      }
+    }
+    return unit.convert(Math.min(upperBound, max.get()), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns a snapshot of the bucket counts, see {@link #getBucketUpperBound(int)} for the bucket boundaries.
+   *
+   * @return the number of values recorded in each bucket
+   */
+  public long[] getBucketCounts() {
+    long[] counts = new long[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts[i] = buckets[i].sum();
+    }
+    return counts;
+  }
+
+  /**
+   * Returns the exclusive upper bound in nanoseconds of a bucket.
+   *
+   * @param index the bucket index
+   * @return the upper bound
+   */
+  public static long getBucketUpperBound(int index) {
+    return index == BUCKET_COUNT - 1 ? Long.MAX_VALUE : 1L << index;
+  }
+
+  public void reset() {
+    for (LongAdder bucket : buckets) {
+      bucket.reset();
+    }
+    count.reset();
+    total.reset();
+    max.reset();
+  }
+
+  private static int bucketIndex(long value) {
+    return Math.min(BUCKET_COUNT - Long.numberOfLeadingZeros(value), BUCKET_COUNT - 1);
+  }
+
+  @Override
+  public String toString() {
+    return "count=" + getCount()
+        + ", mean=" + getMean(TimeUnit.MICROSECONDS) + "us"
+        + ", p50=" + getPercentile(50, TimeUnit.MICROSECONDS) + "us"
+        + ", p99=" + getPercentile(99, TimeUnit.MICROSECONDS) + "us"
+        + ", max=" + getMax(TimeUnit.MICROSECONDS) + "us";
+  }
+
+}
@@ -0,0 +1,209 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live metrics of a {@link PooledDataSource}.
+ * <p>
+ * Counters and histograms are striped so that recording them does not add contention to the pool.
+ * An optional {@link PoolMetricsListener} receives every recorded event.
+ *
+ * @since 3.5.3
+ * @see PooledDataSource#getPoolMetrics()
+ */
+public class PoolMetrics {
+
+  private final PooledDataSource dataSource;
+
+  private final AtomicInteger pendingWaiters = new AtomicInteger();
+  private final LongAdder createdConnections = new LongAdder();
+  private final LongAdder closedConnections = new LongAdder();
+  private final LongAdder evictedConnections = new LongAdder();
+  private final LongAdder claimedOverdueConnections = new LongAdder();
+  private final LongAdder badConnections = new LongAdder();
+  private final LatencyHistogram acquireTime = new LatencyHistogram();
+  private final LatencyHistogram checkoutTime = new LatencyHistogram();
+  private final LatencyHistogram validationTime = new LatencyHistogram();
+
+  private volatile PoolMetricsListener listener;
+
+  public PoolMetrics(PooledDataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  public int getActiveConnectionCount() {
+    return dataSource.getPoolState().getActiveConnectionCount();
+  }
+
+  public int getIdleConnectionCount() {
+    return dataSource.getPoolState().getIdleConnectionCount();
+  }
+
+  /**
+   * Returns the number of threads currently waiting for a connection to be returned.
+   *
+   * @return the number of waiting threads
+   */
+  public int getPendingWaiterCount() {
+    return pendingWaiters.get();
+  }
+
+  public long getCreatedConnectionCount() {
+    return createdConnections.sum();
+  }
+
+  public long getClosedConnectionCount() {
+    return closedConnections.sum();
+  }
+
+  public long getEvictedConnectionCount() {
+    return evictedConnections.sum();
+  }
+
+  public long getClaimedOverdueConnectionCount() {
+    return claimedOverdueConnections.sum();
+  }
+
+  public long getBadConnectionCount() {
+    return badConnections.sum();
+  }
+
+  /**
+   * Returns the time spent in {@code getConnection()}, including waiting and validation.
+   *
+   * @return the acquire time histogram
+   */
+  public LatencyHistogram getAcquireTime() {
+    return acquireTime;
+  }
+
+  /**
+   * Returns the time connections were checked out before being returned.
+   *
+   * @return the checkout time histogram
+   */
+  public LatencyHistogram getCheckoutTime() {
+    return checkoutTime;
+  }
+
+  /**
+   * Returns the time spent validating connections.
+   *
+   * @return the validation time histogram
+   */
+  public LatencyHistogram getValidationTime() {
+    return validationTime;
+  }
+
+  public PoolMetricsListener getListener() {
+    return listener;
+  }
+
+  public void setListener(PoolMetricsListener listener) {
+    this.listener = listener;
+  }
+
+  void waitStarted() {
+    pendingWaiters.incrementAndGet();
+  }
+
+  void waitFinished() {
+    pendingWaiters.decrementAndGet();
+  }
+
+  void connectionAcquired(long acquireNanos) {
+    acquireTime.record(acquireNanos);
+    PoolMetricsListener l = listener;
+    if (l != null) {
+      l.connectionAcquired(acquireNanos);
+    }
+  }
+
+  void connectionReturned(long checkoutNanos) {
+    checkoutTime.record(checkoutNanos);
+    PoolMetricsListener l = listener;
+    if (l != null) {
+      l.connectionReturned(checkoutNanos);
+    }
+  }
+
+  void connectionValidated(long validationNanos, boolean valid) {
+    validationTime.record(validationNanos);
+    PoolMetricsListener l = listener;
+    if (l != null) {
+      l.connectionValidated(validationNanos, valid);
+    }
+  }
+
+  void connectionCreated() {
+    createdConnections.increment();
+    PoolMetricsListener l = listener;
+    if (l != null) {
+      l.connectionCreated();
+    }
+  }
+
+  void connectionClosed() {
+    closedConnections.increment();
+    PoolMetricsListener l = listener;
+    if (l != null) {
+      l.connectionClosed();
+    }
+  }
+
+  void connectionEvicted() {
+    evictedConnections.increment();
+    PoolMetricsListener l = listener;
+    if (l != null) {
+      l.connectionEvicted();
+    }
+  }
+
+  void overdueConnectionClaimed() {
+    claimedOverdueConnections.increment();
+    PoolMetricsListener l = listener;
+    if (l != null) {
+      l.overdueConnectionClaimed();
+    }
+  }
+
+  void badConnectionDetected() {
+    badConnections.increment();
+    PoolMetricsListener l = listener;
+    if (l != null) {
+      l.badConnectionDetected();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "PoolMetrics{active=" + getActiveConnectionCount()
+        + ", idle=" + getIdleConnectionCount()
+        + ", pendingWaiters=" + getPendingWaiterCount()
+        + ", created=" + getCreatedConnectionCount()
+        + ", closed=" + getClosedConnectionCount()
+        + ", evicted=" + getEvictedConnectionCount()
+        + ", claimedOverdue=" + getClaimedOverdueConnectionCount()
+        + ", bad=" + getBadConnectionCount()
+        + ", acquireTime={" + acquireTime + "}"
+        + ", checkoutTime={" + checkoutTime + "}"
+        + ", validationTime={" + validationTime + "}}";
+  }
+
+}
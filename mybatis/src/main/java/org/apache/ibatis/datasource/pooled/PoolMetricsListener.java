@@ -0,0 +1,92 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+/**
+ * Receives the events recorded by {@link PoolMetrics}, e.g. to bridge them to a metrics library.
+ * <p>
+ * Methods are called on the thread that acquires, returns or closes the connection, in some cases while the pool
+ * holds a lock, so implementations must be fast and must not throw.
+ *
+ * @since 3.5.3
+ * @see PooledDataSource#setPoolMetricsListener(PoolMetricsListener)
+ */
+public interface PoolMetricsListener {
+
+  /**
+   * A connection was handed out.
+   *
+   * @param acquireNanos the time spent in {@code getConnection()}, including waiting and validation
+   */
+  default void connectionAcquired(long acquireNanos) {
+    // NOP
+  }
+
+  /**
+   * A connection was returned to the pool.
+   *
+   * @param checkoutNanos the time the connection was checked out
+   */
+  default void connectionReturned(long checkoutNanos) {
+    // NOP
+  }
+
+  /**
+   * A connection was validated.
+   *
+   * @param validationNanos the time spent validating the connection (including the ping query, if any)
+   * @param valid the validation result
+   */
+  default void connectionValidated(long validationNanos, boolean valid) {
+    // NOP
+  }
+
+  /**
+   * A physical connection was opened.
+   */
+  default void connectionCreated() {
+    // NOP
+  }
+
+  /**
+   * A physical connection was closed by the pool.
+   */
+  default void connectionClosed() {
+    // NOP
+  }
+
+  /**
+   * An idle connection was closed by the housekeeper because it exceeded the maximum idle time or lifetime.
+   */
+  default void connectionEvicted() {
+    // NOP
+  }
+
+  /**
+   * A connection that was checked out longer than {@code poolMaximumCheckoutTime} was claimed by another thread.
+   */
+  default void overdueConnectionClaimed() {
+    // NOP
+  }
+
+  /**
+   * A connection failed validation and was discarded.
+   */
+  default void badConnectionDetected() {
+    // NOP
+  }
+
+}
@@ -36,8 +36,10 @@ class PooledConnection implements InvocationHandler {
   private final Connection realConnection;
   private final Connection proxyConnection;
   private long checkoutTimestamp;
+  private long checkoutNanoTime;
   private long createdTimestamp;
   private long lastUsedTimestamp;
+  private long lastPingTimestamp;
   private int connectionTypeCode;
   private boolean valid;
 
@@ -163,6 +165,33 @@ class PooledConnection implements InvocationHandler {
     return System.currentTimeMillis() - lastUsedTimestamp;
   }
 
+  /**
+   * Setter for the time that the connection was last pinged successfully.
+   *
+   * @param lastPingTimestamp - the timestamp
+   */
+  void setLastPingTimestamp(long lastPingTimestamp) {
+    this.lastPingTimestamp = lastPingTimestamp;
+  }
+
+  /**
+   * Getter for the time that the connection was last pinged successfully.
+   *
+   * @return - the timestamp
+   */
+  long getLastPingTimestamp() {
+    return lastPingTimestamp;
+  }
+
+  /**
+   * Getter for the time since this connection was last pinged successfully.
+   *
+   * @return - the time since the last ping
+   */
+  long getTimeElapsedSinceLastPing() {
+    return System.currentTimeMillis() - lastPingTimestamp;
+  }
+
   /**
    * Getter for the age of the connection.
    *
@@ -188,6 +217,7 @@ class PooledConnection implements InvocationHandler {
    */
   public void setCheckoutTimestamp(long timestamp) {
     this.checkoutTimestamp = timestamp;
+    this.checkoutNanoTime = System.nanoTime();
   }
 
   /**
@@ -199,6 +229,15 @@ class PooledConnection implements InvocationHandler {
     return System.currentTimeMillis() - checkoutTimestamp;
   }
 
+  /**
+   * Getter for the time that this connection has been checked out, in nanoseconds.
+   *
+   * @return the time
+   */
+  long getCheckoutNanos() {
+    return System.nanoTime() - checkoutNanoTime;
+  }
+
   @Override
   public int hashCode() {
     return hashCode;
@@ -22,7 +22,12 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 import javax.sql.DataSource;
@@ -42,7 +47,9 @@ public class PooledDataSource implements DataSource {
 
   private final PoolState state = new PoolState(this);
 
-  private final UnpooledDataSource dataSource;
+  private final PoolMetrics metrics = new PoolMetrics(this);
+
+  protected final UnpooledDataSource dataSource;
 
   // OPTIONAL CONFIGURATION FIELDS
   protected int poolMaximumActiveConnections = 10;
@@ -53,8 +60,18 @@ public class PooledDataSource implements DataSource {
   protected String poolPingQuery = "NO PING QUERY SET";
   protected boolean poolPingEnabled;
   protected int poolPingConnectionsNotUsedFor;
+  protected int poolMinimumIdleConnections;
+  protected int poolMaximumIdleTime;
+  protected int poolMaximumLifetime;
+  protected int poolHousekeepingPeriod;
+
+  protected int expectedConnectionTypeCode;
 
-  private int expectedConnectionTypeCode;
+  // connections held by the housekeeper outside of the pool lists, guarded by state
+  private int housekeepingConnections;
+  // incremented by forceCloseAll(), guarded by state
+  private long closeAllCount;
+  private ScheduledFuture<?> housekeeping;
 
   public PooledDataSource() {
     dataSource = new UnpooledDataSource();
@@ -247,6 +264,59 @@ public class PooledDataSource implements DataSource {
     forceCloseAll();
   }
 
+  /**
+   * The number of idle connections the housekeeper keeps open, it opens new connections in the background
+   * when there are fewer idle connections.
+   *
+   * @param poolMinimumIdleConnections The minimum number of idle connections
+   * @since 3.5.3
+   */
+  public void setPoolMinimumIdleConnections(int poolMinimumIdleConnections) {
+    this.poolMinimumIdleConnections = poolMinimumIdleConnections;
+    forceCloseAll();
+  }
+
+  /**
+   * The time after which the housekeeper closes an idle connection, as long as there are more idle connections than
+   * the minimum. Zero (the default) disables idle eviction.
+   *
+   * @param milliseconds The maximum idle time
+   * @since 3.5.3
+   */
+  public void setPoolMaximumIdleTime(int milliseconds) {
+    this.poolMaximumIdleTime = milliseconds;
+    forceCloseAll();
+  }
+
+  /**
+   * The maximum time a physical connection is kept open. Older connections are closed by the housekeeper when idle
+   * and when they are returned to the pool. Zero (the default) disables the limit.
+   *
+   * @param milliseconds The maximum lifetime
+   * @since 3.5.3
+   */
+  public void setPoolMaximumLifetime(int milliseconds) {
+    this.poolMaximumLifetime = milliseconds;
+    forceCloseAll();
+  }
+
+  /**
+   * The interval between two runs of the housekeeper, which opens the minimum number of idle connections, evicts
+   * idle and expired connections and, if the ping is enabled, pings idle connections that have not been used for
+   * poolPingConnectionsNotUsedFor so that checkouts do not have to. Zero (the default) disables the housekeeper.
+   * <p>
+   * The housekeeper is started by {@link #startHousekeeping()}, which is called by {@link PooledDataSourceFactory}
+   * once the data source is configured. Like every pool setting, changing it calls {@link #forceCloseAll()}, which
+   * stops the housekeeper.
+   *
+   * @param milliseconds The housekeeping interval
+   * @since 3.5.3
+   */
+  public void setPoolHousekeepingPeriod(int milliseconds) {
+    this.poolHousekeepingPeriod = milliseconds;
+    forceCloseAll();
+  }
+
   public String getDriver() {
     return dataSource.getDriver();
   }
@@ -315,10 +385,66 @@ public class PooledDataSource implements DataSource {
   }
 
   /**
-   * Closes all active and idle connections in the pool.
+   * @since 3.5.3
+   */
+  public int getPoolMinimumIdleConnections() {
+    return poolMinimumIdleConnections;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public int getPoolMaximumIdleTime() {
+    return poolMaximumIdleTime;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public int getPoolMaximumLifetime() {
+    return poolMaximumLifetime;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public int getPoolHousekeepingPeriod() {
+    return poolHousekeepingPeriod;
+  }
+
+  /**
+   * Starts the background housekeeping if a housekeeping period is set, restarting it if it is already running.
+   *
+   * @since 3.5.3
+   */
+  public synchronized void startHousekeeping() {
+    stopHousekeeping();
+    if (poolHousekeepingPeriod > 0) {
+      housekeeping = PoolHousekeeper.schedule(this, poolHousekeepingPeriod);
+    }
+  }
+
+  /**
+   * Stops the background housekeeping.
+   *
+   * @since 3.5.3
+   */
+  public synchronized void stopHousekeeping() {
+    if (housekeeping != null) {
+      housekeeping.cancel(false);
+      housekeeping = null;
+    }
+  }
+
+  /**
+   * Closes all active and idle connections in the pool and stops the housekeeper, which
+   * {@link #startHousekeeping()} restarts.
    */
   public void forceCloseAll() {
-    synchronized (state) {
+    stopHousekeeping();
+    state.lock.lock();
+    try {
+      closeAllCount++;
       expectedConnectionTypeCode = assembleConnectionTypeCode(dataSource.getUrl(), dataSource.getUsername(), dataSource.getPassword());
       for (int i = state.activeConnections.size(); i > 0; i--) {
         try {
@@ -330,6 +456,7 @@ public class PooledDataSource implements DataSource {
             realConn.rollback();
           }
           realConn.close();
+          metrics.connectionClosed();
         } catch (Exception e) {
           // ignore
         }
@@ -344,10 +471,13 @@ public class PooledDataSource implements DataSource {
             realConn.rollback();
           }
           realConn.close();
+          metrics.connectionClosed();
         } catch (Exception e) {
           // ignore
         }
       }
+    } finally {
+      state.lock.unlock();
     }
     if (log.isDebugEnabled()) {
       log.debug("PooledDataSource forcefully closed/removed all connections.");
@@ -358,16 +488,52 @@ public class PooledDataSource implements DataSource {
     return state;
   }
 
-  private int assembleConnectionTypeCode(String url, String username, String password) {
+  /**
+   * Returns the live metrics of this pool.
+   *
+   * @return the pool metrics
+   * @since 3.5.3
+   */
+  public PoolMetrics getPoolMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Sets a listener that receives the events recorded by the {@link PoolMetrics} of this pool.
+   *
+   * @param listener the listener, or {@code null} to remove it
+   * @since 3.5.3
+   */
+  public void setPoolMetricsListener(PoolMetricsListener listener) {
+    metrics.setListener(listener);
+  }
+
+  /**
+   * Validates a connection and records the validation time.
+   *
+   * @param conn the connection to validate
+   * @return True if the connection is still usable
+   */
+  boolean validateConnection(PooledConnection conn) {
+    long start = System.nanoTime();
+    boolean valid = conn.isValid();
+    metrics.connectionValidated(System.nanoTime() - start, valid);
+    return valid;
+  }
+
+  protected int assembleConnectionTypeCode(String url, String username, String password) {
     return ("" + url + username + password).hashCode();
   }
 
   protected void pushConnection(PooledConnection conn) throws SQLException {
 
-    synchronized (state) {
+    state.lock.lock();
+    try {
       state.activeConnections.remove(conn);
-      if (conn.isValid()) {
-        if (state.idleConnections.size() < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode) {
+      if (validateConnection(conn)) {
+        metrics.connectionReturned(conn.getCheckoutNanos());
+        if (state.idleConnections.size() < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode
+            && !isExpired(conn)) {
           state.accumulatedCheckoutTime += conn.getCheckoutTime();
           if (!conn.getRealConnection().getAutoCommit()) {
             conn.getRealConnection().rollback();
@@ -376,17 +542,19 @@ public class PooledDataSource implements DataSource {
           state.idleConnections.add(newConn);
           newConn.setCreatedTimestamp(conn.getCreatedTimestamp());
           newConn.setLastUsedTimestamp(conn.getLastUsedTimestamp());
+          newConn.setLastPingTimestamp(conn.getLastPingTimestamp());
           conn.invalidate();
           if (log.isDebugEnabled()) {
             log.debug("Returned connection " + newConn.getRealHashCode() + " to pool.");
           }
-          state.notifyAll();
+          state.connectionAvailable.signalAll();
         } else {
           state.accumulatedCheckoutTime += conn.getCheckoutTime();
           if (!conn.getRealConnection().getAutoCommit()) {
             conn.getRealConnection().rollback();
           }
           conn.getRealConnection().close();
+          metrics.connectionClosed();
           if (log.isDebugEnabled()) {
             log.debug("Closed connection " + conn.getRealHashCode() + ".");
           }
@@ -397,7 +565,10 @@ public class PooledDataSource implements DataSource {
           log.debug("A bad connection (" + conn.getRealHashCode() + ") attempted to return to the pool, discarding connection.");
         }
         state.badConnectionCount++;
+        metrics.badConnectionDetected();
       }
+    } finally {
+      state.lock.unlock();
     }
   }
 
@@ -405,10 +576,12 @@ public class PooledDataSource implements DataSource {
     boolean countedWait = false;
     PooledConnection conn = null;
     long t = System.currentTimeMillis();
+    long startNanos = System.nanoTime();
     int localBadConnectionCount = 0;
 
     while (conn == null) {
-      synchronized (state) {
+      state.lock.lock();
+      try {
         if (!state.idleConnections.isEmpty()) {
           // Pool has available connection
           conn = state.idleConnections.remove(0);
@@ -417,9 +590,10 @@ public class PooledDataSource implements DataSource {
           }
         } else {
           // Pool does not have available connection
-          if (state.activeConnections.size() < poolMaximumActiveConnections) {
+          if (state.activeConnections.size() + housekeepingConnections < poolMaximumActiveConnections) {
             // Can create new connection
             conn = new PooledConnection(dataSource.getConnection(), this);
+            metrics.connectionCreated();
             if (log.isDebugEnabled()) {
               log.debug("Created connection " + conn.getRealHashCode() + ".");
             }
@@ -430,6 +604,7 @@ public class PooledDataSource implements DataSource {
             if (longestCheckoutTime > poolMaximumCheckoutTime) {
               // Can claim overdue connection
               state.claimedOverdueConnectionCount++;
+              metrics.overdueConnectionClaimed();
               state.accumulatedCheckoutTimeOfOverdueConnections += longestCheckoutTime;
               state.accumulatedCheckoutTime += longestCheckoutTime;
               state.activeConnections.remove(oldestActiveConnection);
@@ -451,6 +626,7 @@ public class PooledDataSource implements DataSource {
               conn = new PooledConnection(oldestActiveConnection.getRealConnection(), this);
               conn.setCreatedTimestamp(oldestActiveConnection.getCreatedTimestamp());
               conn.setLastUsedTimestamp(oldestActiveConnection.getLastUsedTimestamp());
+              conn.setLastPingTimestamp(oldestActiveConnection.getLastPingTimestamp());
               oldestActiveConnection.invalidate();
               if (log.isDebugEnabled()) {
                 log.debug("Claimed overdue connection " + conn.getRealHashCode() + ".");
@@ -466,7 +642,16 @@ public class PooledDataSource implements DataSource {
                   log.debug("Waiting as long as " + poolTimeToWait + " milliseconds for connection.");
                 }
                 long wt = System.currentTimeMillis();
-                state.wait(poolTimeToWait);
+                metrics.waitStarted();
+                try {
+                  if (poolTimeToWait > 0) {
+                    state.connectionAvailable.await(poolTimeToWait, TimeUnit.MILLISECONDS);
+                  } else {
+                    state.connectionAvailable.await();
+                  }
+                } finally {
+                  metrics.waitFinished();
+                }
                 state.accumulatedWaitTime += System.currentTimeMillis() - wt;
               } catch (InterruptedException e) {
                 break;
@@ -476,7 +661,7 @@ public class PooledDataSource implements DataSource {
         }
         if (conn != null) {
           // ping to server and check the connection is valid or not
-          if (conn.isValid()) {
+          if (validateConnection(conn)) {
             if (!conn.getRealConnection().getAutoCommit()) {
               conn.getRealConnection().rollback();
             }
@@ -486,11 +671,13 @@ public class PooledDataSource implements DataSource {
             state.activeConnections.add(conn);
             state.requestCount++;
             state.accumulatedRequestTime += System.currentTimeMillis() - t;
+            metrics.connectionAcquired(System.nanoTime() - startNanos);
           } else {
             if (log.isDebugEnabled()) {
               log.debug("A bad connection (" + conn.getRealHashCode() + ") was returned from the pool, getting another connection.");
             }
             state.badConnectionCount++;
+            metrics.badConnectionDetected();
             localBadConnectionCount++;
             conn = null;
             if (localBadConnectionCount > (poolMaximumIdleConnections + poolMaximumLocalBadConnectionTolerance)) {
@@ -501,6 +688,8 @@ public class PooledDataSource implements DataSource {
             }
           }
         }
+      } finally {
+        state.lock.unlock();
       }
 
     }
@@ -515,6 +704,129 @@ public class PooledDataSource implements DataSource {
     return conn;
   }
 
+  /**
+   * Performs one housekeeping run: closes idle connections that exceeded the maximum idle time or lifetime, pings idle
+   * connections that are due for a ping and opens new connections up to the minimum number of idle connections.
+   * Connections are pinged, opened and closed without holding the pool lock.
+   *
+   * @since 3.5.3
+   */
+  protected void housekeep() {
+    List<PooledConnection> evicted = new ArrayList<>();
+    List<PooledConnection> stale = new ArrayList<>();
+    int toCreate;
+    long generation;
+    state.lock.lock();
+    try {
+      generation = closeAllCount;
+      int idleCount = state.idleConnections.size();
+      for (Iterator<PooledConnection> iterator = state.idleConnections.iterator(); iterator.hasNext();) {
+        PooledConnection conn = iterator.next();
+        if (isExpired(conn) || (idleCount > poolMinimumIdleConnections && isIdleTooLong(conn))) {
+          iterator.remove();
+          evicted.add(conn);
+          idleCount--;
+        } else if (isPingDue(conn)) {
+          iterator.remove();
+          stale.add(conn);
+        }
+      }
+      toCreate = Math.min(poolMinimumIdleConnections - idleCount,
+          poolMaximumActiveConnections - state.activeConnections.size() - idleCount - housekeepingConnections);
+      toCreate = Math.max(toCreate, 0);
+      housekeepingConnections += stale.size() + toCreate;
+    } finally {
+      state.lock.unlock();
+    }
+    for (PooledConnection conn : evicted) {
+      if (log.isDebugEnabled()) {
+        log.debug("Evicted idle connection " + conn.getRealHashCode() + ".");
+      }
+      closeConnection(conn);
+      metrics.connectionEvicted();
+    }
+    for (PooledConnection conn : stale) {
+      if (validateConnection(conn)) {
+        returnHousekeptConnection(conn, generation);
+      } else {
+        if (log.isDebugEnabled()) {
+          log.debug("A bad idle connection (" + conn.getRealHashCode() + ") was found by the housekeeper, discarding connection.");
+        }
+        state.lock.lock();
+        try {
+          housekeepingConnections--;
+          state.badConnectionCount++;
+        } finally {
+          state.lock.unlock();
+        }
+        metrics.badConnectionDetected();
+        closeConnection(conn);
+      }
+    }
+    for (int i = 0; i < toCreate; i++) {
+      PooledConnection conn;
+      try {
+        conn = new PooledConnection(dataSource.getConnection(), this);
+      } catch (SQLException e) {
+        state.lock.lock();
+        try {
+          housekeepingConnections -= toCreate - i;
+        } finally {
+          state.lock.unlock();
+        }
+        log.warn("The housekeeper could not open a connection. Cause: " + e);
+        break;
+      }
+      metrics.connectionCreated();
+      if (log.isDebugEnabled()) {
+        log.debug("Created idle connection " + conn.getRealHashCode() + ".");
+      }
+      returnHousekeptConnection(conn, generation);
+    }
+  }
+
+  private void returnHousekeptConnection(PooledConnection conn, long generation) {
+    state.lock.lock();
+    try {
+      housekeepingConnections--;
+      if (generation == closeAllCount && state.idleConnections.size() < poolMaximumIdleConnections) {
+        state.idleConnections.add(conn);
+        state.connectionAvailable.signalAll();
+        return;
+      }
+    } finally {
+      state.lock.unlock();
+    }
+    closeConnection(conn);
+  }
+
+  private void closeConnection(PooledConnection conn) {
+    conn.invalidate();
+    try {
+      Connection realConn = conn.getRealConnection();
+      if (!realConn.getAutoCommit()) {
+        realConn.rollback();
+      }
+      realConn.close();
+      metrics.connectionClosed();
+    } catch (Exception e) {
+      // ignore
+    }
+  }
+
+  boolean isExpired(PooledConnection conn) {
+    return poolMaximumLifetime > 0 && conn.getAge() > poolMaximumLifetime;
+  }
+
+  boolean isIdleTooLong(PooledConnection conn) {
+    return poolMaximumIdleTime > 0 && conn.getTimeElapsedSinceLastUse() > poolMaximumIdleTime;
+  }
+
+  boolean isPingDue(PooledConnection conn) {
+    return poolPingEnabled && poolPingConnectionsNotUsedFor >= 0 && conn.getTimeElapsedSinceLastUse() > poolPingConnectionsNotUsedFor
+        && conn.getTimeElapsedSinceLastPing() > poolPingConnectionsNotUsedFor;
+  }
+
   /**
    * Method to check to see if a connection is still usable
    *
@@ -535,7 +847,7 @@ public class PooledDataSource implements DataSource {
 
     if (result) {
       if (poolPingEnabled) {
-        if (poolPingConnectionsNotUsedFor >= 0 && conn.getTimeElapsedSinceLastUse() > poolPingConnectionsNotUsedFor) {
+        if (isPingDue(conn)) {
           try {
             if (log.isDebugEnabled()) {
               log.debug("Testing connection " + conn.getRealHashCode() + " ...");
@@ -548,6 +860,7 @@ public class PooledDataSource implements DataSource {
               realConn.rollback();
             }
             result = true;
+            conn.setLastPingTimestamp(System.currentTimeMillis());
             if (log.isDebugEnabled()) {
               log.debug("Connection " + conn.getRealHashCode() + " is GOOD!");
             }
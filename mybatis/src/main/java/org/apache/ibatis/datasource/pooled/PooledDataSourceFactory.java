@@ -15,6 +15,9 @@
  */
 package org.apache.ibatis.datasource.pooled;
 
+import java.util.Properties;
+
+import org.apache.ibatis.datasource.DataSourceException;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
 
 /**
@@ -22,8 +25,36 @@ import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
  */
 public class PooledDataSourceFactory extends UnpooledDataSourceFactory {
 
+  /**
+   * The property that selects the pool implementation: {@code CLASSIC} (the default) for {@link PooledDataSource} or
+   * {@code CONCURRENT} for {@link ConcurrentPooledDataSource}.
+   *
+   * @since 3.5.3
+   */
+  public static final String POOL_TYPE_PROPERTY = "poolType";
+
   public PooledDataSourceFactory() {
     this.dataSource = new PooledDataSource();
   }
 
+  @Override
+  public void setProperties(Properties properties) {
+    String poolType = properties.getProperty(POOL_TYPE_PROPERTY);
+    if (poolType != null) {
+      Properties dataSourceProperties = new Properties();
+      dataSourceProperties.putAll(properties);
+      dataSourceProperties.remove(POOL_TYPE_PROPERTY);
+      properties = dataSourceProperties;
+      if ("CONCURRENT".equalsIgnoreCase(poolType)) {
+        this.dataSource = new ConcurrentPooledDataSource();
+      } else if ("CLASSIC".equalsIgnoreCase(poolType)) {
+        this.dataSource = new PooledDataSource();
+      } else {
+        throw new DataSourceException("Unknown pool type: " + poolType + ". Expected CLASSIC or CONCURRENT.");
+      }
+    }
+    super.setProperties(properties);
+    ((PooledDataSource) dataSource).startHousekeeping();
+  }
+
 }
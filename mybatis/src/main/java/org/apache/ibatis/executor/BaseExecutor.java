@@ -37,6 +37,7 @@ import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.property.PropertyPath;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.LocalCacheScope;
 import org.apache.ibatis.session.ResultHandler;
@@ -61,6 +62,7 @@ public abstract class BaseExecutor implements Executor {
 
   protected int queryStack;
   private boolean closed;
+  private boolean dirty;
 
   protected BaseExecutor(Configuration configuration, Transaction transaction) {
     this.transaction = transaction;
@@ -107,6 +109,11 @@ public abstract class BaseExecutor implements Executor {
     return closed;
   }
 
+  @Override
+  public boolean isDirty() {
+    return dirty;
+  }
+
   @Override
   public int update(MappedStatement ms, Object parameter) throws SQLException {
     ErrorContext.instance().resource(ms.getResource()).activity("executing an update").object(ms.getId());
@@ -114,6 +121,7 @@ public abstract class BaseExecutor implements Executor {
       throw new ExecutorException("Executor was closed.");
     }
     clearLocalCache();
+    dirty = true;
     return doUpdate(ms, parameter);
   }
 
@@ -196,27 +204,28 @@ public abstract class BaseExecutor implements Executor {
     if (closed) {
       throw new ExecutorException("Executor was closed.");
     }
-    CacheKey cacheKey = new CacheKey();
-    cacheKey.update(ms.getId());
-    cacheKey.update(rowBounds.getOffset());
-    cacheKey.update(rowBounds.getLimit());
-    cacheKey.update(boundSql.getSql());
     List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    // room for the SQL, the parameters and the environment id
+    CacheKey cacheKey = ms.newCacheKey(rowBounds, parameterMappings.size() + 2);
+    cacheKey.update(boundSql.getSql());
     TypeHandlerRegistry typeHandlerRegistry = ms.getConfiguration().getTypeHandlerRegistry();
     // mimic DefaultParameterHandler logic
+    MetaObject metaObject = null;
     for (ParameterMapping parameterMapping : parameterMappings) {
       if (parameterMapping.getMode() != ParameterMode.OUT) {
         Object value;
-        String propertyName = parameterMapping.getProperty();
-        if (boundSql.hasAdditionalParameter(propertyName)) {
-          value = boundSql.getAdditionalParameter(propertyName);
+        PropertyPath propertyPath = parameterMapping.getPropertyPath();
+        if (boundSql.hasAdditionalParameter(propertyPath)) {
+          value = boundSql.getAdditionalParameter(propertyPath);
         } else if (parameterObject == null) {
           value = null;
         } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
           value = parameterObject;
         } else {
-          MetaObject metaObject = configuration.newMetaObject(parameterObject);
-          value = metaObject.getValue(propertyName);
+          if (metaObject == null) {
+            metaObject = configuration.newMetaObject(parameterObject);
+          }
+          value = metaObject.getValue(propertyPath);
         }
         cacheKey.update(value);
       }
@@ -243,6 +252,7 @@ public abstract class BaseExecutor implements Executor {
     if (required) {
       transaction.commit();
     }
+    dirty = false;
   }
 
   @Override
@@ -255,6 +265,7 @@ public abstract class BaseExecutor implements Executor {
         if (required) {
           transaction.rollback();
         }
+        dirty = false;
       }
     }
   }
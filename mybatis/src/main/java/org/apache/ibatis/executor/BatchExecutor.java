@@ -17,38 +17,107 @@ package org.apache.ibatis.executor;
 
 import java.sql.BatchUpdateException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.jdbc.ConnectionLogger;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
 
 /**
+ * Collects updates in JDBC batches until they are flushed.
+ * <p>
+ * Pending statements are flushed on their own when a statement collected its batch size
+ * ({@link MappedStatement#getBatchSize()}, or {@link Configuration#getDefaultBatchSize()}) or when all statements
+ * together collected {@link Configuration#getBatchMaxPendingRows()} rows. The results of such flushes are handed to the
+ * {@link BatchFlushListener} when there is one, otherwise they are returned by the next {@link #flushStatements()}
+ * without their parameter objects, so that the memory held by a long batch does not grow with the rows flushed.
+ * <p>
+ * A new JDBC batch is normally started whenever the statement or its SQL differs from the previous update. When
+ * {@link Configuration#isBatchReorderingEnabled()} is set, updates are instead added to the batch already started for
+ * the same statement and SQL, and the batches are executed in the order their first update was added. Interleaved
+ * updates (A, B, A, B, ...) then become two batches instead of one batch per update.
+ * <p>
+ * The rows of an insert with a {@link MappedStatement#getMultiRowInsertWidth()} are sent as multi-row inserts when the
+ * batch is flushed. The update counts of such a batch hold one entry per row.
+ * <p>
+ * With {@link Configuration#getBatchFlushParallelism()}, the rows of the statements marked with
+ * {@link MappedStatement#isFlushInParallel()} that do not need the executor to generate keys are kept until the flush,
+ * where their batches are executed concurrently by {@link Configuration#getBatchFlushExecutorService()}, on connections
+ * borrowed from the data source. Each of those batches is committed on its own. The batches of the same table are
+ * executed one after the other, and on the session's connection when one of the other batches of the flush writes that
+ * table as well. The other batches still run on the session's connection.
+ *
  * @author Jeff Butler
  */
 public class BatchExecutor extends BaseExecutor {
 
   public static final int BATCH_UPDATE_RETURN_VALUE = Integer.MIN_VALUE + 1002;
 
+  private static final int DETACHED_FLUSH_TIMEOUT_SECONDS = 600;
+  private static final Pattern TABLE_PATTERN = Pattern.compile(
+      "^\\s*(?:insert\\s+into|update|delete\\s+from|merge\\s+into)\\s+([^\\s(]+)", Pattern.CASE_INSENSITIVE);
+
   private final List<Statement> statementList = new ArrayList<>();
   private final List<BatchResult> batchResultList = new ArrayList<>();
+  private final List<MultiRowInsert> multiRowInsertList = new ArrayList<>();
+  private final List<List<StatementHandler>> detachedRowList = new ArrayList<>();
+  private final List<String> detachedTableList = new ArrayList<>();
+  private final List<BatchResult> flushedResultList = new ArrayList<>();
+  private final Map<BatchKey, Integer> batchIndexes = new HashMap<>();
+  private final boolean reordering;
+  private final int flushParallelism;
   private String currentSql;
   private MappedStatement currentStatement;
+  private int currentIndex;
+  private int pendingRowCount;
+  private BatchFlushListener batchFlushListener;
 
   public BatchExecutor(Configuration configuration, Transaction transaction) {
     super(configuration, transaction);
+    this.batchFlushListener = configuration.getBatchFlushListener();
+    this.reordering = configuration.isBatchReorderingEnabled();
+    Integer parallelism = configuration.getBatchFlushParallelism();
+    this.flushParallelism = parallelism != null && configuration.getEnvironment() != null ? parallelism : 0;
+  }
+
+  /**
+   * Sets the listener that receives the results of the statements flushed because a batch size was reached.
+   *
+   * @param batchFlushListener the listener or {@code null} to return them from the next {@link #flushStatements()}
+   * @since 3.5.3
+   */
+  public void setBatchFlushListener(BatchFlushListener batchFlushListener) {
+    this.batchFlushListener = batchFlushListener;
   }
 
   @Override
@@ -58,26 +127,115 @@ public class BatchExecutor extends BaseExecutor {
     final BoundSql boundSql = handler.getBoundSql();
     final String sql = boundSql.getSql();
     final Statement stmt;
-    if (sql.equals(currentSql) && ms.equals(currentStatement)) {
-      int last = statementList.size() - 1;
-      stmt = statementList.get(last);
-      applyTransactionTimeout(stmt);
-      handler.parameterize(stmt);//fix Issues 322
-      BatchResult batchResult = batchResultList.get(last);
+    final BatchResult batchResult;
+    int index = findBatch(ms, sql);
+    if (index >= 0 && multiRowInsertList.get(index) != null && !multiRowInsertList.get(index).accepts(boundSql)) {
+      // the same SQL with other parameter mappings starts a batch of its own
+      index = -1;
+    }
+    final MultiRowInsert multiRowInsert;
+    final List<StatementHandler> detachedRows;
+    if (index >= 0) {
+      stmt = statementList.get(index);
+      multiRowInsert = multiRowInsertList.get(index);
+      detachedRows = detachedRowList.get(index);
+      if (stmt != null) {
+        applyTransactionTimeout(stmt);
+        handler.parameterize(stmt);//fix Issues 322
+      }
+      batchResult = batchResultList.get(index);
       batchResult.addParameterObject(parameterObject);
     } else {
-      Connection connection = getConnection(ms.getStatementLog());
-      stmt = handler.prepare(connection, transaction.getTimeout());
-      handler.parameterize(stmt);    //fix Issues 322
-      currentSql = sql;
-      currentStatement = ms;
+      multiRowInsert = MultiRowInsert.getWidth(ms) > 0 ? MultiRowInsert.create(ms, boundSql) : null;
+      String detachedTable = isDetached(ms) ? getTableName(sql) : null;
+      detachedRows = multiRowInsert == null && detachedTable != null ? new ArrayList<>() : null;
+      if (multiRowInsert == null && detachedRows == null) {
+        Connection connection = getConnection(ms.getStatementLog());
+        stmt = handler.prepare(connection, transaction.getTimeout());
+        handler.parameterize(stmt);    //fix Issues 322
+      } else {
+        // prepared when the batch is flushed
+        stmt = null;
+      }
+      index = statementList.size();
       statementList.add(stmt);
-      batchResultList.add(new BatchResult(ms, sql, parameterObject));
+      multiRowInsertList.add(multiRowInsert);
+      detachedRowList.add(detachedRows);
+      detachedTableList.add(detachedTable);
+      batchResult = new BatchResult(ms, sql, parameterObject);
+      batchResultList.add(batchResult);
+      if (reordering) {
+        batchIndexes.put(new BatchKey(ms, sql), index);
+      }
+    }
+    currentSql = sql;
+    currentStatement = ms;
+    currentIndex = index;
+    if (multiRowInsert != null) {
+      multiRowInsert.addRow(parameterObject, boundSql);
+    } else if (detachedRows != null) {
+      detachedRows.add(handler);
+    } else {
+      handler.batch(stmt);
+    }
+    pendingRowCount++;
+    if (isFlushRequired(ms, batchResult)) {
+      autoFlush();
     }
-    handler.batch(stmt);
     return BATCH_UPDATE_RETURN_VALUE;
   }
 
+  private int findBatch(MappedStatement ms, String sql) {
+    if (sql.equals(currentSql) && ms.equals(currentStatement)) {
+      return currentIndex;
+    }
+    if (reordering) {
+      Integer index = batchIndexes.get(new BatchKey(ms, sql));
+      if (index != null) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  private boolean isDetached(MappedStatement ms) {
+    if (flushParallelism < 2 || !ms.isFlushInParallel() || ms.getStatementType() == StatementType.CALLABLE) {
+      return false;
+    }
+    // other key generators run queries on this executor, which is not thread safe
+    Class<?> keyGeneratorType = ms.getKeyGenerator().getClass();
+    return NoKeyGenerator.class.equals(keyGeneratorType) || Jdbc3KeyGenerator.class.equals(keyGeneratorType);
+  }
+
+  private static String getTableName(String sql) {
+    Matcher matcher = TABLE_PATTERN.matcher(sql);
+    return matcher.find() ? matcher.group(1).toUpperCase(Locale.ENGLISH) : null;
+  }
+
+  private boolean isFlushRequired(MappedStatement ms, BatchResult batchResult) {
+    Integer batchSize = ms.getBatchSize() != null ? ms.getBatchSize() : configuration.getDefaultBatchSize();
+    if (batchSize != null && batchSize > 0 && batchResult.getParameterObjects().size() >= batchSize) {
+      return true;
+    }
+    Integer maxPendingRows = configuration.getBatchMaxPendingRows();
+    return maxPendingRows != null && maxPendingRows > 0 && pendingRowCount >= maxPendingRows;
+  }
+
+  private void autoFlush() throws SQLException {
+    // all pending statements are flushed so that they still execute in the order they were added
+    List<BatchResult> results = doFlushStatements(false);
+    if (batchFlushListener != null) {
+      batchFlushListener.batchFlushed(results);
+    } else {
+      // only the update counts are kept, the parameter objects of the flushed rows are released
+      for (BatchResult result : results) {
+        BatchResult counts = new BatchResult(result.getMappedStatement(), result.getSql());
+        counts.setUpdateCounts(result.getUpdateCounts());
+        flushedResultList.add(counts);
+      }
+    }
+  }
+
   @Override
   public <E> List<E> doQuery(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql)
       throws SQLException {
@@ -107,6 +265,21 @@ public class BatchExecutor extends BaseExecutor {
     return handler.queryCursor(stmt);
   }
 
+  @Override
+  public List<BatchResult> flushStatements(boolean isRollBack) throws SQLException {
+    List<BatchResult> results = super.flushStatements(isRollBack);
+    if (flushedResultList.isEmpty()) {
+      return results;
+    }
+    List<BatchResult> allResults = new ArrayList<>(flushedResultList);
+    flushedResultList.clear();
+    if (isRollBack) {
+      return results;
+    }
+    allResults.addAll(results);
+    return allResults;
+  }
+
   @Override
   public List<BatchResult> doFlushStatements(boolean isRollback) throws SQLException {
     try {
@@ -114,25 +287,14 @@ public class BatchExecutor extends BaseExecutor {
       if (isRollback) {
         return Collections.emptyList();
       }
+      Collection<List<Integer>> detachedGroups = getDetachedGroups();
+      if (!detachedGroups.isEmpty()) {
+        return flushInParallel(detachedGroups);
+      }
       for (int i = 0, n = statementList.size(); i < n; i++) {
-        Statement stmt = statementList.get(i);
-        applyTransactionTimeout(stmt);
         BatchResult batchResult = batchResultList.get(i);
         try {
-          batchResult.setUpdateCounts(stmt.executeBatch());
-          MappedStatement ms = batchResult.getMappedStatement();
-          List<Object> parameterObjects = batchResult.getParameterObjects();
-          KeyGenerator keyGenerator = ms.getKeyGenerator();
-          if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
-            Jdbc3KeyGenerator jdbc3KeyGenerator = (Jdbc3KeyGenerator) keyGenerator;
-            jdbc3KeyGenerator.processBatch(ms, stmt, parameterObjects);
-          } else if (!NoKeyGenerator.class.equals(keyGenerator.getClass())) { //issue #141
-            for (Object parameter : parameterObjects) {
-              keyGenerator.processAfter(this, ms, stmt, parameter);
-            }
-          }
-          // Close statement to close cursor #1109
-          closeStatement(stmt);
+          flushBatch(i);
         } catch (BatchUpdateException e) {
           StringBuilder message = new StringBuilder();
           message.append(batchResult.getMappedStatement().getId())
@@ -155,9 +317,333 @@ public class BatchExecutor extends BaseExecutor {
         closeStatement(stmt);
       }
       currentSql = null;
+      pendingRowCount = 0;
+      batchIndexes.clear();
       statementList.clear();
+      multiRowInsertList.clear();
+      detachedRowList.clear();
+      detachedTableList.clear();
       batchResultList.clear();
     }
   }
 
+  private void flushBatch(int index) throws SQLException {
+    Statement stmt = statementList.get(index);
+    BatchResult batchResult = batchResultList.get(index);
+    MappedStatement ms = batchResult.getMappedStatement();
+    if (stmt == null) {
+      Connection connection = getConnection(ms.getStatementLog());
+      MultiRowInsert multiRowInsert = multiRowInsertList.get(index);
+      if (multiRowInsert != null) {
+        batchResult.setUpdateCounts(executeMultiRowInsert(ms, multiRowInsert, connection, transaction.getTimeout()));
+      } else {
+        executeDetachedRows(batchResult, detachedRowList.get(index), connection, transaction.getTimeout());
+      }
+      return;
+    }
+    applyTransactionTimeout(stmt);
+    batchResult.setUpdateCounts(stmt.executeBatch());
+    List<Object> parameterObjects = batchResult.getParameterObjects();
+    KeyGenerator keyGenerator = ms.getKeyGenerator();
+    if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
+      Jdbc3KeyGenerator jdbc3KeyGenerator = (Jdbc3KeyGenerator) keyGenerator;
+      jdbc3KeyGenerator.processBatch(ms, stmt, parameterObjects);
+    } else if (!NoKeyGenerator.class.equals(keyGenerator.getClass())) { //issue #141
+      for (Object parameter : parameterObjects) {
+        keyGenerator.processAfter(this, ms, stmt, parameter);
+      }
+    }
+    // Close statement to close cursor #1109
+    closeStatement(stmt);
+  }
+
+  private Collection<List<Integer>> getDetachedGroups() {
+    Map<String, List<Integer>> groups = new LinkedHashMap<>();
+    Set<String> sessionTables = new HashSet<>();
+    for (int i = 0, n = statementList.size(); i < n; i++) {
+      String table = detachedTableList.get(i);
+      if (table != null) {
+        groups.computeIfAbsent(table, k -> new ArrayList<>()).add(i);
+      } else {
+        table = getTableName(batchResultList.get(i).getSql());
+        if (table != null) {
+          sessionTables.add(table);
+        }
+      }
+    }
+    // the rows of a table the session's connection writes as well could wait for its locks
+    groups.keySet().removeAll(sessionTables);
+    return groups.values();
+  }
+
+  private List<BatchResult> flushInParallel(Collection<List<Integer>> detachedGroups) throws SQLException {
+    int n = statementList.size();
+    Integer timeout = transaction.getTimeout();
+    BatchResult[] flushed = new BatchResult[n];
+    BatchUpdateException[] failures = new BatchUpdateException[n];
+    boolean[] detached = new boolean[n];
+    ExecutorService flushExecutor = configuration.getBatchFlushExecutorService();
+    long deadline = System.currentTimeMillis() + getDetachedFlushTimeoutSeconds(timeout) * 1000L;
+    List<Future<?>> futures = new ArrayList<>();
+    for (List<Integer> group : detachedGroups) {
+      for (int i : group) {
+        detached[i] = true;
+      }
+      futures.add(flushExecutor.submit(() -> flushDetachedBatches(group, flushed, failures, timeout)));
+    }
+    // the batches on the session's connection still run one after the other and stop at the first failure
+    for (int i = 0; i < n; i++) {
+      if (!detached[i]) {
+        try {
+          flushBatch(i);
+          flushed[i] = batchResultList.get(i);
+        } catch (BatchUpdateException e) {
+          failures[i] = e;
+          break;
+        }
+      }
+    }
+    awaitDetachedBatches(futures, deadline);
+    List<BatchResult> results = new ArrayList<>();
+    int sessionCount = 0;
+    for (int i = 0; i < n; i++) {
+      if (flushed[i] != null) {
+        results.add(flushed[i]);
+        if (!detached[i]) {
+          sessionCount++;
+        }
+      }
+    }
+    BatchExecutorException exception = null;
+    for (int i = 0; i < n; i++) {
+      if (failures[i] == null) {
+        continue;
+      }
+      if (exception == null) {
+        BatchResult batchResult = batchResultList.get(i);
+        exception = new BatchExecutorException(batchResult.getMappedStatement().getId() + " (batch index #" + (i + 1)
+            + ") failed. " + sessionCount + " sub executor(s) on the session's connection completed successfully,"
+            + " but will be rolled back. " + (results.size() - sessionCount) + " sub executor(s) flushed in parallel"
+            + " completed successfully and were committed on their own connections.", failures[i], results,
+            batchResult);
+      } else {
+        exception.addSuppressed(failures[i]);
+      }
+    }
+    if (exception != null) {
+      throw exception;
+    }
+    return results;
+  }
+
+  private int getDetachedFlushTimeoutSeconds(Integer transactionTimeout) {
+    if (transactionTimeout != null && transactionTimeout > 0) {
+      return transactionTimeout;
+    }
+    Integer statementTimeout = configuration.getDefaultStatementTimeout();
+    return statementTimeout != null && statementTimeout > 0 ? statementTimeout : DETACHED_FLUSH_TIMEOUT_SECONDS;
+  }
+
+  private void awaitDetachedBatches(List<Future<?>> futures, long deadline) {
+    for (Future<?> future : futures) {
+      try {
+        future.get(Math.max(0L, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+      } catch (TimeoutException e) {
+        for (Future<?> other : futures) {
+          other.cancel(true);
+        }
+        throw new ExecutorException("Timed out waiting for the batches flushed in parallel, they may be waiting for"
+            + " locks held by the session's connection. Their outcome is unknown.", e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new ExecutorException("Error flushing batch.  Cause: " + e.getCause(), e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ExecutorException("Interrupted while waiting for the batches to be flushed.", e);
+      }
+    }
+  }
+
+  private Void flushDetachedBatches(List<Integer> group, BatchResult[] flushed, BatchUpdateException[] failures,
+      Integer timeout) throws SQLException {
+    // the batches of the same table are flushed in the order they were added and stop at the first failure
+    for (int i : group) {
+      try {
+        flushed[i] = flushDetachedBatch(batchResultList.get(i), multiRowInsertList.get(i), detachedRowList.get(i),
+            timeout);
+      } catch (BatchUpdateException e) {
+        failures[i] = e;
+        break;
+      }
+    }
+    return null;
+  }
+
+  private BatchResult flushDetachedBatch(BatchResult batchResult, MultiRowInsert multiRowInsert,
+      List<StatementHandler> detachedRows, Integer timeout) throws SQLException {
+    MappedStatement ms = batchResult.getMappedStatement();
+    Connection connection;
+    try {
+      connection = configuration.getEnvironment().getDataSource().getConnection();
+    } catch (SQLException e) {
+      throw toBatchUpdateException(e);
+    }
+    boolean autoCommit = false;
+    boolean rollbackRequired = false;
+    try {
+      // each batch is committed or rolled back as a whole
+      autoCommit = connection.getAutoCommit();
+      if (autoCommit) {
+        connection.setAutoCommit(false);
+      }
+      rollbackRequired = true;
+      Log statementLog = ms.getStatementLog();
+      Connection statementConnection = statementLog.isDebugEnabled()
+          ? ConnectionLogger.newInstance(connection, statementLog, 0) : connection;
+      if (multiRowInsert != null) {
+        batchResult.setUpdateCounts(executeMultiRowInsert(ms, multiRowInsert, statementConnection, timeout));
+      } else {
+        executeDetachedRows(batchResult, detachedRows, statementConnection, timeout);
+      }
+      connection.commit();
+      rollbackRequired = false;
+      return batchResult;
+    } catch (SQLException e) {
+      throw toBatchUpdateException(e);
+    } finally {
+      try {
+        if (rollbackRequired) {
+          connection.rollback();
+        }
+        if (autoCommit) {
+          connection.setAutoCommit(true);
+        }
+      } catch (SQLException e) {
+        // ignore, the outcome of the batch is reported
+      } finally {
+        connection.close();
+      }
+    }
+  }
+
+  private void executeDetachedRows(BatchResult batchResult, List<StatementHandler> detachedRows, Connection connection,
+      Integer timeout) throws SQLException {
+    Statement stmt = detachedRows.get(0).prepare(connection, timeout);
+    try {
+      for (StatementHandler handler : detachedRows) {
+        handler.parameterize(stmt);
+        handler.batch(stmt);
+      }
+      batchResult.setUpdateCounts(stmt.executeBatch());
+      MappedStatement ms = batchResult.getMappedStatement();
+      KeyGenerator keyGenerator = ms.getKeyGenerator();
+      if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
+        ((Jdbc3KeyGenerator) keyGenerator).processBatch(ms, stmt, batchResult.getParameterObjects());
+      }
+    } finally {
+      closeStatement(stmt);
+    }
+  }
+
+  private static BatchUpdateException toBatchUpdateException(SQLException e) {
+    if (e instanceof BatchUpdateException) {
+      return (BatchUpdateException) e;
+    }
+    return new BatchUpdateException(e.getMessage(), e.getSQLState(), e.getErrorCode(), new int[0], e);
+  }
+
+  private int[] executeMultiRowInsert(MappedStatement ms, MultiRowInsert multiRowInsert, Connection connection,
+      Integer timeout) throws SQLException {
+    int width = MultiRowInsert.getWidth(ms);
+    int rowCount = multiRowInsert.getRowCount();
+    int[] updateCounts = new int[rowCount];
+    int fullRows = rowCount - rowCount % width;
+    try {
+      if (fullRows > 0) {
+        executeMultiRowInsert(ms, multiRowInsert, connection, timeout, 0, fullRows, width, updateCounts);
+      }
+      if (fullRows < rowCount) {
+        executeMultiRowInsert(ms, multiRowInsert, connection, timeout, fullRows, rowCount, rowCount - fullRows,
+            updateCounts);
+      }
+    } catch (SQLException e) {
+      // reported like a failed batch
+      throw toBatchUpdateException(e);
+    }
+    return updateCounts;
+  }
+
+  private void executeMultiRowInsert(MappedStatement ms, MultiRowInsert multiRowInsert, Connection connection,
+      Integer timeout, int fromRow, int toRow, int width, int[] updateCounts) throws SQLException {
+    KeyGenerator keyGenerator = ms.getKeyGenerator();
+    // generated keys can only be read per executed statement, so those inserts are not batched
+    // (MultiRowInsert.create() only accepts the NoKeyGenerator and the Jdbc3KeyGenerator)
+    boolean generatesKeys = Jdbc3KeyGenerator.class.equals(keyGenerator.getClass());
+    PreparedStatement ps = null;
+    try {
+      for (int row = fromRow; row < toRow; row += width) {
+        List<Object> parameterObjects = multiRowInsert.getParameterObjects(row, width);
+        StatementHandler handler = configuration.newStatementHandler(this, ms, parameterObjects.get(0),
+            RowBounds.DEFAULT, null, multiRowInsert.getBoundSql(row, width));
+        if (ps == null) {
+          ps = (PreparedStatement) handler.prepare(connection, timeout);
+        }
+        handler.parameterize(ps);
+        if (!generatesKeys) {
+          ps.addBatch();
+          continue;
+        }
+        setUpdateCounts(updateCounts, row, width, ps.executeUpdate());
+        ((Jdbc3KeyGenerator) keyGenerator).processBatch(ms, ps, parameterObjects);
+      }
+      if (!generatesKeys) {
+        int[] counts = ps.executeBatch();
+        for (int i = 0; i < counts.length; i++) {
+          setUpdateCounts(updateCounts, fromRow + i * width, width, counts[i]);
+        }
+      }
+    } finally {
+      closeStatement(ps);
+    }
+  }
+
+  private static void setUpdateCounts(int[] updateCounts, int fromRow, int rowCount, int updateCount) {
+    // a multi-row insert reports the rows of the whole statement
+    int rowUpdateCount = updateCount == rowCount ? 1 : Statement.SUCCESS_NO_INFO;
+    for (int i = fromRow; i < fromRow + rowCount; i++) {
+      updateCounts[i] = rowUpdateCount;
+    }
+  }
+
+  private static final class BatchKey {
+
+    private final MappedStatement mappedStatement;
+    private final String sql;
+
+    BatchKey(MappedStatement mappedStatement, String sql) {
+      this.mappedStatement = mappedStatement;
+      this.sql = sql;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof BatchKey)) {
+        return false;
+      }
+      BatchKey that = (BatchKey) o;
+      return mappedStatement.equals(that.mappedStatement) && sql.equals(that.sql);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * mappedStatement.hashCode() + sql.hashCode();
+    }
+
+  }
+
 }
@@ -0,0 +1,38 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.util.List;
+
+/**
+ * Receives the results of the statements a {@link BatchExecutor} flushed on its own because a batch size was reached.
+ * Results delivered to a listener are not retained by the executor and are not returned by a later
+ * {@link Executor#flushStatements()}.
+ *
+ * @since 3.5.3
+ * @see org.apache.ibatis.session.Configuration#setBatchFlushListener(BatchFlushListener)
+ */
+@FunctionalInterface
+public interface BatchFlushListener {
+
+  /**
+   * Called after pending statements were executed.
+   *
+   * @param batchResults the results of the executed statements, in the order they were executed
+   */
+  void batchFlushed(List<BatchResult> batchResults);
+
+}
@@ -70,6 +70,11 @@ public class CachingExecutor implements Executor {
     return delegate.isClosed();
   }
 
+  @Override
+  public boolean isDirty() {
+    return delegate.isDirty();
+  }
+
   @Override
   public int update(MappedStatement ms, Object parameterObject) throws SQLException {
     flushCacheIfRequired(ms);
@@ -62,6 +62,16 @@ public interface Executor {
 
   boolean isClosed();
 
+  /**
+   * Returns whether this executor executed updates that were not committed or rolled back yet.
+   *
+   * @return {@code true} if there may be uncommitted changes, which is assumed by executors that do not track them
+   * @since 3.5.3
+   */
+  default boolean isDirty() {
+    return true;
+  }
+
   void setExecutorWrapper(Executor executor);
 
 }
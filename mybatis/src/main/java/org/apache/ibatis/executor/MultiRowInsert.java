@@ -0,0 +1,283 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
+import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.property.PropertyPath;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+/**
+ * The rows of a batched {@code INSERT ... VALUES (...)} that are sent as multi-row inserts of the form
+ * {@code INSERT ... VALUES (...), (...), ...}.
+ * <p>
+ * The values of a row are read from its parameter object when the row is added, like a batched statement sets its
+ * parameters when the row is added to the batch. The multi-row statement gets one parameter mapping per row and column,
+ * reading the value from an additional parameter, so that it is still set by the parameter handler.
+ */
+class MultiRowInsert {
+
+  private static final String ROW_VALUE_PREFIX = "__mrow_";
+
+  private final Configuration configuration;
+  private final String prefix;
+  private final String valuesTuple;
+  private final List<ParameterMapping> parameterMappings;
+  private final List<Object[]> rows = new ArrayList<>();
+  private final List<Object> parameterObjects = new ArrayList<>();
+
+  private MultiRowInsert(Configuration configuration, String prefix, String valuesTuple,
+      List<ParameterMapping> parameterMappings) {
+    this.configuration = configuration;
+    this.prefix = prefix;
+    this.valuesTuple = valuesTuple;
+    this.parameterMappings = parameterMappings;
+  }
+
+  /**
+   * Returns the width of the multi-row inserts a statement should be rewritten to.
+   *
+   * @return the number of rows per insert, or 0 when the statement is not rewritten
+   */
+  static int getWidth(MappedStatement ms) {
+    Integer width = ms.getMultiRowInsertWidth();
+    if (width == null || width < 2 || ms.getSqlCommandType() != SqlCommandType.INSERT
+        || ms.getStatementType() != StatementType.PREPARED) {
+      return 0;
+    }
+    return width;
+  }
+
+  /**
+   * Creates a multi-row insert for the SQL of a bound statement.
+   *
+   * @return the multi-row insert or {@code null} when the SQL is not a single {@code INSERT ... VALUES (...)} whose
+   *         parameters are all within the values, or when the keys are generated by another key generator than
+   *         {@link Jdbc3KeyGenerator}, which would run once per row after a statement that inserted several rows
+   */
+  static MultiRowInsert create(MappedStatement ms, BoundSql boundSql) {
+    Class<?> keyGeneratorType = ms.getKeyGenerator().getClass();
+    if (!NoKeyGenerator.class.equals(keyGeneratorType) && !Jdbc3KeyGenerator.class.equals(keyGeneratorType)) {
+      return null;
+    }
+    String sql = boundSql.getSql().trim();
+    if (!sql.regionMatches(true, 0, "insert", 0, 6)) {
+      return null;
+    }
+    int values = indexOfValues(sql);
+    if (values < 0) {
+      return null;
+    }
+    int open = values + "values".length();
+    while (open < sql.length() && Character.isWhitespace(sql.charAt(open))) {
+      open++;
+    }
+    if (open >= sql.length() || sql.charAt(open) != '(') {
+      return null;
+    }
+    int close = indexOfClosingParenthesis(sql, open);
+    if (close != sql.length() - 1) {
+      return null;
+    }
+    String prefix = sql.substring(0, open);
+    String valuesTuple = sql.substring(open, close + 1);
+    List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    if (countPlaceholders(prefix) != 0 || countPlaceholders(valuesTuple) != parameterMappings.size()) {
+      return null;
+    }
+    for (ParameterMapping parameterMapping : parameterMappings) {
+      if (parameterMapping.getMode() != ParameterMode.IN) {
+        return null;
+      }
+    }
+    return new MultiRowInsert(ms.getConfiguration(), prefix, valuesTuple, parameterMappings);
+  }
+
+  /**
+   * Returns whether the row of a bound statement can be added to these rows. Dynamic SQL can give the same SQL with
+   * other properties, type handlers or JDBC types, whose rows must be inserted by another statement.
+   */
+  boolean accepts(BoundSql boundSql) {
+    List<ParameterMapping> rowMappings = boundSql.getParameterMappings();
+    if (rowMappings == parameterMappings) {
+      return true;
+    }
+    if (rowMappings.size() != parameterMappings.size()) {
+      return false;
+    }
+    for (int i = 0; i < rowMappings.size(); i++) {
+      ParameterMapping rowMapping = rowMappings.get(i);
+      ParameterMapping parameterMapping = parameterMappings.get(i);
+      if (!Objects.equals(rowMapping.getProperty(), parameterMapping.getProperty())
+          || rowMapping.getTypeHandler().getClass() != parameterMapping.getTypeHandler().getClass()
+          || rowMapping.getJavaType() != parameterMapping.getJavaType()
+          || rowMapping.getJdbcType() != parameterMapping.getJdbcType()
+          || !Objects.equals(rowMapping.getJdbcTypeName(), parameterMapping.getJdbcTypeName())
+          || !Objects.equals(rowMapping.getNumericScale(), parameterMapping.getNumericScale())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Adds the row of a bound statement that is {@link #accepts(BoundSql) accepted}.
+   */
+  void addRow(Object parameterObject, BoundSql boundSql) {
+    TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+    List<ParameterMapping> rowMappings = boundSql.getParameterMappings();
+    Object[] row = new Object[rowMappings.size()];
+    MetaObject metaObject = null;
+    for (int i = 0; i < row.length; i++) {
+      PropertyPath propertyPath = rowMappings.get(i).getPropertyPath();
+      // same lookup as DefaultParameterHandler
+      if (boundSql.hasAdditionalParameter(propertyPath)) {
+        row[i] = boundSql.getAdditionalParameter(propertyPath);
+      } else if (parameterObject == null) {
+        row[i] = null;
+      } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
+        row[i] = parameterObject;
+      } else {
+        if (metaObject == null) {
+          metaObject = configuration.newMetaObject(parameterObject);
+        }
+        row[i] = metaObject.getValue(propertyPath);
+      }
+    }
+    rows.add(row);
+    parameterObjects.add(parameterObject);
+  }
+
+  int getRowCount() {
+    return rows.size();
+  }
+
+  List<Object> getParameterObjects(int fromRow, int rowCount) {
+    return new ArrayList<>(parameterObjects.subList(fromRow, fromRow + rowCount));
+  }
+
+  /**
+   * Builds the bound statement inserting a range of the rows.
+   */
+  BoundSql getBoundSql(int fromRow, int rowCount) {
+    StringBuilder sql = new StringBuilder(prefix.length() + (valuesTuple.length() + 2) * rowCount);
+    sql.append(prefix);
+    List<ParameterMapping> mappings = new ArrayList<>(parameterMappings.size() * rowCount);
+    for (int r = 0; r < rowCount; r++) {
+      if (r > 0) {
+        sql.append(", ");
+      }
+      sql.append(valuesTuple);
+      for (int i = 0; i < parameterMappings.size(); i++) {
+        mappings.add(rowMapping(parameterMappings.get(i), r, i));
+      }
+    }
+    BoundSql boundSql = new BoundSql(configuration, sql.toString(), mappings, parameterObjects.get(fromRow));
+    for (int r = 0; r < rowCount; r++) {
+      Object[] row = rows.get(fromRow + r);
+      for (int i = 0; i < row.length; i++) {
+        boundSql.setAdditionalParameter(rowValueName(r, i), row[i]);
+      }
+    }
+    return boundSql;
+  }
+
+  private ParameterMapping rowMapping(ParameterMapping parameterMapping, int row, int column) {
+    return new ParameterMapping.Builder(configuration, rowValueName(row, column), parameterMapping.getTypeHandler())
+        .javaType(parameterMapping.getJavaType())
+        .jdbcType(parameterMapping.getJdbcType())
+        .jdbcTypeName(parameterMapping.getJdbcTypeName())
+        .numericScale(parameterMapping.getNumericScale())
+        .build();
+  }
+
+  private static String rowValueName(int row, int column) {
+    return ROW_VALUE_PREFIX + row + "_" + column;
+  }
+
+  private static int indexOfValues(String sql) {
+    boolean quoted = false;
+    char quote = 0;
+    for (int i = 0; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (quoted) {
+        quoted = c != quote;
+      } else if (c == '\'' || c == '"' || c == '`') {
+        quoted = true;
+        quote = c;
+      } else if (sql.regionMatches(true, i, "values", 0, 6) && (i == 0 || !isIdentifierPart(sql.charAt(i - 1)))
+          && (i + 6 == sql.length() || !isIdentifierPart(sql.charAt(i + 6)))) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int indexOfClosingParenthesis(String sql, int open) {
+    int depth = 0;
+    boolean quoted = false;
+    char quote = 0;
+    for (int i = open; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (quoted) {
+        quoted = c != quote;
+      } else if (c == '\'' || c == '"' || c == '`') {
+        quoted = true;
+        quote = c;
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')' && --depth == 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int countPlaceholders(String sql) {
+    int count = 0;
+    boolean quoted = false;
+    char quote = 0;
+    for (int i = 0; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (quoted) {
+        quoted = c != quote;
+      } else if (c == '\'' || c == '"' || c == '`') {
+        quoted = true;
+        quote = c;
+      } else if (c == '?') {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static boolean isIdentifierPart(char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+  }
+
+}
@@ -0,0 +1,191 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.invoker.AmbiguousMethodInvoker;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.MethodInvoker;
+import org.apache.ibatis.reflection.invoker.SetFieldInvoker;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * A row mapper specialized for one simple result map and one column layout.
+ * <p>
+ * Used by {@link DefaultResultSetHandler} when {@code compiledRowMappingEnabled} is set. Columns are read by index
+ * through the type handlers resolved at compile time and values are passed to the setters (or fields) of the result
+ * object through method handles, so no {@code MetaObject} is created per row.
+ *
+ * @since 3.5.3
+ */
+public class CompiledRowMapper {
+
+  /**
+   * Marks a result map that cannot be compiled and must be mapped the regular way.
+   */
+  static final CompiledRowMapper UNSUPPORTED = new CompiledRowMapper();
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+  private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+  private final Class<?> type;
+  private final ObjectFactory objectFactory;
+  private final MethodHandle constructor;
+  private final ColumnMapping[] columnMappings;
+  private final boolean returnInstanceForEmptyRow;
+
+  private CompiledRowMapper() {
+    this.type = null;
+    this.objectFactory = null;
+    this.constructor = null;
+    this.columnMappings = new ColumnMapping[0];
+    this.returnInstanceForEmptyRow = false;
+  }
+
+  CompiledRowMapper(Reflector reflector, ObjectFactory objectFactory, List<ColumnMapping> columnMappings, boolean returnInstanceForEmptyRow) {
+    this.type = reflector.getType();
+    this.objectFactory = objectFactory;
+    this.constructor = DefaultObjectFactory.class.equals(objectFactory.getClass()) ? constructorHandle(reflector) : null;
+    this.columnMappings = columnMappings.toArray(new ColumnMapping[0]);
+    this.returnInstanceForEmptyRow = returnInstanceForEmptyRow;
+  }
+
+  /**
+   * Maps the current row of the result set.
+   *
+   * @param rs the result set, positioned on the row to map
+   * @return the result object, or {@code null} if all mapped columns were null and empty rows are not returned as
+   *         instances
+   * @throws SQLException if a column cannot be read
+   */
+  public Object map(ResultSet rs) throws SQLException {
+    final Object rowValue = newInstance();
+    boolean foundValues = false;
+    for (ColumnMapping columnMapping : columnMappings) {
+      final Object value = columnMapping.typeHandler.getResult(rs, columnMapping.columnIndex);
+      if (value != null) {
+        foundValues = true;
+      }
+      if (value != null || columnMapping.callSetterOnNull) {
+        columnMapping.set(rowValue, value);
+      }
+    }
+    return foundValues || returnInstanceForEmptyRow ? rowValue : null;
+  }
+
+  private Object newInstance() {
+    if (constructor == null) {
+      return objectFactory.create(type);
+    }
+    try {
+      return constructor.invokeExact();
+    } catch (Throwable t) {
+      throw new ReflectionException("Error instantiating " + type + " with invalid types () or values (). Cause: " + t, t);
+    }
+  }
+
+  /**
+   * Creates the mapping of one column to one property.
+   *
+   * @return the mapping, or {@code null} if the property cannot be set through a method handle
+   */
+  static ColumnMapping columnMapping(int columnIndex, TypeHandler<?> typeHandler, String property, Invoker setInvoker, boolean callSetterOnNull) {
+    final MethodHandle setter = setterHandle(setInvoker);
+    return setter == null ? null : new ColumnMapping(columnIndex, typeHandler, property, setter, callSetterOnNull);
+  }
+
+  private static MethodHandle setterHandle(Invoker invoker) {
+    try {
+      if (invoker instanceof AmbiguousMethodInvoker) {
+        // must keep failing the way the reflector defines it
+        return null;
+      } else if (invoker instanceof MethodInvoker) {
+        final Method method = ((MethodInvoker) invoker).getMethod();
+        return makeAccessible(method) ? LOOKUP.unreflect(method).asType(SETTER_TYPE) : null;
+      } else if (invoker instanceof SetFieldInvoker) {
+        final Field field = ((SetFieldInvoker) invoker).getField();
+        return makeAccessible(field) ? LOOKUP.unreflectSetter(field).asType(SETTER_TYPE) : null;
+      }
+    } catch (IllegalAccessException | RuntimeException e) {
+      // fall back to the regular mapping
+    }
+    return null;
+  }
+
+  private static MethodHandle constructorHandle(Reflector reflector) {
+    try {
+      final Constructor<?> defaultConstructor = reflector.getDefaultConstructor();
+      if (makeAccessible(defaultConstructor)) {
+        return LOOKUP.unreflectConstructor(defaultConstructor).asType(CONSTRUCTOR_TYPE);
+      }
+    } catch (IllegalAccessException | RuntimeException e) {
+      // fall back to the object factory
+    }
+    return null;
+  }
+
+  private static <T extends AccessibleObject & Member> boolean makeAccessible(T member) {
+    if (Modifier.isPublic(member.getModifiers()) && Modifier.isPublic(member.getDeclaringClass().getModifiers())) {
+      return true;
+    } else if (Reflector.canControlMemberAccessible()) {
+      member.setAccessible(true);
+      return true;
+    }
+    return false;
+  }
+
+  static final class ColumnMapping {
+    private final int columnIndex;
+    private final TypeHandler<?> typeHandler;
+    private final String property;
+    private final MethodHandle setter;
+    private final boolean callSetterOnNull;
+
+    private ColumnMapping(int columnIndex, TypeHandler<?> typeHandler, String property, MethodHandle setter, boolean callSetterOnNull) {
+      this.columnIndex = columnIndex;
+      this.typeHandler = typeHandler;
+      this.property = property;
+      this.setter = setter;
+      this.callSetterOnNull = callSetterOnNull;
+    }
+
+    private void set(Object target, Object value) {
+      try {
+        setter.invokeExact(target, value);
+      } catch (Throwable t) {
+        throw new ReflectionException("Could not set property '" + property + "' of '" + target.getClass() + "' with value '" + value + "' Cause: " + t.toString(), t);
+      }
+    }
+  }
+
+}
@@ -21,21 +21,30 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.ibatis.annotations.AutomapConstructor;
 import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.cursor.defaults.DefaultCursor;
+import org.apache.ibatis.cursor.defaults.PrefetchingCursor;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.ResultExtractor;
 import org.apache.ibatis.executor.loader.ResultLoader;
 import org.apache.ibatis.executor.loader.ResultLoaderMap;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
@@ -53,6 +62,7 @@ import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.ReflectorFactory;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.wrapper.BeanWrapper;
 import org.apache.ibatis.session.AutoMappingBehavior;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultContext;
@@ -71,6 +81,11 @@ import org.apache.ibatis.type.TypeHandlerRegistry;
 public class DefaultResultSetHandler implements ResultSetHandler {
 
   private static final Object DEFERRED = new Object();
+  // keeps the IN lists of batch selects within the limits of the databases
+  private static final int BATCH_SELECT_CHUNK_SIZE = 1000;
+
+  // set while a nested select runs on the shared executor service
+  private static final ThreadLocal<Boolean> nestedQueryThread = new ThreadLocal<>();
 
   private final Executor executor;
   private final Configuration configuration;
@@ -82,19 +97,31 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   private final TypeHandlerRegistry typeHandlerRegistry;
   private final ObjectFactory objectFactory;
   private final ReflectorFactory reflectorFactory;
+  // meta object of the last row of a simple result map, rebound to the next row unless it was retained
+  private MetaObject rowMetaObject;
 
   // nested resultmaps
   private final Map<CacheKey, Object> nestedResultObjects = new HashMap<>();
   private final Map<String, Object> ancestorObjects = new HashMap<>();
   private Object previousRowValue;
+  private boolean cursorResults;
 
   // multiple resultsets
   private final Map<String, ResultMapping> nextResultMaps = new HashMap<>();
   private final Map<CacheKey, List<PendingRelation>> pendingRelations = new HashMap<>();
 
+  // eager nested selects resolved once all rows are mapped
+  private final List<PendingNestedQuery> pendingNestedQueries = new ArrayList<>();
+  private Boolean concurrentNestedQueries;
+  private boolean deferNestedQueries;
+
   // Cached Automappings
   private final Map<String, List<UnMappedColumnAutoMapping>> autoMappingsCache = new HashMap<>();
 
+  // compiled row mappers resolved for the current result set
+  private final Map<String, CompiledRowMapper> compiledRowMappers = new HashMap<>();
+  private ResultSetWrapper compiledRowMappersResultSet;
+
   // temporary marking flag that indicate using constructor mapping (use field to reduce memory usage)
   private boolean useConstructorMappings;
 
@@ -103,6 +130,26 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     public ResultMapping propertyMapping;
   }
 
+  private static class PendingNestedQuery {
+    private final MetaObject metaObject;
+    private final ResultMapping propertyMapping;
+    private final Object parameterObject;
+    private final CacheKey cacheKey;
+    private final ResultLoader resultLoader;
+
+    PendingNestedQuery(MetaObject metaObject, ResultMapping propertyMapping, Object parameterObject, CacheKey cacheKey, ResultLoader resultLoader) {
+      this.metaObject = metaObject;
+      this.propertyMapping = propertyMapping;
+      this.parameterObject = parameterObject;
+      this.cacheKey = cacheKey;
+      this.resultLoader = resultLoader;
+    }
+
+    boolean isBatched() {
+      return propertyMapping.getBatchQueryId() != null && !propertyMapping.isCompositeResult();
+    }
+  }
+
   private static class UnMappedColumnAutoMapping {
     private final String column;
     private final String property;
@@ -147,7 +194,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
           handleRefCursorOutputParameter((ResultSet) cs.getObject(i + 1), parameterMapping, metaParam);
         } else {
           final TypeHandler<?> typeHandler = parameterMapping.getTypeHandler();
-          metaParam.setValue(parameterMapping.getProperty(), typeHandler.getResult(cs, i + 1));
+          metaParam.setValue(parameterMapping.getPropertyPath(), typeHandler.getResult(cs, i + 1));
         }
       }
     }
@@ -164,7 +211,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       if (this.resultHandler == null) {
         final DefaultResultHandler resultHandler = new DefaultResultHandler(objectFactory);
         handleRowValues(rsw, resultMap, resultHandler, new RowBounds(), null);
-        metaParam.setValue(parameterMapping.getProperty(), resultHandler.getResultList());
+        metaParam.setValue(parameterMapping.getPropertyPath(), resultHandler.getResultList());
       } else {
         handleRowValues(rsw, resultMap, resultHandler, new RowBounds(), null);
       }
@@ -182,6 +229,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     ErrorContext.instance().activity("handling results").object(mappedStatement.getId());
 
     final List<Object> multipleResults = new ArrayList<>();
+    // objects handed to a result handler must be complete
+    deferNestedQueries = resultHandler == null;
 
     int resultSetCount = 0;
     ResultSetWrapper rsw = getFirstResultSet(stmt);
@@ -212,6 +261,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       }
     }
 
+    deferNestedQueries = false;
+    resolvePendingNestedQueries();
     return collapseSingleResultList(multipleResults);
   }
 
@@ -228,11 +279,40 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     if (resultMapCount != 1) {
       throw new ExecutorException("Cursor results cannot be mapped to multiple resultMaps");
     }
+    cursorResults = true;
 
     ResultMap resultMap = resultMaps.get(0);
+    Integer prefetchSize = configuration.getCursorPrefetchSize();
+    if (prefetchSize != null && prefetchSize > 0 && !hasNestedQueries(resultMap, new HashSet<>())) {
+      return new PrefetchingCursor<>(this, resultMap, rsw, rowBounds, prefetchSize);
+    }
     return new DefaultCursor<>(this, resultMap, rsw, rowBounds);
   }
 
+  private boolean hasNestedQueries(ResultMap resultMap, Set<String> checkedResultMapIds) {
+    // nested selects would run on the executor from the prefetching thread
+    if (!checkedResultMapIds.add(resultMap.getId())) {
+      return false;
+    }
+    if (resultMap.hasNestedQueries()) {
+      return true;
+    }
+    List<String> nestedResultMapIds = new ArrayList<>();
+    for (ResultMapping resultMapping : resultMap.getResultMappings()) {
+      nestedResultMapIds.add(resultMapping.getNestedResultMapId());
+    }
+    Discriminator discriminator = resultMap.getDiscriminator();
+    if (discriminator != null) {
+      nestedResultMapIds.addAll(discriminator.getDiscriminatorMap().values());
+    }
+    for (String nestedResultMapId : nestedResultMapIds) {
+      if (nestedResultMapId != null && hasNestedQueries(configuration.getResultMap(nestedResultMapId), checkedResultMapIds)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private ResultSetWrapper getFirstResultSet(Statement stmt) throws SQLException {
     ResultSet rs = stmt.getResultSet();
     while (rs == null) {
@@ -321,8 +401,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   public void handleRowValues(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds, ResultMapping parentMapping) throws SQLException {
     if (resultMap.hasNestedResultMaps()) {
-      ensureNoRowBounds();
-      checkResultHandler();
+      if (!isNestedResultStreaming(parentMapping)) {
+        ensureNoRowBounds();
+        checkResultHandler();
+      }
       handleRowValuesForNestedResultMap(rsw, resultMap, resultHandler, rowBounds, parentMapping);
     } else {
       handleRowValuesForSimpleResultMap(rsw, resultMap, resultHandler, rowBounds, parentMapping);
@@ -336,6 +418,15 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
   }
 
+  /**
+   * Whether the rows of a nested result map are streamed: the rows of a {@code resultOrdered} statement are ordered by
+   * the id of the top level objects, so each object is handed over as soon as the id changes and the row bounds apply
+   * to the objects.
+   */
+  private boolean isNestedResultStreaming(ResultMapping parentMapping) {
+    return parentMapping == null && mappedStatement.isResultOrdered();
+  }
+
   protected void checkResultHandler() {
     if (resultHandler != null && configuration.isSafeResultHandlerEnabled() && !mappedStatement.isResultOrdered()) {
       throw new ExecutorException("Mapped Statements with nested result mappings cannot be safely used with a custom ResultHandler. "
@@ -393,10 +484,16 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   //
 
   private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix) throws SQLException {
+    if (columnPrefix == null && configuration.isCompiledRowMappingEnabled()) {
+      final CompiledRowMapper rowMapper = getCompiledRowMapper(rsw, resultMap);
+      if (rowMapper != CompiledRowMapper.UNSUPPORTED) {
+        return rowMapper.map(rsw.getResultSet());
+      }
+    }
     final ResultLoaderMap lazyLoader = new ResultLoaderMap();
     Object rowValue = createResultObject(rsw, resultMap, lazyLoader, columnPrefix);
     if (rowValue != null && !hasTypeHandlerForResultObject(rsw, resultMap.getType())) {
-      final MetaObject metaObject = configuration.newMetaObject(rowValue);
+      final MetaObject metaObject = rowMetaObject(rowValue);
       boolean foundValues = this.useConstructorMappings;
       if (shouldApplyAutomaticMappings(resultMap, false)) {
         foundValues = applyAutomaticMappings(rsw, resultMap, metaObject, columnPrefix) || foundValues;
@@ -408,6 +505,18 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return rowValue;
   }
 
+  private MetaObject rowMetaObject(Object rowValue) {
+    rowMetaObject = rowMetaObject == null ? configuration.newMetaObject(rowValue) : rowMetaObject.rebind(rowValue);
+    return rowMetaObject;
+  }
+
+  private void retainMetaObject(MetaObject metaObject) {
+    if (metaObject == rowMetaObject) {
+      // referenced by a pending relation, a loader or a deferred load, the next row needs its own
+      rowMetaObject = null;
+    }
+  }
+
   private boolean shouldApplyAutomaticMappings(ResultMap resultMap, boolean isNested) {
     if (resultMap.getAutoMapping() != null) {
       return resultMap.getAutoMapping();
@@ -452,7 +561,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
         if (value != null || (configuration.isCallSettersOnNulls() && !metaObject.getSetterType(property).isPrimitive())) {
           // gcode issue #377, call setter on nulls (value is not 'found')
-          metaObject.setValue(property, value);
+          metaObject.setValue(propertyMapping.getPropertyPath(), value);
         }
       }
     }
@@ -462,8 +571,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   private Object getPropertyMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
       throws SQLException {
     if (propertyMapping.getNestedQueryId() != null) {
+      retainMetaObject(metaResultObject);
       return getNestedQueryMappingValue(rs, metaResultObject, propertyMapping, lazyLoader, columnPrefix);
     } else if (propertyMapping.getResultSet() != null) {
+      retainMetaObject(metaResultObject);
       addPendingChildRelation(rs, metaResultObject, propertyMapping);   // TODO is that OK?
       return DEFERRED;
     } else {
@@ -531,6 +642,85 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return foundValues;
   }
 
+  //
+  // COMPILED ROW MAPPERS
+  //
+
+  private CompiledRowMapper getCompiledRowMapper(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+    if (compiledRowMappersResultSet != rsw) {
+      compiledRowMappersResultSet = rsw;
+      compiledRowMappers.clear();
+    }
+    CompiledRowMapper rowMapper = compiledRowMappers.get(resultMap.getId());
+    if (rowMapper == null) {
+      final String key = resultMap.getId() + "@" + rsw.getColumnSignature();
+      rowMapper = configuration.getCompiledRowMappers().get(key);
+      if (rowMapper == null) {
+        rowMapper = compileRowMapper(rsw, resultMap);
+        configuration.getCompiledRowMappers().put(key, rowMapper);
+      }
+      compiledRowMappers.put(resultMap.getId(), rowMapper);
+    }
+    return rowMapper;
+  }
+
+  private CompiledRowMapper compileRowMapper(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+    final Class<?> resultType = resultMap.getType();
+    final MetaClass metaType = MetaClass.forClass(resultType, reflectorFactory);
+    if (resultMap.hasNestedResultMaps() || resultMap.hasNestedQueries() || !resultMap.getConstructorResultMappings().isEmpty()
+        || hasTypeHandlerForResultObject(rsw, resultType) || resultType.isInterface() || !metaType.hasDefaultConstructor()) {
+      return CompiledRowMapper.UNSUPPORTED;
+    }
+    final MetaObject metaObject = configuration.newMetaObject(objectFactory.create(resultType));
+    if (!(metaObject.getObjectWrapper() instanceof BeanWrapper)) {
+      return CompiledRowMapper.UNSUPPORTED;
+    }
+    final List<CompiledRowMapper.ColumnMapping> columnMappings = new ArrayList<>();
+    if (shouldApplyAutomaticMappings(resultMap, false)) {
+      for (UnMappedColumnAutoMapping mapping : createAutomaticMappings(rsw, resultMap, metaObject, null)) {
+        if (!addCompiledColumnMapping(columnMappings, rsw, metaType, mapping.column, mapping.property, mapping.typeHandler, mapping.primitive)) {
+          return CompiledRowMapper.UNSUPPORTED;
+        }
+      }
+    }
+    final List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, null);
+    for (ResultMapping propertyMapping : resultMap.getPropertyResultMappings()) {
+      if (propertyMapping.getResultSet() != null) {
+        return CompiledRowMapper.UNSUPPORTED;
+      }
+      final String column = propertyMapping.getColumn();
+      final String property = propertyMapping.getProperty();
+      if (property == null || column == null || !mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
+        continue;
+      }
+      if (!metaType.hasSetter(property)
+          || !addCompiledColumnMapping(columnMappings, rsw, metaType, column, property, propertyMapping.getTypeHandler(), metaType.getSetterType(property).isPrimitive())) {
+        return CompiledRowMapper.UNSUPPORTED;
+      }
+    }
+    return new CompiledRowMapper(reflectorFactory.findForClass(resultType), objectFactory, columnMappings, configuration.isReturnInstanceForEmptyRow());
+  }
+
+  private boolean addCompiledColumnMapping(List<CompiledRowMapper.ColumnMapping> columnMappings, ResultSetWrapper rsw, MetaClass metaType,
+      String column, String property, TypeHandler<?> typeHandler, boolean primitive) {
+    if (property.indexOf('.') > -1 || property.indexOf('[') > -1) {
+      return false;
+    }
+    final List<String> columnNames = rsw.getColumnNames();
+    int columnIndex = 0;
+    for (int i = 0; i < columnNames.size() && columnIndex == 0; i++) {
+      if (columnNames.get(i).equalsIgnoreCase(column)) {
+        columnIndex = i + 1;
+      }
+    }
+    if (columnIndex == 0) {
+      return false;
+    }
+    final CompiledRowMapper.ColumnMapping columnMapping = CompiledRowMapper.columnMapping(columnIndex, typeHandler, property,
+        metaType.getSetInvoker(property), configuration.isCallSettersOnNulls() && !primitive);
+    return columnMapping != null && columnMappings.add(columnMapping);
+  }
+
   // MULTIPLE RESULT SETS
 
   private void linkToParents(ResultSet rs, ResultMapping parentMapping, Object rowValue) throws SQLException {
@@ -756,6 +946,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         if (propertyMapping.isLazy()) {
           lazyLoader.addLoader(property, metaResultObject, resultLoader);
           value = DEFERRED;
+        } else if (shouldDeferNestedQuery(propertyMapping)) {
+          pendingNestedQueries.add(new PendingNestedQuery(metaResultObject, propertyMapping, nestedQueryParameterObject, key, resultLoader));
+          value = DEFERRED;
         } else {
           value = resultLoader.loadResult();
         }
@@ -764,6 +957,153 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return value;
   }
 
+  private boolean shouldDeferNestedQuery(ResultMapping propertyMapping) {
+    if (!deferNestedQueries) {
+      return false;
+    }
+    if (propertyMapping.getBatchQueryId() != null && !propertyMapping.isCompositeResult()) {
+      return true;
+    }
+    if (concurrentNestedQueries == null) {
+      Integer parallelism = configuration.getNestedSelectParallelism();
+      // other connections do not see the uncommitted changes of the session, and the nested selects of a concurrent
+      // nested select run on its thread as a full pool would wait for itself
+      concurrentNestedQueries = parallelism != null && parallelism > 1 && !executor.isDirty()
+          && nestedQueryThread.get() == null;
+    }
+    return concurrentNestedQueries;
+  }
+
+  /**
+   * Resolves the nested selects deferred while mapping the rows: the ones with a batch select are loaded with one query
+   * per distinct batch select and linked to their parents by the batch key, the others run concurrently, once per
+   * distinct parameter, on connections of their own taken by the threads of the shared executor service.
+   */
+  private void resolvePendingNestedQueries() throws SQLException {
+    if (pendingNestedQueries.isEmpty()) {
+      return;
+    }
+    final Map<String, List<PendingNestedQuery>> batches = new LinkedHashMap<>();
+    final List<PendingNestedQuery> concurrent = new ArrayList<>();
+    for (PendingNestedQuery pending : pendingNestedQueries) {
+      if (pending.isBatched()) {
+        ResultMapping propertyMapping = pending.propertyMapping;
+        batches.computeIfAbsent(propertyMapping.getBatchQueryId() + ":" + propertyMapping.getBatchKey(), k -> new ArrayList<>()).add(pending);
+      } else {
+        concurrent.add(pending);
+      }
+    }
+    pendingNestedQueries.clear();
+    for (List<PendingNestedQuery> batch : batches.values()) {
+      resolveBatchedNestedQueries(batch);
+    }
+    if (!concurrent.isEmpty()) {
+      resolveConcurrentNestedQueries(concurrent);
+    }
+  }
+
+  private void resolveBatchedNestedQueries(List<PendingNestedQuery> batch) throws SQLException {
+    final ResultMapping batchMapping = batch.get(0).propertyMapping;
+    final MappedStatement batchQuery = configuration.getMappedStatement(batchMapping.getBatchQueryId());
+    final Set<Object> keys = new LinkedHashSet<>();
+    for (PendingNestedQuery pending : batch) {
+      keys.add(pending.parameterObject);
+    }
+    final Map<Object, List<Object>> nestedObjectsByKey = new HashMap<>();
+    final List<Object> keyList = new ArrayList<>(keys);
+    for (int from = 0; from < keyList.size(); from += BATCH_SELECT_CHUNK_SIZE) {
+      final List<Object> chunk = keyList.subList(from, Math.min(from + BATCH_SELECT_CHUNK_SIZE, keyList.size()));
+      final ParamMap<Object> parameterObject = new ParamMap<>();
+      parameterObject.put("collection", chunk);
+      parameterObject.put("list", chunk);
+      final List<Object> nestedObjects = executor.query(batchQuery, parameterObject, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      for (Object nestedObject : nestedObjects) {
+        final Object key = configuration.newMetaObject(nestedObject).getValue(batchMapping.getBatchKey());
+        nestedObjectsByKey.computeIfAbsent(normalizeBatchKey(key), k -> new ArrayList<>()).add(nestedObject);
+      }
+    }
+    final ResultExtractor resultExtractor = new ResultExtractor(configuration, objectFactory);
+    for (PendingNestedQuery pending : batch) {
+      final List<Object> nestedObjects = nestedObjectsByKey.getOrDefault(normalizeBatchKey(pending.parameterObject), Collections.emptyList());
+      // every parent gets a list of its own
+      final Object value = resultExtractor.extractObjectFromList(new ArrayList<>(nestedObjects), pending.propertyMapping.getJavaType());
+      setNestedQueryValue(pending, value);
+    }
+  }
+
+  private Object normalizeBatchKey(Object key) {
+    // the column and the property holding the key may be mapped to different integral types
+    if (key instanceof Integer || key instanceof Long || key instanceof Short || key instanceof Byte) {
+      return ((Number) key).longValue();
+    }
+    return key;
+  }
+
+  private void resolveConcurrentNestedQueries(List<PendingNestedQuery> concurrent) throws SQLException {
+    final Map<List<Object>, ResultLoader> resultLoaders = new LinkedHashMap<>();
+    for (PendingNestedQuery pending : concurrent) {
+      resultLoaders.putIfAbsent(Arrays.asList(pending.cacheKey, pending.propertyMapping.getJavaType()), pending.resultLoader);
+    }
+    final Map<ResultLoader, Object> values = new HashMap<>();
+    if (resultLoaders.size() == 1) {
+      final ResultLoader resultLoader = resultLoaders.values().iterator().next();
+      values.put(resultLoader, resultLoader.loadResult());
+    } else {
+      // a result loader called from another thread than its creator runs on a new executor and connection
+      final ExecutorService nestedQueryExecutor = configuration.getNestedSelectExecutorService();
+      final Map<ResultLoader, Future<Object>> futures = new LinkedHashMap<>();
+      try {
+        for (ResultLoader resultLoader : resultLoaders.values()) {
+          futures.put(resultLoader, nestedQueryExecutor.submit(() -> loadConcurrentNestedQuery(resultLoader)));
+        }
+        for (Map.Entry<ResultLoader, Future<Object>> entry : futures.entrySet()) {
+          values.put(entry.getKey(), getNestedQueryResult(entry.getValue()));
+        }
+      } finally {
+        // the remaining nested selects are not needed once one failed
+        for (Future<Object> future : futures.values()) {
+          future.cancel(true);
+        }
+      }
+    }
+    for (PendingNestedQuery pending : concurrent) {
+      final ResultLoader resultLoader = resultLoaders.get(Arrays.asList(pending.cacheKey, pending.propertyMapping.getJavaType()));
+      setNestedQueryValue(pending, values.get(resultLoader));
+    }
+  }
+
+  private static Object loadConcurrentNestedQuery(ResultLoader resultLoader) throws SQLException {
+    nestedQueryThread.set(Boolean.TRUE);
+    try {
+      return resultLoader.loadResult();
+    } finally {
+      nestedQueryThread.remove();
+    }
+  }
+
+  private Object getNestedQueryResult(Future<Object> future) throws SQLException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof SQLException) {
+        throw (SQLException) e.getCause();
+      } else if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new ExecutorException("Error executing nested select.  Cause: " + e.getCause(), e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ExecutorException("Interrupted while waiting for the nested selects.", e);
+    }
+  }
+
+  private void setNestedQueryValue(PendingNestedQuery pending, Object value) {
+    final String property = pending.propertyMapping.getProperty();
+    if (value != null || (configuration.isCallSettersOnNulls() && !pending.metaObject.getSetterType(property).isPrimitive())) {
+      pending.metaObject.setValue(pending.propertyMapping.getPropertyPath(), value);
+    }
+  }
+
   private Object prepareParameterForNestedQuery(ResultSet rs, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
     if (resultMapping.isCompositeResult()) {
       return prepareCompositeKeyParameter(rs, resultMapping, parameterType, columnPrefix);
@@ -792,7 +1132,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       final Object propValue = typeHandler.getResult(rs, prependPrefix(innerResultMapping.getColumn(), columnPrefix));
       // issue #353 & #560 do not execute nested query if key is null
       if (propValue != null) {
-        metaObject.setValue(innerResultMapping.getProperty(), propValue);
+        metaObject.setValue(innerResultMapping.getPropertyPath(), propValue);
         foundValues = true;
       }
     }
@@ -853,17 +1193,29 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   private void handleRowValuesForNestedResultMap(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds, ResultMapping parentMapping) throws SQLException {
     final DefaultResultContext<Object> resultContext = new DefaultResultContext<>();
     ResultSet resultSet = rsw.getResultSet();
-    skipRows(resultSet, rowBounds);
+    final boolean streaming = isNestedResultStreaming(parentMapping);
+    final boolean resultOrdered = mappedStatement.isResultOrdered();
+    int objectsToSkip = 0;
+    if (streaming) {
+      objectsToSkip = rowBounds.getOffset();
+    } else {
+      skipRows(resultSet, rowBounds);
+    }
     Object rowValue = previousRowValue;
     while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
       final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
       final CacheKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
       Object partialObject = nestedResultObjects.get(rowKey);
       // issue #577 && #542
-      if (mappedStatement.isResultOrdered()) {
+      if (resultOrdered) {
         if (partialObject == null && rowValue != null) {
+          // the previous object is complete, nothing refers to its nested objects any more
           nestedResultObjects.clear();
-          storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
+          if (objectsToSkip > 0) {
+            objectsToSkip--;
+          } else {
+            storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
+          }
         }
         rowValue = getRowValue(rsw, discriminatedResultMap, rowKey, null, partialObject);
       } else {
@@ -873,8 +1225,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
       }
     }
-    if (rowValue != null && mappedStatement.isResultOrdered() && shouldProcessMoreRows(resultContext, rowBounds)) {
-      storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
+    if (rowValue != null && resultOrdered && shouldProcessMoreRows(resultContext, rowBounds)) {
+      if (objectsToSkip == 0) {
+        storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
+      }
       previousRowValue = null;
     } else if (rowValue != null) {
       previousRowValue = rowValue;
@@ -1109,13 +1463,13 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       final MetaObject targetMetaObject = configuration.newMetaObject(collectionProperty);
       targetMetaObject.add(rowValue);
     } else {
-      metaObject.setValue(resultMapping.getProperty(), rowValue);
+      metaObject.setValue(resultMapping.getPropertyPath(), rowValue);
     }
   }
 
   private Object instantiateCollectionPropertyIfAppropriate(ResultMapping resultMapping, MetaObject metaObject) {
     final String propertyName = resultMapping.getProperty();
-    Object propertyValue = metaObject.getValue(propertyName);
+    Object propertyValue = metaObject.getValue(resultMapping.getPropertyPath());
     if (propertyValue == null) {
       Class<?> type = resultMapping.getJavaType();
       if (type == null) {
@@ -1124,7 +1478,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       try {
         if (objectFactory.isCollection(type)) {
           propertyValue = objectFactory.create(type);
-          metaObject.setValue(propertyName, propertyValue);
+          metaObject.setValue(resultMapping.getPropertyPath(), propertyValue);
           return propertyValue;
         }
       } catch (Exception e) {
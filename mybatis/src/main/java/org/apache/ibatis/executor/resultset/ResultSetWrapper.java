@@ -48,6 +48,7 @@ public class ResultSetWrapper {
   private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new HashMap<>();
   private final Map<String, List<String>> mappedColumnNamesMap = new HashMap<>();
   private final Map<String, List<String>> unMappedColumnNamesMap = new HashMap<>();
+  private String columnSignature;
 
   public ResultSetWrapper(ResultSet rs, Configuration configuration) throws SQLException {
     super();
@@ -87,6 +88,24 @@ public class ResultSetWrapper {
     return null;
   }
 
+  /**
+   * Returns a string that identifies the column layout of the result set: the name, JDBC type and Java class of every
+   * column, in order.
+   *
+   * @return the column signature
+   * @since 3.5.3
+   */
+  public String getColumnSignature() {
+    if (columnSignature == null) {
+      final StringBuilder signature = new StringBuilder();
+      for (int i = 0; i < columnNames.size(); i++) {
+        signature.append(columnNames.get(i)).append(':').append(jdbcTypes.get(i)).append(':').append(classNames.get(i)).append(',');
+      }
+      columnSignature = signature.toString();
+    }
+    return columnSignature;
+  }
+
   /**
    * Gets the type handler to use when reading the result set.
    * Tries to get from the TypeHandlerRegistry by searching for the property type.
@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.property.PropertyPath;
 import org.apache.ibatis.reflection.property.PropertyTokenizer;
 import org.apache.ibatis.session.Configuration;
 
@@ -66,6 +67,17 @@ public class BoundSql {
     return additionalParameters.containsKey(paramName);
   }
 
+  /**
+   * Same as {@link #hasAdditionalParameter(String)} for a property parsed beforehand.
+   *
+   * @param path the parsed property
+   * @return true when the first segment of the property is an additional parameter
+   * @since 3.5.3
+   */
+  public boolean hasAdditionalParameter(PropertyPath path) {
+    return !additionalParameters.isEmpty() && additionalParameters.containsKey(path.getSegment(0).getName());
+  }
+
   public void setAdditionalParameter(String name, Object value) {
     metaParameters.setValue(name, value);
   }
@@ -73,4 +85,15 @@ public class BoundSql {
   public Object getAdditionalParameter(String name) {
     return metaParameters.getValue(name);
   }
+
+  /**
+   * Same as {@link #getAdditionalParameter(String)} for a property parsed beforehand.
+   *
+   * @param path the parsed property
+   * @return the value of the property
+   * @since 3.5.3
+   */
+  public Object getAdditionalParameter(PropertyPath path) {
+    return metaParameters.getValue(path);
+  }
 }
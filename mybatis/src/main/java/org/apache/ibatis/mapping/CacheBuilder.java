@@ -30,6 +30,7 @@ import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.ScheduledCache;
 import org.apache.ibatis.cache.decorators.SerializedCache;
 import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.impl.ConcurrentCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.SystemMetaObject;
@@ -100,6 +101,9 @@ public class CacheBuilder {
         setCacheProperties(cache);
       }
       cache = setStandardDecorators(cache);
+    } else if (ConcurrentCache.class.equals(cache.getClass())) {
+      // evicts by itself and is thread safe, so neither an eviction decorator nor synchronization is needed
+      cache = setStandardDecorators(cache);
     } else if (!LoggingCache.class.isAssignableFrom(cache.getClass())) {
       cache = new LoggingCache(cache);
     }
@@ -112,11 +116,16 @@ public class CacheBuilder {
       if (decorators.isEmpty()) {
         decorators.add(LruCache.class);
       }
+    } else if (PerpetualCache.class.equals(implementation) && decorators.remove(ConcurrentCache.class)) {
+      // used as the eviction policy
+      implementation = ConcurrentCache.class;
     }
   }
 
   private Cache setStandardDecorators(Cache cache) {
     try {
+      // the scheduled and serialized decorators keep no state that needs locking, so only the base cache matters
+      boolean threadSafe = cache instanceof ConcurrentCache;
       MetaObject metaCache = SystemMetaObject.forObject(cache);
       if (size != null && metaCache.hasSetter("size")) {
         metaCache.setValue("size", size);
@@ -129,7 +138,9 @@ public class CacheBuilder {
         cache = new SerializedCache(cache);
       }
       cache = new LoggingCache(cache);
-      cache = new SynchronizedCache(cache);
+      if (!threadSafe) {
+        cache = new SynchronizedCache(cache);
+      }
       if (blocking) {
         cache = new BlockingCache(cache);
       }
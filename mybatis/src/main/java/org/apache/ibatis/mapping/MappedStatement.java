@@ -20,6 +20,7 @@ import java.util.Collections;
 import java.util.List;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
@@ -27,6 +28,7 @@ import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
 
 /**
  * @author Clinton Begin
@@ -37,6 +39,9 @@ public final class MappedStatement {
   private Configuration configuration;
   private String id;
   private Integer fetchSize;
+  private Integer batchSize;
+  private Integer multiRowInsertWidth;
+  private boolean flushInParallel;
   private Integer timeout;
   private StatementType statementType;
   private ResultSetType resultSetType;
@@ -56,6 +61,7 @@ public final class MappedStatement {
   private Log statementLog;
   private LanguageDriver lang;
   private String[] resultSets;
+  private CacheKey cacheKeyPrefix;
 
   MappedStatement() {
     // constructor disabled
@@ -109,6 +115,30 @@ public final class MappedStatement {
       return this;
     }
 
+    /**
+     * @since 3.5.3
+     */
+    public Builder batchSize(Integer batchSize) {
+      mappedStatement.batchSize = batchSize;
+      return this;
+    }
+
+    /**
+     * @since 3.5.3
+     */
+    public Builder multiRowInsertWidth(Integer multiRowInsertWidth) {
+      mappedStatement.multiRowInsertWidth = multiRowInsertWidth;
+      return this;
+    }
+
+    /**
+     * @since 3.5.3
+     */
+    public Builder flushInParallel(boolean flushInParallel) {
+      mappedStatement.flushInParallel = flushInParallel;
+      return this;
+    }
+
     public Builder timeout(Integer timeout) {
       mappedStatement.timeout = timeout;
       return this;
@@ -189,6 +219,10 @@ public final class MappedStatement {
       assert mappedStatement.sqlSource != null;
       assert mappedStatement.lang != null;
       mappedStatement.resultMaps = Collections.unmodifiableList(mappedStatement.resultMaps);
+      mappedStatement.cacheKeyPrefix = new CacheKey(3);
+      mappedStatement.cacheKeyPrefix.update(mappedStatement.id);
+      mappedStatement.cacheKeyPrefix.update(RowBounds.NO_ROW_OFFSET);
+      mappedStatement.cacheKeyPrefix.update(RowBounds.NO_ROW_LIMIT);
       return mappedStatement;
     }
   }
@@ -213,6 +247,26 @@ public final class MappedStatement {
     return id;
   }
 
+  /**
+   * Creates a cache key that starts with the id of this statement and the offset and limit of the row bounds.
+   * The key for the default row bounds is copied from a key computed once per statement.
+   *
+   * @param rowBounds the row bounds
+   * @param expectedAdditionalUpdateCount the expected number of updates that will be added to the key
+   * @return a new cache key
+   * @since 3.5.3
+   */
+  public CacheKey newCacheKey(RowBounds rowBounds, int expectedAdditionalUpdateCount) {
+    if (rowBounds.getOffset() == RowBounds.NO_ROW_OFFSET && rowBounds.getLimit() == RowBounds.NO_ROW_LIMIT) {
+      return new CacheKey(cacheKeyPrefix, expectedAdditionalUpdateCount);
+    }
+    CacheKey cacheKey = new CacheKey(3 + expectedAdditionalUpdateCount);
+    cacheKey.update(id);
+    cacheKey.update(rowBounds.getOffset());
+    cacheKey.update(rowBounds.getLimit());
+    return cacheKey;
+  }
+
   public boolean hasNestedResultMaps() {
     return hasNestedResultMaps;
   }
@@ -221,6 +275,39 @@ public final class MappedStatement {
     return fetchSize;
   }
 
+  /**
+   * Returns the number of rows a batch executor collects for this statement before it flushes on its own.
+   *
+   * @return the batch size or {@code null} to use the default batch size of the configuration
+   * @since 3.5.3
+   */
+  public Integer getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Returns the number of rows a batch executor inserts per statement by rewriting the batched rows of this
+   * {@code INSERT ... VALUES (...)} into {@code INSERT ... VALUES (...), (...), ...}.
+   *
+   * @return the number of rows per statement or {@code null} to batch each row on its own
+   * @since 3.5.3
+   */
+  public Integer getMultiRowInsertWidth() {
+    return multiRowInsertWidth;
+  }
+
+  /**
+   * Returns whether the batches of this statement are independent of the other statements of a session, so that a
+   * batch executor may flush them in parallel on connections of their own.
+   *
+   * @return {@code true} if the batches of this statement may be flushed in parallel
+   * @since 3.5.3
+   * @see Configuration#getBatchFlushParallelism()
+   */
+  public boolean isFlushInParallel() {
+    return flushInParallel;
+  }
+
   public Integer getTimeout() {
     return timeout;
   }
@@ -17,6 +17,7 @@ package org.apache.ibatis.mapping;
 
 import java.sql.ResultSet;
 
+import org.apache.ibatis.reflection.property.PropertyPath;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
@@ -30,6 +31,7 @@ public class ParameterMapping {
   private Configuration configuration;
 
   private String property;
+  private PropertyPath propertyPath;
   private ParameterMode mode;
   private Class<?> javaType = Object.class;
   private JdbcType jdbcType;
@@ -102,6 +104,7 @@ public class ParameterMapping {
     public ParameterMapping build() {
       resolveTypeHandler();
       validate();
+      parameterMapping.propertyPath = PropertyPath.parse(parameterMapping.property);
       return parameterMapping;
     }
 
@@ -135,6 +138,16 @@ public class ParameterMapping {
     return property;
   }
 
+  /**
+   * Returns the property parsed once, to be handed to {@link org.apache.ibatis.reflection.MetaObject}.
+   *
+   * @return the parsed property or {@code null} when there is no property
+   * @since 3.5.3
+   */
+  public PropertyPath getPropertyPath() {
+    return propertyPath;
+  }
+
   /**
    * Used for handling output of callable statements.
    * @return
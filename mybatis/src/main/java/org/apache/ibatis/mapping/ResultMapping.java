@@ -20,6 +20,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
+import org.apache.ibatis.reflection.property.PropertyPath;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
@@ -32,6 +33,7 @@ public class ResultMapping {
 
   private Configuration configuration;
   private String property;
+  private PropertyPath propertyPath;
   private String column;
   private Class<?> javaType;
   private JdbcType jdbcType;
@@ -45,6 +47,8 @@ public class ResultMapping {
   private String resultSet;
   private String foreignColumn;
   private boolean lazy;
+  private String batchQueryId;
+  private String batchKey;
 
   ResultMapping() {
   }
@@ -132,12 +136,29 @@ public class ResultMapping {
       return this;
     }
 
+    /**
+     * @since 3.5.3
+     */
+    public Builder batchQueryId(String batchQueryId) {
+      resultMapping.batchQueryId = batchQueryId;
+      return this;
+    }
+
+    /**
+     * @since 3.5.3
+     */
+    public Builder batchKey(String batchKey) {
+      resultMapping.batchKey = batchKey;
+      return this;
+    }
+
     public ResultMapping build() {
       // lock down collections
       resultMapping.flags = Collections.unmodifiableList(resultMapping.flags);
       resultMapping.composites = Collections.unmodifiableList(resultMapping.composites);
       resolveTypeHandler();
       validate();
+      resultMapping.propertyPath = PropertyPath.parse(resultMapping.property);
       return resultMapping;
     }
 
@@ -167,6 +188,14 @@ public class ResultMapping {
           throw new IllegalStateException("There should be the same number of columns and foreignColumns in property " + resultMapping.property);
         }
       }
+      if (resultMapping.batchQueryId != null) {
+        if (resultMapping.nestedQueryId == null) {
+          throw new IllegalStateException("A batchSelect requires a select in property " + resultMapping.property);
+        }
+        if (resultMapping.batchKey == null) {
+          throw new IllegalStateException("A batchSelect requires a batchKey in property " + resultMapping.property);
+        }
+      }
     }
 
     private void resolveTypeHandler() {
@@ -187,6 +216,16 @@ public class ResultMapping {
     return property;
   }
 
+  /**
+   * Returns the property parsed once, to be handed to {@link org.apache.ibatis.reflection.MetaObject}.
+   *
+   * @return the parsed property or {@code null} when there is no property
+   * @since 3.5.3
+   */
+  public PropertyPath getPropertyPath() {
+    return propertyPath;
+  }
+
   public String getColumn() {
     return column;
   }
@@ -251,6 +290,25 @@ public class ResultMapping {
     this.lazy = lazy;
   }
 
+  /**
+   * Returns the id of the statement loading the nested objects of many parents at once, given the distinct values of
+   * the column as {@code list}.
+   *
+   * @since 3.5.3
+   */
+  public String getBatchQueryId() {
+    return batchQueryId;
+  }
+
+  /**
+   * Returns the property of the objects returned by the batch query that holds the value of the column of their parent.
+   *
+   * @since 3.5.3
+   */
+  public String getBatchKey() {
+    return batchKey;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -298,6 +356,8 @@ public class ResultMapping {
     sb.append(", resultSet='").append(resultSet).append('\'');
     sb.append(", foreignColumn='").append(foreignColumn).append('\'');
     sb.append(", lazy=").append(lazy);
+    sb.append(", batchQueryId='").append(batchQueryId).append('\'');
+    sb.append(", batchKey='").append(batchKey).append('\'');
     sb.append('}');
     return sb.toString();
   }
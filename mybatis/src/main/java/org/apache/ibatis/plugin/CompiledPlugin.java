@@ -0,0 +1,198 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.plugin;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+/**
+ * Applies a run of interceptors to a target through a single proxy instead of one {@link Plugin} per interceptor.
+ * <p>
+ * The methods of each type of target are resolved once to the interceptors interested in them, the last added one
+ * first as with nested plugins, and to a method handle of the target. A method no interceptor is interested in calls
+ * the target straight away and {@link Invocation#proceed()} calls the next interceptor or the target without going
+ * through {@link Method#invoke}. {@link Invocation#getTarget()} returns the original target to every interceptor.
+ *
+ * @since 3.5.3
+ */
+class CompiledPlugin implements InvocationHandler {
+
+  private static final MethodType TARGET_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+  private final Object target;
+  private final Map<Method, MethodDispatch> methods;
+
+  private CompiledPlugin(Object target, Map<Method, MethodDispatch> methods) {
+    this.target = target;
+    this.methods = methods;
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    MethodDispatch dispatch = methods.get(method);
+    if (dispatch == null) {
+      try {
+        return method.invoke(target, args);
+      } catch (Exception e) {
+        throw ExceptionUtil.unwrapThrowable(e);
+      }
+    }
+    if (dispatch.interceptors.length == 0) {
+      return dispatch.invokeTarget(target, args);
+    }
+    try {
+      return dispatch.interceptors[0].intercept(new ChainedInvocation(target, method, args, dispatch, 1));
+    } catch (Exception e) {
+      throw ExceptionUtil.unwrapThrowable(e);
+    }
+  }
+
+  /**
+   * A run of interceptors that do not override {@link Interceptor#plugin(Object)}, in the order they were added.
+   */
+  static class Chain {
+
+    private final Interceptor[] interceptors;
+    private final Map<Class<?>, TypeDispatch> types = new ConcurrentHashMap<>();
+
+    Chain(List<Interceptor> interceptors) {
+      this.interceptors = interceptors.toArray(new Interceptor[interceptors.size()]);
+    }
+
+    Object wrap(Object target) {
+      Class<?> type = target.getClass();
+      TypeDispatch dispatch = types.computeIfAbsent(type, this::compile);
+      if (dispatch.interfaces.length == 0) {
+        return target;
+      }
+      return Proxy.newProxyInstance(type.getClassLoader(), dispatch.interfaces, new CompiledPlugin(target, dispatch.methods));
+    }
+
+    private TypeDispatch compile(Class<?> type) {
+      Set<Class<?>> interfaces = new LinkedHashSet<>();
+      for (Interceptor interceptor : interceptors) {
+        Collections.addAll(interfaces, Plugin.getAllInterfaces(type, Plugin.getSignatureMap(interceptor.getClass())));
+      }
+      Map<Method, MethodDispatch> methods = new HashMap<>();
+      for (Class<?> anInterface : interfaces) {
+        for (Method method : anInterface.getMethods()) {
+          if (!Modifier.isStatic(method.getModifiers())) {
+            methods.computeIfAbsent(method, this::compile);
+          }
+        }
+      }
+      return new TypeDispatch(interfaces.toArray(new Class<?>[interfaces.size()]), methods);
+    }
+
+    private MethodDispatch compile(Method method) {
+      List<Interceptor> interested = new ArrayList<>();
+      for (int i = interceptors.length - 1; i >= 0; i--) {
+        Set<Method> signatures = Plugin.getSignatureMap(interceptors[i].getClass()).get(method.getDeclaringClass());
+        if (signatures != null && signatures.contains(method)) {
+          interested.add(interceptors[i]);
+        }
+      }
+      MethodHandle handle;
+      try {
+        handle = MethodHandles.publicLookup().unreflect(method)
+            .asSpreader(Object[].class, method.getParameterCount())
+            .asType(TARGET_TYPE);
+      } catch (IllegalAccessException e) {
+        // not accessible through a method handle, Method#invoke reports it when the method is called
+        handle = null;
+      }
+      return new MethodDispatch(method, interested.toArray(new Interceptor[interested.size()]), handle);
+    }
+  }
+
+  private static class TypeDispatch {
+    private final Class<?>[] interfaces;
+    private final Map<Method, MethodDispatch> methods;
+
+    private TypeDispatch(Class<?>[] interfaces, Map<Method, MethodDispatch> methods) {
+      this.interfaces = interfaces;
+      this.methods = methods;
+    }
+  }
+
+  private static class MethodDispatch {
+    private final Method method;
+    private final Interceptor[] interceptors;
+    private final MethodHandle handle;
+
+    private MethodDispatch(Method method, Interceptor[] interceptors, MethodHandle handle) {
+      this.method = method;
+      this.interceptors = interceptors;
+      this.handle = handle;
+    }
+
+    private Object invokeTarget(Object target, Object[] args) throws Throwable {
+      if (handle != null) {
+        return (Object) handle.invokeExact(target, args);
+      }
+      try {
+        return method.invoke(target, args);
+      } catch (Exception e) {
+        throw ExceptionUtil.unwrapThrowable(e);
+      }
+    }
+  }
+
+  private static class ChainedInvocation extends Invocation {
+    private final MethodDispatch dispatch;
+    private final int next;
+
+    private ChainedInvocation(Object target, Method method, Object[] args, MethodDispatch dispatch, int next) {
+      super(target, method, args);
+      this.dispatch = dispatch;
+      this.next = next;
+    }
+
+    @Override
+    public Object proceed() throws InvocationTargetException, IllegalAccessException {
+      if (next < dispatch.interceptors.length) {
+        try {
+          return dispatch.interceptors[next].intercept(
+              new ChainedInvocation(getTarget(), getMethod(), getArgs(), dispatch, next + 1));
+        } catch (Throwable t) {
+          throw new InvocationTargetException(ExceptionUtil.unwrapThrowable(t));
+        }
+      }
+      try {
+        return dispatch.invokeTarget(getTarget(), getArgs());
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
+  }
+
+}
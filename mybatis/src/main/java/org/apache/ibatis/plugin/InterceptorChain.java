@@ -18,6 +18,7 @@ package org.apache.ibatis.plugin;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * @author Clinton Begin
@@ -25,8 +26,16 @@ import java.util.List;
 public class InterceptorChain {
 
   private final List<Interceptor> interceptors = new ArrayList<>();
+  private boolean compiled;
+  private volatile List<Function<Object, Object>> compiledSteps;
 
   public Object pluginAll(Object target) {
+    if (compiled) {
+      for (Function<Object, Object> step : getCompiledSteps()) {
+        target = step.apply(target);
+      }
+      return target;
+    }
     for (Interceptor interceptor : interceptors) {
       target = interceptor.plugin(target);
     }
@@ -35,10 +44,61 @@ public class InterceptorChain {
 
   public void addInterceptor(Interceptor interceptor) {
     interceptors.add(interceptor);
+    compiledSteps = null;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public boolean isCompiled() {
+    return compiled;
+  }
+
+  /**
+   * Sets whether consecutive interceptors that do not override {@link Interceptor#plugin(Object)} are applied through a
+   * single proxy, see {@link CompiledPlugin}. The others are still applied by calling their own {@code plugin} method.
+   *
+   * @param compiled true to apply the interceptors through a single proxy per run of interceptors
+   * @since 3.5.3
+   */
+  public void setCompiled(boolean compiled) {
+    this.compiled = compiled;
   }
 
   public List<Interceptor> getInterceptors() {
     return Collections.unmodifiableList(interceptors);
   }
 
+  private List<Function<Object, Object>> getCompiledSteps() {
+    List<Function<Object, Object>> steps = compiledSteps;
+    if (steps == null) {
+      steps = new ArrayList<>();
+      List<Interceptor> run = new ArrayList<>();
+      for (Interceptor interceptor : interceptors) {
+        if (usesDefaultPlugin(interceptor)) {
+          run.add(interceptor);
+          continue;
+        }
+        if (!run.isEmpty()) {
+          steps.add(new CompiledPlugin.Chain(run)::wrap);
+          run.clear();
+        }
+        steps.add(interceptor::plugin);
+      }
+      if (!run.isEmpty()) {
+        steps.add(new CompiledPlugin.Chain(run)::wrap);
+      }
+      compiledSteps = steps;
+    }
+    return steps;
+  }
+
+  private static boolean usesDefaultPlugin(Interceptor interceptor) {
+    try {
+      return interceptor.getClass().getMethod("plugin", Object.class).getDeclaringClass() == Interceptor.class;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
 }
@@ -18,10 +18,12 @@ package org.apache.ibatis.plugin;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.ibatis.reflection.ExceptionUtil;
 
@@ -30,6 +32,13 @@ import org.apache.ibatis.reflection.ExceptionUtil;
  */
 public class Plugin implements InvocationHandler {
 
+  private static final ClassValue<SignatureMetadata> SIGNATURES = new ClassValue<SignatureMetadata>() {
+    @Override
+    protected SignatureMetadata computeValue(Class<?> interceptorType) {
+      return new SignatureMetadata(buildSignatureMap(interceptorType));
+    }
+  };
+
   private final Object target;
   private final Interceptor interceptor;
   private final Map<Class<?>, Set<Method>> signatureMap;
@@ -41,9 +50,10 @@ public class Plugin implements InvocationHandler {
   }
 
   public static Object wrap(Object target, Interceptor interceptor) {
-    Map<Class<?>, Set<Method>> signatureMap = getSignatureMap(interceptor);
+    SignatureMetadata metadata = SIGNATURES.get(interceptor.getClass());
+    Map<Class<?>, Set<Method>> signatureMap = metadata.signatureMap;
     Class<?> type = target.getClass();
-    Class<?>[] interfaces = getAllInterfaces(type, signatureMap);
+    Class<?>[] interfaces = metadata.getInterfaces(type);
     if (interfaces.length > 0) {
       return Proxy.newProxyInstance(
           type.getClassLoader(),
@@ -66,11 +76,18 @@ public class Plugin implements InvocationHandler {
     }
   }
 
-  private static Map<Class<?>, Set<Method>> getSignatureMap(Interceptor interceptor) {
-    Intercepts interceptsAnnotation = interceptor.getClass().getAnnotation(Intercepts.class);
+  /**
+   * Returns the methods intercepted by the given type of interceptor, read once from its {@link Intercepts} annotation.
+   */
+  static Map<Class<?>, Set<Method>> getSignatureMap(Class<?> interceptorType) {
+    return SIGNATURES.get(interceptorType).signatureMap;
+  }
+
+  private static Map<Class<?>, Set<Method>> buildSignatureMap(Class<?> interceptorType) {
+    Intercepts interceptsAnnotation = interceptorType.getAnnotation(Intercepts.class);
     // issue #251
     if (interceptsAnnotation == null) {
-      throw new PluginException("No @Intercepts annotation was found in interceptor " + interceptor.getClass().getName());
+      throw new PluginException("No @Intercepts annotation was found in interceptor " + interceptorType.getName());
     }
     Signature[] sigs = interceptsAnnotation.value();
     Map<Class<?>, Set<Method>> signatureMap = new HashMap<>();
@@ -83,10 +100,13 @@ public class Plugin implements InvocationHandler {
         throw new PluginException("Could not find method on " + sig.type() + " named " + sig.method() + ". Cause: " + e, e);
       }
     }
-    return signatureMap;
+    for (Map.Entry<Class<?>, Set<Method>> entry : signatureMap.entrySet()) {
+      entry.setValue(Collections.unmodifiableSet(entry.getValue()));
+    }
+    return Collections.unmodifiableMap(signatureMap);
   }
 
-  private static Class<?>[] getAllInterfaces(Class<?> type, Map<Class<?>, Set<Method>> signatureMap) {
+  static Class<?>[] getAllInterfaces(Class<?> type, Map<Class<?>, Set<Method>> signatureMap) {
     Set<Class<?>> interfaces = new HashSet<>();
     while (type != null) {
       for (Class<?> c : type.getInterfaces()) {
@@ -99,4 +119,17 @@ public class Plugin implements InvocationHandler {
     return interfaces.toArray(new Class<?>[interfaces.size()]);
   }
 
+  private static class SignatureMetadata {
+    private final Map<Class<?>, Set<Method>> signatureMap;
+    private final Map<Class<?>, Class<?>[]> interfaces = new ConcurrentHashMap<>();
+
+    private SignatureMetadata(Map<Class<?>, Set<Method>> signatureMap) {
+      this.signatureMap = signatureMap;
+    }
+
+    private Class<?>[] getInterfaces(Class<?> type) {
+      return interfaces.computeIfAbsent(type, k -> getAllInterfaces(k, signatureMap));
+    }
+  }
+
 }
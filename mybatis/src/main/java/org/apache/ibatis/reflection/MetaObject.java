@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.property.PropertyPath;
 import org.apache.ibatis.reflection.property.PropertyTokenizer;
 import org.apache.ibatis.reflection.wrapper.BeanWrapper;
 import org.apache.ibatis.reflection.wrapper.CollectionWrapper;
@@ -32,7 +33,7 @@ import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
  */
 public class MetaObject {
 
-  private final Object originalObject;
+  private Object originalObject;
   private final ObjectWrapper objectWrapper;
   private final ObjectFactory objectFactory;
   private final ObjectWrapperFactory objectWrapperFactory;
@@ -65,6 +66,25 @@ public class MetaObject {
     }
   }
 
+  /**
+   * Returns a meta object for another object. When both objects are beans of the same class this meta object is
+   * pointed at the new one and returned, without looking up the class metadata again, so it must not be referenced
+   * anywhere else. Otherwise a new meta object is returned.
+   *
+   * @param object the object to point at
+   * @return this meta object or a new one
+   * @since 3.5.3
+   */
+  public MetaObject rebind(Object object) {
+    if (object != null && this != SystemMetaObject.NULL_META_OBJECT && objectWrapper.getClass() == BeanWrapper.class
+        && object.getClass() == originalObject.getClass() && !objectWrapperFactory.hasWrapperFor(object)) {
+      ((BeanWrapper) objectWrapper).rebind(object);
+      originalObject = object;
+      return this;
+    }
+    return forObject(object, objectFactory, objectWrapperFactory, reflectorFactory);
+  }
+
   public ObjectFactory getObjectFactory() {
     return objectFactory;
   }
@@ -143,6 +163,55 @@ public class MetaObject {
     }
   }
 
+  /**
+   * Same as {@link #getValue(String)} for a path parsed beforehand, which does not create any tokenizer.
+   *
+   * @param path the property path
+   * @return the value or {@code null} when the value or one of the objects on the path is {@code null}
+   * @since 3.5.3
+   */
+  public Object getValue(PropertyPath path) {
+    MetaObject metaObject = this;
+    int last = path.size() - 1;
+    for (int i = 0; i < last; i++) {
+      Object value = metaObject.objectWrapper.get(path.getSegment(i));
+      if (value == null) {
+        return null;
+      }
+      metaObject = metaObject.forProperty(value);
+    }
+    return metaObject.objectWrapper.get(path.getSegment(last));
+  }
+
+  /**
+   * Same as {@link #setValue(String, Object)} for a path parsed beforehand, which does not create any tokenizer.
+   *
+   * @param path the property path
+   * @param value the value
+   * @since 3.5.3
+   */
+  public void setValue(PropertyPath path, Object value) {
+    MetaObject metaObject = this;
+    int last = path.size() - 1;
+    for (int i = 0; i < last; i++) {
+      PropertyTokenizer prop = path.getSegment(i);
+      Object child = metaObject.objectWrapper.get(prop);
+      if (child != null) {
+        metaObject = metaObject.forProperty(child);
+      } else if (value == null) {
+        // don't instantiate child path if value is null
+        return;
+      } else {
+        metaObject = metaObject.objectWrapper.instantiatePropertyValue(path.getRemainder(i), prop, metaObject.objectFactory);
+      }
+    }
+    metaObject.objectWrapper.set(path.getSegment(last), value);
+  }
+
+  private MetaObject forProperty(Object value) {
+    return MetaObject.forObject(value, objectFactory, objectWrapperFactory, reflectorFactory);
+  }
+
   public MetaObject metaObjectForProperty(String name) {
     Object value = getValue(name);
     return MetaObject.forObject(value, objectFactory, objectWrapperFactory, reflectorFactory);
@@ -0,0 +1,154 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.apache.ibatis.reflection.invoker.GetFieldInvoker;
+import org.apache.ibatis.reflection.invoker.LambdaGetterInvoker;
+import org.apache.ibatis.reflection.invoker.LambdaSetterInvoker;
+import org.apache.ibatis.reflection.invoker.MethodHandleGetFieldInvoker;
+import org.apache.ibatis.reflection.invoker.MethodHandleSetFieldInvoker;
+import org.apache.ibatis.reflection.invoker.MethodInvoker;
+import org.apache.ibatis.reflection.invoker.SetFieldInvoker;
+
+/**
+ * A {@link Reflector} that calls getters and setters through a {@link Function} or a {@link BiConsumer} generated by
+ * the {@link LambdaMetafactory}, and reads and writes fields through method handles, instead of {@link Method#invoke}
+ * and {@link Field#get}.
+ * <p>
+ * The members are linked with a lookup that has private access to the class declaring them, so they are not linked
+ * when a security manager denies {@code suppressAccessChecks} or when the package of that class is not open to
+ * MyBatis. Such members, as well as static getters and setters, keep the invokers of {@link Reflector}.
+ *
+ * @since 3.5.3
+ */
+public class MethodHandleReflector extends Reflector {
+
+  private static final int ALLOWED_MODES = Lookup.PRIVATE | Lookup.PROTECTED | Lookup.PACKAGE | Lookup.PUBLIC;
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+  private static final Method privateLookupInMethod;
+  private static final Constructor<Lookup> lookupConstructor;
+
+  static {
+    Method method;
+    try {
+      // Since Java 9
+      method = MethodHandles.class.getMethod("privateLookupIn", Class.class, Lookup.class);
+    } catch (NoSuchMethodException e) {
+      method = null;
+    }
+    privateLookupInMethod = method;
+    Constructor<Lookup> constructor = null;
+    if (method == null) {
+      try {
+        constructor = Lookup.class.getDeclaredConstructor(Class.class, int.class);
+        constructor.setAccessible(true);
+      } catch (NoSuchMethodException | RuntimeException e) {
+        constructor = null;
+      }
+    }
+    lookupConstructor = constructor;
+  }
+
+  public MethodHandleReflector(Class<?> clazz) {
+    super(clazz);
+  }
+
+  @Override
+  protected MethodInvoker newMethodInvoker(Method method) {
+    Class<?> declaringClass = method.getDeclaringClass();
+    if (Modifier.isStatic(method.getModifiers()) || method.getReturnType() == void.class && method.getParameterCount() == 0) {
+      return super.newMethodInvoker(method);
+    }
+    try {
+      Lookup lookup = privateLookupIn(declaringClass);
+      MethodHandle handle = lookup.unreflect(method);
+      if (method.getParameterCount() == 0) {
+        CallSite callSite = LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(Function.class),
+            GETTER_TYPE, handle, MethodType.methodType(boxed(method.getReturnType()), declaringClass));
+        @SuppressWarnings("unchecked")
+        Function<Object, Object> getter = (Function<Object, Object>) callSite.getTarget().invoke();
+        return new LambdaGetterInvoker(method, getter);
+      }
+      CallSite callSite = LambdaMetafactory.metafactory(lookup, "accept", MethodType.methodType(BiConsumer.class),
+          SETTER_TYPE, handle, MethodType.methodType(void.class, declaringClass, boxed(method.getParameterTypes()[0])));
+      @SuppressWarnings("unchecked")
+      BiConsumer<Object, Object> setter = (BiConsumer<Object, Object>) callSite.getTarget().invoke();
+      return new LambdaSetterInvoker(method, setter);
+    } catch (Throwable t) {
+      return super.newMethodInvoker(method);
+    }
+  }
+
+  @Override
+  protected GetFieldInvoker newGetFieldInvoker(Field field) {
+    try {
+      MethodHandle handle = privateLookupIn(field.getDeclaringClass()).unreflectGetter(field);
+      if (Modifier.isStatic(field.getModifiers())) {
+        handle = MethodHandles.dropArguments(handle, 0, Object.class);
+      }
+      return new MethodHandleGetFieldInvoker(field, handle.asType(GETTER_TYPE));
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return super.newGetFieldInvoker(field);
+    }
+  }
+
+  @Override
+  protected SetFieldInvoker newSetFieldInvoker(Field field) {
+    try {
+      MethodHandle handle = privateLookupIn(field.getDeclaringClass()).unreflectSetter(field);
+      if (Modifier.isStatic(field.getModifiers())) {
+        handle = MethodHandles.dropArguments(handle, 0, Object.class);
+      }
+      return new MethodHandleSetFieldInvoker(field, handle.asType(SETTER_TYPE));
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // e.g. final fields, that only Field#set can write
+      return super.newSetFieldInvoker(field);
+    }
+  }
+
+  private static Lookup privateLookupIn(Class<?> type) throws ReflectiveOperationException {
+    if (!canControlMemberAccessible()) {
+      throw new IllegalAccessException("Private access to " + type + " is not permitted");
+    }
+    if (privateLookupInMethod != null) {
+      return (Lookup) privateLookupInMethod.invoke(null, type, MethodHandles.lookup());
+    }
+    if (lookupConstructor != null) {
+      return lookupConstructor.newInstance(type, ALLOWED_MODES);
+    }
+    throw new IllegalAccessException("No private lookup available for " + type);
+  }
+
+  private static Class<?> boxed(Class<?> type) {
+    return MethodType.methodType(type).wrap().returnType();
+  }
+
+}
@@ -49,6 +49,13 @@ public class ParamNameResolver {
 
   private boolean hasParamAnnotation;
 
+  // the entries of names in order, with the generic name of each one or null when a @Param takes it
+  private final int[] argIndexes;
+  private final String[] paramNames;
+  private final String[] genericParamNames;
+  // the initial capacity of a ParamMap that holds all names without resizing
+  private final int paramMapCapacity;
+
   public ParamNameResolver(Configuration config, Method method) {
     final Class<?>[] paramTypes = method.getParameterTypes();
     final Annotation[][] paramAnnotations = method.getParameterAnnotations();
@@ -82,6 +89,25 @@ public class ParamNameResolver {
       map.put(paramIndex, name);
     }
     names = Collections.unmodifiableSortedMap(map);
+    argIndexes = new int[names.size()];
+    paramNames = new String[names.size()];
+    genericParamNames = new String[names.size()];
+    int i = 0;
+    int entryCount = 0;
+    for (Map.Entry<Integer, String> entry : names.entrySet()) {
+      argIndexes[i] = entry.getKey();
+      paramNames[i] = entry.getValue();
+      entryCount++;
+      // add generic param names (param1, param2, ...)
+      final String genericParamName = GENERIC_NAME_PREFIX + (i + 1);
+      // ensure not to overwrite parameter named with @Param
+      if (!names.containsValue(genericParamName)) {
+        genericParamNames[i] = genericParamName;
+        entryCount++;
+      }
+      i++;
+    }
+    paramMapCapacity = entryCount * 4 / 3 + 1;
   }
 
   private String getActualParamName(Method method, int paramIndex) {
@@ -114,17 +140,13 @@ public class ParamNameResolver {
     } else if (!hasParamAnnotation && paramCount == 1) {
       return args[names.firstKey()];
     } else {
-      final Map<String, Object> param = new ParamMap<>();
-      int i = 0;
-      for (Map.Entry<Integer, String> entry : names.entrySet()) {
-        param.put(entry.getValue(), args[entry.getKey()]);
-        // add generic param names (param1, param2, ...)
-        final String genericParamName = GENERIC_NAME_PREFIX + String.valueOf(i + 1);
-        // ensure not to overwrite parameter named with @Param
-        if (!names.containsValue(genericParamName)) {
-          param.put(genericParamName, args[entry.getKey()]);
+      final Map<String, Object> param = new ParamMap<>(paramMapCapacity);
+      for (int i = 0; i < paramCount; i++) {
+        final Object arg = args[argIndexes[i]];
+        param.put(paramNames[i], arg);
+        if (genericParamNames[i] != null) {
+          param.put(genericParamNames[i], arg);
         }
-        i++;
       }
       return param;
     }
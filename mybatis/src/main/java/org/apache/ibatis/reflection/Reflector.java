@@ -129,7 +129,7 @@ public class Reflector {
         ? new AmbiguousMethodInvoker(method, MessageFormat.format(
             "Illegal overloaded getter method with ambiguous type for property ''{0}'' in class ''{1}''. This breaks the JavaBeans specification and can cause unpredictable results.",
             name, method.getDeclaringClass().getName()))
-        : new MethodInvoker(method);
+        : newMethodInvoker(method);
     getMethods.put(name, invoker);
     Type returnType = TypeParameterResolver.resolveReturnType(method, type);
     getTypes.put(name, typeToClass(returnType));
@@ -196,7 +196,7 @@ public class Reflector {
   }
 
   private void addSetMethod(String name, Method method) {
-    MethodInvoker invoker = new MethodInvoker(method);
+    MethodInvoker invoker = newMethodInvoker(method);
     setMethods.put(name, invoker);
     Type[] paramTypes = TypeParameterResolver.resolveParamTypes(method, type);
     setTypes.put(name, typeToClass(paramTypes[0]));
@@ -246,7 +246,7 @@ public class Reflector {
 
   private void addSetField(Field field) {
     if (isValidPropertyName(field.getName())) {
-      setMethods.put(field.getName(), new SetFieldInvoker(field));
+      setMethods.put(field.getName(), newSetFieldInvoker(field));
       Type fieldType = TypeParameterResolver.resolveFieldType(field, type);
       setTypes.put(field.getName(), typeToClass(fieldType));
     }
@@ -254,12 +254,45 @@ public class Reflector {
 
   private void addGetField(Field field) {
     if (isValidPropertyName(field.getName())) {
-      getMethods.put(field.getName(), new GetFieldInvoker(field));
+      getMethods.put(field.getName(), newGetFieldInvoker(field));
       Type fieldType = TypeParameterResolver.resolveFieldType(field, type);
       getTypes.put(field.getName(), typeToClass(fieldType));
     }
   }
 
+  /**
+   * Creates the invoker of a getter or a setter method. Called while this reflector is being constructed.
+   *
+   * @param method the getter (without parameters) or the setter (with one parameter)
+   * @return the invoker
+   * @since 3.5.3
+   */
+  protected MethodInvoker newMethodInvoker(Method method) {
+    return new MethodInvoker(method);
+  }
+
+  /**
+   * Creates the invoker reading a field that has no getter. Called while this reflector is being constructed.
+   *
+   * @param field the field
+   * @return the invoker
+   * @since 3.5.3
+   */
+  protected GetFieldInvoker newGetFieldInvoker(Field field) {
+    return new GetFieldInvoker(field);
+  }
+
+  /**
+   * Creates the invoker writing a field that has no setter. Called while this reflector is being constructed.
+   *
+   * @param field the field
+   * @return the invoker
+   * @since 3.5.3
+   */
+  protected SetFieldInvoker newSetFieldInvoker(Field field) {
+    return new SetFieldInvoker(field);
+  }
+
   private boolean isValidPropertyName(String name) {
     return !(name.startsWith("$") || "serialVersionUID".equals(name) || "class".equals(name));
   }
@@ -0,0 +1,45 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.Function;
+
+/**
+ * Calls a getter through a {@link Function} generated for it, see
+ * {@link org.apache.ibatis.reflection.MethodHandleReflector}.
+ *
+ * @since 3.5.3
+ */
+public class LambdaGetterInvoker extends MethodInvoker {
+
+  private final Function<Object, Object> getter;
+
+  public LambdaGetterInvoker(Method method, Function<Object, Object> getter) {
+    super(method);
+    this.getter = getter;
+  }
+
+  @Override
+  public Object invoke(Object target, Object[] args) throws InvocationTargetException {
+    try {
+      return getter.apply(target);
+    } catch (Throwable t) {
+      throw new InvocationTargetException(t);
+    }
+  }
+}
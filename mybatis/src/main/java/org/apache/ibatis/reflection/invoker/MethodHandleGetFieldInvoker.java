@@ -0,0 +1,47 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+
+/**
+ * Reads a field through a method handle of type {@code (Object)Object}, see
+ * {@link org.apache.ibatis.reflection.MethodHandleReflector}.
+ *
+ * @since 3.5.3
+ */
+public class MethodHandleGetFieldInvoker extends GetFieldInvoker {
+
+  private final MethodHandle getter;
+
+  public MethodHandleGetFieldInvoker(Field field, MethodHandle getter) {
+    super(field);
+    this.getter = getter;
+  }
+
+  @Override
+  public Object invoke(Object target, Object[] args) {
+    try {
+      return (Object) getter.invokeExact(target);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      // reading a field throws no checked exception
+      throw new IllegalStateException(t);
+    }
+  }
+}
@@ -48,4 +48,8 @@ public class SetFieldInvoker implements Invoker {
   public Class<?> getType() {
     return field.getType();
   }
+
+  public Field getField() {
+    return field;
+  }
 }
@@ -0,0 +1,98 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.property;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A property path such as {@code order.items[0].name} split once into the tokenizers of its segments, so that
+ * {@link org.apache.ibatis.reflection.MetaObject} can walk it on each access without parsing it again.
+ *
+ * @since 3.5.3
+ */
+public final class PropertyPath {
+
+  private final String fullname;
+  private final PropertyTokenizer[] segments;
+  private final String[] remainders;
+
+  private PropertyPath(String fullname) {
+    this.fullname = fullname;
+    List<PropertyTokenizer> tokenizers = new ArrayList<>();
+    List<String> names = new ArrayList<>();
+    String remainder = fullname;
+    PropertyTokenizer prop = new PropertyTokenizer(fullname);
+    while (true) {
+      tokenizers.add(prop);
+      names.add(remainder);
+      if (!prop.hasNext()) {
+        break;
+      }
+      remainder = prop.getChildren();
+      prop = prop.next();
+    }
+    this.segments = tokenizers.toArray(new PropertyTokenizer[0]);
+    this.remainders = names.toArray(new String[0]);
+  }
+
+  /**
+   * Parses a property path.
+   *
+   * @param fullname the property path, may be {@code null}
+   * @return the parsed path or {@code null} when {@code fullname} is {@code null}
+   */
+  public static PropertyPath parse(String fullname) {
+    return fullname == null ? null : new PropertyPath(fullname);
+  }
+
+  public String getFullname() {
+    return fullname;
+  }
+
+  /**
+   * @return the number of segments, at least one
+   */
+  public int size() {
+    return segments.length;
+  }
+
+  /**
+   * Returns the tokenizer of a segment, whose children are the following segments.
+   *
+   * @param index the index of the segment
+   * @return the tokenizer
+   */
+  public PropertyTokenizer getSegment(int index) {
+    return segments[index];
+  }
+
+  /**
+   * Returns the path that starts at a segment, which is the full path for the first segment.
+   *
+   * @param index the index of the segment
+   * @return the remaining path
+   */
+  public String getRemainder(int index) {
+    return remainders[index];
+  }
+
+  @Override
+  public String toString() {
+    return fullname;
+  }
+
+}
@@ -31,7 +31,7 @@ import org.apache.ibatis.reflection.property.PropertyTokenizer;
  */
 public class BeanWrapper extends BaseWrapper {
 
-  private final Object object;
+  private Object object;
   private final MetaClass metaClass;
 
   public BeanWrapper(MetaObject metaObject, Object object) {
@@ -40,6 +40,19 @@ public class BeanWrapper extends BaseWrapper {
     this.metaClass = MetaClass.forClass(object.getClass(), metaObject.getReflectorFactory());
   }
 
+  /**
+   * Makes this wrapper point at another object of the same class, keeping its class metadata.
+   *
+   * @param object the new object, whose class must be the class of the current one
+   * @since 3.5.3
+   */
+  public void rebind(Object object) {
+    if (object.getClass() != this.object.getClass()) {
+      throw new ReflectionException("Cannot rebind a wrapper of " + this.object.getClass() + " to an instance of " + object.getClass());
+    }
+    this.object = object;
+  }
+
   @Override
   public Object get(PropertyTokenizer prop) {
     if (prop.getIndex() != null) {
@@ -26,6 +26,7 @@ import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.property.PropertyPath;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeException;
@@ -44,6 +45,7 @@ public class DefaultParameterHandler implements ParameterHandler {
   private final Object parameterObject;
   private final BoundSql boundSql;
   private final Configuration configuration;
+  private MetaObject parameterMetaObject;
 
   public DefaultParameterHandler(MappedStatement mappedStatement, Object parameterObject, BoundSql boundSql) {
     this.mappedStatement = mappedStatement;
@@ -67,16 +69,18 @@ public class DefaultParameterHandler implements ParameterHandler {
         ParameterMapping parameterMapping = parameterMappings.get(i);
         if (parameterMapping.getMode() != ParameterMode.OUT) {
           Object value;
-          String propertyName = parameterMapping.getProperty();
-          if (boundSql.hasAdditionalParameter(propertyName)) { // issue #448 ask first for additional params
-            value = boundSql.getAdditionalParameter(propertyName);
+          PropertyPath propertyPath = parameterMapping.getPropertyPath();
+          if (boundSql.hasAdditionalParameter(propertyPath)) { // issue #448 ask first for additional params
+            value = boundSql.getAdditionalParameter(propertyPath);
           } else if (parameterObject == null) {
             value = null;
           } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
             value = parameterObject;
           } else {
-            MetaObject metaObject = configuration.newMetaObject(parameterObject);
-            value = metaObject.getValue(propertyName);
+            if (parameterMetaObject == null) {
+              parameterMetaObject = configuration.newMetaObject(parameterObject);
+            }
+            value = parameterMetaObject.getValue(propertyPath);
           }
           TypeHandler typeHandler = parameterMapping.getTypeHandler();
           JdbcType jdbcType = parameterMapping.getJdbcType();
@@ -0,0 +1,572 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+
+import ognl.OgnlOps;
+
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.invoker.Invoker;
+
+/**
+ * A test expression of the common OGNL subset compiled into a tree of direct evaluations.
+ * <p>
+ * Supported are {@code null}, boolean, string, character and number literals, property paths, the methods
+ * {@code size()}, {@code isEmpty()} and {@code length()}, comparisons, {@code and}, {@code or} and {@code not} (in
+ * both their symbolic and named forms) and parentheses. Values are compared with {@link OgnlOps} so the results are
+ * the same as OGNL's. Whenever a value is met that the compiled form does not handle exactly like OGNL (a property
+ * that is not a plain getter, a {@code null} in the middle of a path, ...), the expression is evaluated by OGNL
+ * instead.
+ *
+ * @since 3.5.3
+ */
+final class CompiledExpression {
+
+  private static final DynamicContext.ContextAccessor CONTEXT_ACCESSOR = new DynamicContext.ContextAccessor();
+
+  private final String expression;
+  private final Node root;
+  private final OgnlCache ognlCache;
+
+  private CompiledExpression(String expression, Node root, OgnlCache ognlCache) {
+    this.expression = expression;
+    this.root = root;
+    this.ognlCache = ognlCache;
+  }
+
+  /**
+   * Compiles an expression.
+   *
+   * @param expression the OGNL expression
+   * @param reflectorFactory the factory of the reflectors used to read bean properties
+   * @param ognlCache the cache used when the expression is evaluated by OGNL
+   * @return the compiled expression or {@code null} when the expression is not part of the supported subset
+   */
+  static CompiledExpression compile(String expression, ReflectorFactory reflectorFactory, OgnlCache ognlCache) {
+    Node root = new Parser(expression, reflectorFactory).parse();
+    return root == null ? null : new CompiledExpression(expression, root, ognlCache);
+  }
+
+  Object getValue(Object parameterObject) {
+    try {
+      return root.getValue(parameterObject);
+    } catch (UnsupportedValueException e) {
+      return ognlCache.evaluate(expression, parameterObject);
+    }
+  }
+
+  String getExpression() {
+    return expression;
+  }
+
+  /**
+   * Signals that a value cannot be evaluated like OGNL would. It is thrown without a stack trace.
+   */
+  private static final class UnsupportedValueException extends Exception {
+    private static final long serialVersionUID = 1L;
+    private static final UnsupportedValueException INSTANCE = new UnsupportedValueException();
+
+    private UnsupportedValueException() {
+      super(null, null, false, false);
+    }
+  }
+
+  private interface Node {
+    Object getValue(Object root) throws UnsupportedValueException;
+  }
+
+  private static final class Literal implements Node {
+    private final Object value;
+
+    Literal(Object value) {
+      this.value = value;
+    }
+
+    @Override
+    public Object getValue(Object root) {
+      return value;
+    }
+  }
+
+  private static final class Root implements Node {
+    @Override
+    public Object getValue(Object root) {
+      return root;
+    }
+  }
+
+  private enum Operator {
+    AND, OR, EQ, NEQ, LT, GT, LTE, GTE
+  }
+
+  private static final class Binary implements Node {
+    private final Operator operator;
+    private final Node left;
+    private final Node right;
+
+    Binary(Operator operator, Node left, Node right) {
+      this.operator = operator;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    public Object getValue(Object root) throws UnsupportedValueException {
+      Object v1 = left.getValue(root);
+      // and/or return the last operand evaluated, like OGNL does
+      switch (operator) {
+        case AND:
+          return OgnlOps.booleanValue(v1) ? right.getValue(root) : v1;
+        case OR:
+          return OgnlOps.booleanValue(v1) ? v1 : right.getValue(root);
+        default:
+          break;
+      }
+      Object v2 = right.getValue(root);
+      switch (operator) {
+        case EQ:
+          return OgnlOps.equal(v1, v2);
+        case NEQ:
+          return !OgnlOps.equal(v1, v2);
+        case LT:
+          return OgnlOps.less(v1, v2);
+        case GT:
+          return OgnlOps.greater(v1, v2);
+        case LTE:
+          return !OgnlOps.greater(v1, v2);
+        default:
+          return !OgnlOps.less(v1, v2);
+      }
+    }
+  }
+
+  private static final class Not implements Node {
+    private final Node operand;
+
+    Not(Node operand) {
+      this.operand = operand;
+    }
+
+    @Override
+    public Object getValue(Object root) throws UnsupportedValueException {
+      return !OgnlOps.booleanValue(operand.getValue(root));
+    }
+  }
+
+  private static final class Property implements Node {
+    private final Node target;
+    private final String name;
+    private final ReflectorFactory reflectorFactory;
+    // the getter found for the last bean type read, most paths only ever see one
+    private volatile CachedGetter cachedGetter;
+
+    Property(Node target, String name, ReflectorFactory reflectorFactory) {
+      this.target = target;
+      this.name = name;
+      this.reflectorFactory = reflectorFactory;
+    }
+
+    @Override
+    public Object getValue(Object root) throws UnsupportedValueException {
+      Object object = target.getValue(root);
+      if (object instanceof DynamicContext.ContextMap) {
+        return CONTEXT_ACCESSOR.getProperty(null, object, name);
+      }
+      if (object instanceof Map) {
+        Map<?, ?> map = (Map<?, ?>) object;
+        switch (name) {
+          case "size":
+            return map.size();
+          case "isEmpty":
+            return map.isEmpty();
+          case "keys":
+          case "keySet":
+            return map.keySet();
+          case "values":
+            return map.values();
+          default:
+            return map.get(name);
+        }
+      }
+      if (object instanceof Collection) {
+        if ("size".equals(name)) {
+          return ((Collection<?>) object).size();
+        } else if ("isEmpty".equals(name)) {
+          return ((Collection<?>) object).isEmpty();
+        }
+      } else if (object != null && object.getClass().isArray() && "length".equals(name)) {
+        return Array.getLength(object);
+      }
+      if (object == null) {
+        throw UnsupportedValueException.INSTANCE;
+      }
+      return getBeanProperty(object);
+    }
+
+    private Object getBeanProperty(Object object) throws UnsupportedValueException {
+      CachedGetter getter = cachedGetter;
+      if (getter == null || getter.type != object.getClass()) {
+        getter = new CachedGetter(object.getClass(), findGetter(object.getClass()));
+        cachedGetter = getter;
+      }
+      if (getter.invoker == null) {
+        throw UnsupportedValueException.INSTANCE;
+      }
+      try {
+        return getter.invoker.invoke(object, null);
+      } catch (Exception e) {
+        // let OGNL report it
+        throw UnsupportedValueException.INSTANCE;
+      }
+    }
+
+    private Invoker findGetter(Class<?> type) {
+      try {
+        Reflector reflector = reflectorFactory.findForClass(type);
+        return reflector.hasGetter(name) ? reflector.getGetInvoker(name) : null;
+      } catch (RuntimeException e) {
+        return null;
+      }
+    }
+  }
+
+  private static final class CachedGetter {
+    private final Class<?> type;
+    private final Invoker invoker;
+
+    CachedGetter(Class<?> type, Invoker invoker) {
+      this.type = type;
+      this.invoker = invoker;
+    }
+  }
+
+  private static final class MethodCall implements Node {
+    private final Node target;
+    private final String name;
+
+    MethodCall(Node target, String name) {
+      this.target = target;
+      this.name = name;
+    }
+
+    @Override
+    public Object getValue(Object root) throws UnsupportedValueException {
+      Object object = target.getValue(root);
+      switch (name) {
+        case "size":
+          if (object instanceof Collection) {
+            return ((Collection<?>) object).size();
+          } else if (object instanceof Map) {
+            return ((Map<?, ?>) object).size();
+          }
+          break;
+        case "isEmpty":
+          if (object instanceof Collection) {
+            return ((Collection<?>) object).isEmpty();
+          } else if (object instanceof Map) {
+            return ((Map<?, ?>) object).isEmpty();
+          } else if (object instanceof String) {
+            return ((String) object).isEmpty();
+          }
+          break;
+        default:
+          if (object instanceof CharSequence) {
+            return ((CharSequence) object).length();
+          }
+          break;
+      }
+      throw UnsupportedValueException.INSTANCE;
+    }
+  }
+
+  /**
+   * A recursive descent parser following the precedence of the OGNL grammar. Any construct outside of the supported
+   * subset makes it return {@code null}.
+   */
+  private static final class Parser {
+
+    private final String expression;
+    private final ReflectorFactory reflectorFactory;
+    private int position;
+    private boolean unsupported;
+
+    Parser(String expression, ReflectorFactory reflectorFactory) {
+      this.expression = expression;
+      this.reflectorFactory = reflectorFactory;
+    }
+
+    Node parse() {
+      Node node = parseOr();
+      skipWhitespace();
+      return unsupported || position != expression.length() ? null : node;
+    }
+
+    private Node parseOr() {
+      Node node = parseAnd();
+      while (!unsupported && (consumeSymbol("||") || consumeKeyword("or"))) {
+        node = new Binary(Operator.OR, node, parseAnd());
+      }
+      return node;
+    }
+
+    private Node parseAnd() {
+      Node node = parseEquality();
+      while (!unsupported && (consumeSymbol("&&") || consumeKeyword("and"))) {
+        node = new Binary(Operator.AND, node, parseEquality());
+      }
+      return node;
+    }
+
+    private Node parseEquality() {
+      Node node = parseRelational();
+      while (!unsupported) {
+        if (consumeSymbol("==") || consumeKeyword("eq")) {
+          node = new Binary(Operator.EQ, node, parseRelational());
+        } else if (consumeSymbol("!=") || consumeKeyword("neq")) {
+          node = new Binary(Operator.NEQ, node, parseRelational());
+        } else {
+          break;
+        }
+      }
+      return node;
+    }
+
+    private Node parseRelational() {
+      Node node = parseUnary();
+      while (!unsupported) {
+        if (consumeSymbol("<=") || consumeKeyword("lte")) {
+          node = new Binary(Operator.LTE, node, parseUnary());
+        } else if (consumeSymbol(">=") || consumeKeyword("gte")) {
+          node = new Binary(Operator.GTE, node, parseUnary());
+        } else if (consumeOperator('<') || consumeKeyword("lt")) {
+          node = new Binary(Operator.LT, node, parseUnary());
+        } else if (consumeOperator('>') || consumeKeyword("gt")) {
+          node = new Binary(Operator.GT, node, parseUnary());
+        } else {
+          break;
+        }
+      }
+      return node;
+    }
+
+    private Node parseUnary() {
+      if (consumeOperator('!') || consumeKeyword("not")) {
+        return new Not(parseUnary());
+      }
+      if (consumeOperator('-')) {
+        skipWhitespace();
+        Object number = parseNumber();
+        return number == null ? fail() : new Literal(OgnlOps.negate(number));
+      }
+      return parsePrimary();
+    }
+
+    private Node parsePrimary() {
+      skipWhitespace();
+      if (position >= expression.length()) {
+        return fail();
+      }
+      char c = expression.charAt(position);
+      if (c == '(') {
+        position++;
+        Node node = parseOr();
+        return consumeSymbol(")") ? node : fail();
+      }
+      if (c == '\'' || c == '"') {
+        return parseString(c);
+      }
+      if (Character.isDigit(c)) {
+        Object number = parseNumber();
+        return number == null ? fail() : new Literal(number);
+      }
+      String identifier = parseIdentifier();
+      if (identifier == null) {
+        return fail();
+      }
+      switch (identifier) {
+        case "null":
+          return new Literal(null);
+        case "true":
+          return new Literal(Boolean.TRUE);
+        case "false":
+          return new Literal(Boolean.FALSE);
+        case "and": case "or": case "not": case "eq": case "neq": case "lt": case "gt": case "lte": case "gte":
+        case "in": case "instanceof": case "new": case "shl": case "shr": case "ushr": case "band": case "bor":
+        case "xor":
+          return fail();
+        default:
+          break;
+      }
+      return parsePath(new Property(new Root(), identifier, reflectorFactory));
+    }
+
+    private Node parsePath(Node node) {
+      while (position < expression.length() && expression.charAt(position) == '.') {
+        position++;
+        String identifier = parseIdentifier();
+        if (identifier == null) {
+          return fail();
+        }
+        if (position < expression.length() && expression.charAt(position) == '(') {
+          position++;
+          if (!consumeSymbol(")")) {
+            return fail();
+          }
+          if (!"size".equals(identifier) && !"isEmpty".equals(identifier) && !"length".equals(identifier)) {
+            return fail();
+          }
+          node = new MethodCall(node, identifier);
+        } else {
+          node = new Property(node, identifier, reflectorFactory);
+        }
+      }
+      if (position < expression.length()) {
+        char c = expression.charAt(position);
+        if (c == '[' || c == '(' || c == '{' || c == '@' || c == '#') {
+          return fail();
+        }
+      }
+      return node;
+    }
+
+    private Node parseString(char quote) {
+      int end = expression.indexOf(quote, position + 1);
+      if (end < 0) {
+        return fail();
+      }
+      String value = expression.substring(position + 1, end);
+      if (value.indexOf('\\') >= 0) {
+        return fail();
+      }
+      position = end + 1;
+      // OGNL reads a single quoted single character as a Character
+      if (quote == '\'' && value.length() == 1) {
+        return new Literal(value.charAt(0));
+      }
+      return new Literal(value);
+    }
+
+    private Object parseNumber() {
+      int start = position;
+      while (position < expression.length() && Character.isDigit(expression.charAt(position))) {
+        position++;
+      }
+      if (position == start) {
+        return null;
+      }
+      boolean decimal = false;
+      if (position + 1 < expression.length() && expression.charAt(position) == '.'
+          && Character.isDigit(expression.charAt(position + 1))) {
+        decimal = true;
+        position++;
+        while (position < expression.length() && Character.isDigit(expression.charAt(position))) {
+          position++;
+        }
+      }
+      String digits = expression.substring(start, position);
+      if (!decimal && digits.length() > 1 && digits.charAt(0) == '0') {
+        // octal
+        return null;
+      }
+      if (position < expression.length()) {
+        char suffix = expression.charAt(position);
+        if (!decimal && (suffix == 'l' || suffix == 'L')) {
+          position++;
+          return isFollowedByIdentifier() ? null : parseLong(digits);
+        }
+        if (Character.isLetterOrDigit(suffix) || suffix == '.' || suffix == '_' || suffix == '$') {
+          // hex, octal, exponents and the other suffixes are left to OGNL
+          return null;
+        }
+      }
+      if (decimal) {
+        return Double.valueOf(digits);
+      }
+      Long value = parseLong(digits);
+      return value == null || value > Integer.MAX_VALUE ? null : Integer.valueOf(value.intValue());
+    }
+
+    private Long parseLong(String digits) {
+      try {
+        return Long.valueOf(digits);
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+
+    private boolean isFollowedByIdentifier() {
+      return position < expression.length() && Character.isJavaIdentifierPart(expression.charAt(position));
+    }
+
+    private String parseIdentifier() {
+      skipWhitespace();
+      int start = position;
+      if (position < expression.length() && Character.isJavaIdentifierStart(expression.charAt(position))) {
+        position++;
+        while (position < expression.length() && Character.isJavaIdentifierPart(expression.charAt(position))) {
+          position++;
+        }
+      }
+      return position == start ? null : expression.substring(start, position);
+    }
+
+    private boolean consumeSymbol(String symbol) {
+      skipWhitespace();
+      if (expression.startsWith(symbol, position)) {
+        position += symbol.length();
+        return true;
+      }
+      return false;
+    }
+
+    private boolean consumeOperator(char operator) {
+      skipWhitespace();
+      if (position < expression.length() && expression.charAt(position) == operator
+          && (position + 1 >= expression.length() || expression.charAt(position + 1) != '=')) {
+        position++;
+        return true;
+      }
+      return false;
+    }
+
+    private boolean consumeKeyword(String keyword) {
+      skipWhitespace();
+      int end = position + keyword.length();
+      if (expression.startsWith(keyword, position)
+          && (end >= expression.length() || !Character.isJavaIdentifierPart(expression.charAt(end)))) {
+        position = end;
+        return true;
+      }
+      return false;
+    }
+
+    private void skipWhitespace() {
+      while (position < expression.length() && Character.isWhitespace(expression.charAt(position))) {
+        position++;
+      }
+    }
+
+    private Node fail() {
+      unsupported = true;
+      return new Literal(null);
+    }
+  }
+
+}
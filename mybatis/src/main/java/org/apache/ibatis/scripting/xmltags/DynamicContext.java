@@ -39,6 +39,7 @@ public class DynamicContext {
   }
 
   private final ContextMap bindings;
+  private final OgnlCache ognlCache;
   private final StringJoiner sqlBuilder = new StringJoiner(" ");
   private int uniqueNumber = 0;
 
@@ -52,12 +53,20 @@ public class DynamicContext {
     }
     bindings.put(PARAMETER_OBJECT_KEY, parameterObject);
     bindings.put(DATABASE_ID_KEY, configuration.getDatabaseId());
+    ognlCache = configuration.getOgnlCache();
   }
 
   public Map<String, Object> getBindings() {
     return bindings;
   }
 
+  /**
+   * @since 3.5.3
+   */
+  public OgnlCache getOgnlCache() {
+    return ognlCache;
+  }
+
   public void bind(String name, Object value) {
     bindings.put(name, value);
   }
@@ -15,9 +15,17 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import org.apache.ibatis.builder.SqlSourceBuilder;
 import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.reflection.property.PropertyTokenizer;
 import org.apache.ibatis.session.Configuration;
 
 /**
@@ -27,6 +35,7 @@ public class DynamicSqlSource implements SqlSource {
 
   private final Configuration configuration;
   private final SqlNode rootSqlNode;
+  private final ConcurrentMap<SqlShape, ParsedSql> parsedSqlCache = new ConcurrentHashMap<>();
 
   public DynamicSqlSource(Configuration configuration, SqlNode rootSqlNode) {
     this.configuration = configuration;
@@ -37,12 +46,143 @@ public class DynamicSqlSource implements SqlSource {
   public BoundSql getBoundSql(Object parameterObject) {
     DynamicContext context = new DynamicContext(configuration, parameterObject);
     rootSqlNode.apply(context);
-    SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
     Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
-    SqlSource sqlSource = sqlSourceParser.parse(context.getSql(), parameterType, context.getBindings());
-    BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
+    ParsedSql parsedSql = parse(context.getSql(), parameterType, context.getBindings());
+    BoundSql boundSql = new BoundSql(configuration, parsedSql.sql, new ArrayList<>(parsedSql.parameterMappings), parameterObject);
     context.getBindings().forEach(boundSql::setAdditionalParameter);
     return boundSql;
   }
 
+  private ParsedSql parse(String originalSql, Class<?> parameterType, Map<String, Object> bindings) {
+    int cacheSize = configuration.getDynamicSqlCacheSize();
+    if (cacheSize <= 0) {
+      return ParsedSql.parse(configuration, originalSql, parameterType, bindings);
+    }
+    SqlShape shape = new SqlShape(originalSql, parameterType);
+    ParsedSql parsedSql = parsedSqlCache.get(shape);
+    if (parsedSql != null && parsedSql.matches(bindings)) {
+      return parsedSql;
+    }
+    parsedSql = ParsedSql.parse(configuration, originalSql, parameterType, bindings);
+    // the cache stops growing when it is full, the shapes seen first are usually the common ones
+    if (parsedSql.cacheable && (parsedSqlCache.size() < cacheSize || parsedSqlCache.containsKey(shape))) {
+      parsedSqlCache.put(shape, parsedSql);
+    }
+    return parsedSql;
+  }
+
+  /**
+   * The generated SQL text together with the type of the parameter object it was generated for.
+   */
+  private static final class SqlShape {
+
+    private final String sql;
+    private final Class<?> parameterType;
+    private final int hashCode;
+
+    SqlShape(String sql, Class<?> parameterType) {
+      this.sql = sql;
+      this.parameterType = parameterType;
+      this.hashCode = 31 * sql.hashCode() + parameterType.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof SqlShape)) {
+        return false;
+      }
+      SqlShape that = (SqlShape) o;
+      return hashCode == that.hashCode && parameterType == that.parameterType && sql.equals(that.sql);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+  }
+
+  /**
+   * The SQL and parameter mappings parsed from a generated SQL text.
+   * <p>
+   * The java type of a parameter mapping is taken from the binding of the same name when there is one, so a parsed
+   * SQL can only be reused while the bindings it was resolved against still hold values of the same types. Mappings
+   * whose type depends on more than the type of a binding (values of a map, indexed values or deeply nested
+   * properties) make it not cacheable.
+   */
+  private static final class ParsedSql {
+
+    // a missing binding and a binding holding null resolve to different java types
+    private static final Class<?> NO_BINDING = Void.class;
+
+    private final String sql;
+    private final List<ParameterMapping> parameterMappings;
+    private final String[] bindingNames;
+    private final Class<?>[] bindingTypes;
+    private final boolean cacheable;
+
+    private ParsedSql(String sql, List<ParameterMapping> parameterMappings, String[] bindingNames,
+        Class<?>[] bindingTypes, boolean cacheable) {
+      this.sql = sql;
+      this.parameterMappings = parameterMappings;
+      this.bindingNames = bindingNames;
+      this.bindingTypes = bindingTypes;
+      this.cacheable = cacheable;
+    }
+
+    static ParsedSql parse(Configuration configuration, String originalSql, Class<?> parameterType,
+        Map<String, Object> bindings) {
+      SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
+      SqlSource sqlSource = sqlSourceParser.parse(originalSql, parameterType, bindings);
+      BoundSql parsed = sqlSource.getBoundSql(null);
+      List<ParameterMapping> parameterMappings = parsed.getParameterMappings();
+      int size = parameterMappings.size();
+      String[] bindingNames = new String[size];
+      Class<?>[] bindingTypes = new Class<?>[size];
+      boolean cacheable = true;
+      for (int i = 0; i < size && cacheable; i++) {
+        String property = parameterMappings.get(i).getProperty();
+        if (property == null) {
+          continue;
+        }
+        PropertyTokenizer prop = new PropertyTokenizer(property);
+        Object value = bindings.containsKey(prop.getName()) ? bindings.get(prop.getName()) : null;
+        if (prop.getIndex() != null) {
+          cacheable = false;
+        } else if (prop.hasNext() && (value instanceof Map || new PropertyTokenizer(prop.getChildren()).hasNext())) {
+          cacheable = false;
+        } else {
+          bindingNames[i] = prop.getName();
+          bindingTypes[i] = bindingType(bindings, prop.getName());
+        }
+      }
+      return new ParsedSql(parsed.getSql(), parameterMappings, bindingNames, bindingTypes, cacheable);
+    }
+
+    boolean matches(Map<String, Object> bindings) {
+      for (int i = 0; i < bindingNames.length; i++) {
+        String name = bindingNames[i];
+        if (name == null) {
+          continue;
+        }
+        if (bindingType(bindings, name) != bindingTypes[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static Class<?> bindingType(Map<String, Object> bindings, String name) {
+      if (!bindings.containsKey(name)) {
+        return NO_BINDING;
+      }
+      Object value = bindings.get(name);
+      return value == null ? null : value.getClass();
+    }
+
+  }
+
 }
@@ -28,8 +28,34 @@ import org.apache.ibatis.builder.BuilderException;
  */
 public class ExpressionEvaluator {
 
+  private final OgnlCache ognlCache;
+
+  public ExpressionEvaluator() {
+    this(null);
+  }
+
+  /**
+   * @param ognlCache the cache of parsed expressions, {@code null} to use the shared one
+   * @since 3.5.3
+   */
+  public ExpressionEvaluator(OgnlCache ognlCache) {
+    this.ognlCache = ognlCache;
+  }
+
   public boolean evaluateBoolean(String expression, Object parameterObject) {
-    Object value = OgnlCache.getValue(expression, parameterObject);
+    return booleanValue(getValue(expression, parameterObject));
+  }
+
+  boolean evaluateBoolean(CompiledExpression expression, Object parameterObject) {
+    return booleanValue(expression.getValue(parameterObject));
+  }
+
+  private Object getValue(String expression, Object parameterObject) {
+    return ognlCache == null ? OgnlCache.getValue(expression, parameterObject)
+        : ognlCache.evaluate(expression, parameterObject);
+  }
+
+  private boolean booleanValue(Object value) {
     if (value instanceof Boolean) {
       return (Boolean) value;
     }
@@ -40,7 +66,7 @@ public class ExpressionEvaluator {
   }
 
   public Iterable<?> evaluateIterable(String expression, Object parameterObject) {
-    Object value = OgnlCache.getValue(expression, parameterObject);
+    Object value = getValue(expression, parameterObject);
     if (value == null) {
       throw new BuilderException("The expression '" + expression + "' evaluated to a null value.");
     }
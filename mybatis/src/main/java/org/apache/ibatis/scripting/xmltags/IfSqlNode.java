@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import org.apache.ibatis.session.Configuration;
+
 /**
  * @author Clinton Begin
  */
@@ -22,16 +24,31 @@ public class IfSqlNode implements SqlNode {
   private final ExpressionEvaluator evaluator;
   private final String test;
   private final SqlNode contents;
+  private final CompiledExpression compiledTest;
 
   public IfSqlNode(SqlNode contents, String test) {
     this.test = test;
     this.contents = contents;
     this.evaluator = new ExpressionEvaluator();
+    this.compiledTest = null;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public IfSqlNode(Configuration configuration, SqlNode contents, String test) {
+    this.test = test;
+    this.contents = contents;
+    this.evaluator = new ExpressionEvaluator(configuration.getOgnlCache());
+    this.compiledTest = configuration.isCompiledExpressionsEnabled()
+        ? CompiledExpression.compile(test, configuration.getReflectorFactory(), configuration.getOgnlCache()) : null;
   }
 
   @Override
   public boolean apply(DynamicContext context) {
-    if (evaluator.evaluateBoolean(test, context.getBindings())) {
+    boolean result = compiledTest == null ? evaluator.evaluateBoolean(test, context.getBindings())
+        : evaluator.evaluateBoolean(compiledTest, context.getBindings());
+    if (result) {
       contents.apply(context);
       return true;
     }
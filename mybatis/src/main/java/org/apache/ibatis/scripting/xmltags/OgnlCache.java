@@ -16,15 +16,19 @@
 package org.apache.ibatis.scripting.xmltags;
 
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import ognl.Ognl;
 import ognl.OgnlException;
 
 import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.cache.impl.ConcurrentCache;
 
 /**
  * Caches OGNL parsed expressions.
+ * <p>
+ * Each {@code Configuration} owns a cache bounded to {@code ognlCacheSize} expressions, the least recently used ones
+ * are evicted when it is full. The static methods use a cache of the default size shared by all callers that have no
+ * configuration at hand.
  *
  * @author Eduardo Macarron
  *
@@ -32,15 +36,36 @@ import org.apache.ibatis.builder.BuilderException;
  */
 public final class OgnlCache {
 
+  /**
+   * @since 3.5.3
+   */
+  public static final int DEFAULT_SIZE = 1024;
+
   private static final OgnlMemberAccess MEMBER_ACCESS = new OgnlMemberAccess();
   private static final OgnlClassResolver CLASS_RESOLVER = new OgnlClassResolver();
-  private static final Map<String, Object> expressionCache = new ConcurrentHashMap<>();
+  private static final OgnlCache SHARED_CACHE = new OgnlCache(DEFAULT_SIZE);
+
+  private final ConcurrentCache expressionCache = new ConcurrentCache("OgnlCache");
+  private volatile int maxSize;
 
-  private OgnlCache() {
-    // Prevent Instantiation of Static Class
+  /**
+   * @param size the maximum number of parsed expressions
+   * @since 3.5.3
+   */
+  public OgnlCache(int size) {
+    setMaxSize(size);
   }
 
   public static Object getValue(String expression, Object root) {
+    return SHARED_CACHE.evaluate(expression, root);
+  }
+
+  /**
+   * Evaluates an expression parsed at most once while it stays in this cache.
+   *
+   * @since 3.5.3
+   */
+  public Object evaluate(String expression, Object root) {
     try {
       Map context = Ognl.createDefaultContext(root, MEMBER_ACCESS, CLASS_RESOLVER, null);
       return Ognl.getValue(parseExpression(expression), context, root);
@@ -49,13 +74,59 @@ public final class OgnlCache {
     }
   }
 
-  private static Object parseExpression(String expression) throws OgnlException {
-    Object node = expressionCache.get(expression);
+  private Object parseExpression(String expression) throws OgnlException {
+    Object node = expressionCache.getObject(expression);
     if (node == null) {
+      // two threads may parse the same expression, both get an equivalent tree
       node = Ognl.parseExpression(expression);
-      expressionCache.put(expression, node);
+      expressionCache.putObject(expression, node);
     }
     return node;
   }
 
+  /**
+   * @since 3.5.3
+   */
+  public int getSize() {
+    return expressionCache.getSize();
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * Sets the maximum number of parsed expressions, the least recently used ones are evicted beyond it.
+   *
+   * @since 3.5.3
+   */
+  public void setMaxSize(int size) {
+    expressionCache.setSize(size);
+    this.maxSize = size;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public long getHitCount() {
+    return expressionCache.getHitCount();
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public long getMissCount() {
+    return expressionCache.getMissCount();
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public void clear() {
+    expressionCache.clear();
+  }
+
 }
@@ -0,0 +1,43 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A cursor of an {@link AsyncSqlSession}. Items are only read from the database when the caller asks for them, so the
+ * caller controls how fast the results are produced.
+ *
+ * @since 3.5.3
+ */
+public interface AsyncCursor<T> {
+
+  /**
+   * Fetches the next items.
+   * @param maxItems the maximum number of items to fetch
+   * @return the next items, fewer than {@code maxItems} only when the cursor is consumed, empty once it is consumed
+   */
+  CompletableFuture<List<T>> fetch(int maxItems);
+
+  /**
+   * @return true if the cursor is fully consumed and has returned all elements matching the query.
+   */
+  boolean isConsumed();
+
+  CompletableFuture<Void> close();
+
+}
@@ -0,0 +1,89 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import org.apache.ibatis.executor.BatchResult;
+
+/**
+ * A session whose operations run on a thread pool and complete a {@link CompletableFuture}, so the calling thread never
+ * waits for JDBC.
+ * <p>
+ * The operations run one after the other, in the order they were called, on the underlying {@link SqlSession}; an
+ * operation runs even when a previous one failed. The pool is {@link Configuration#getAsyncExecutorService()}.
+ *
+ * @since 3.5.3
+ */
+public interface AsyncSqlSession {
+
+  <T> CompletableFuture<T> selectOne(String statement);
+
+  <T> CompletableFuture<T> selectOne(String statement, Object parameter);
+
+  <E> CompletableFuture<List<E>> selectList(String statement);
+
+  <E> CompletableFuture<List<E>> selectList(String statement, Object parameter);
+
+  <E> CompletableFuture<List<E>> selectList(String statement, Object parameter, RowBounds rowBounds);
+
+  <K, V> CompletableFuture<Map<K, V>> selectMap(String statement, Object parameter, String mapKey);
+
+  /**
+   * Returns a cursor whose items are fetched on the pool in chunks requested by the caller. The statement is executed
+   * with the first fetch.
+   * @param <E> the returned cursor element type.
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @return AsyncCursor of mapped objects
+   */
+  <E> AsyncCursor<E> selectCursor(String statement, Object parameter);
+
+  <E> AsyncCursor<E> selectCursor(String statement, Object parameter, RowBounds rowBounds);
+
+  CompletableFuture<Integer> insert(String statement, Object parameter);
+
+  CompletableFuture<Integer> update(String statement, Object parameter);
+
+  CompletableFuture<Integer> delete(String statement, Object parameter);
+
+  CompletableFuture<Void> commit();
+
+  CompletableFuture<Void> rollback();
+
+  CompletableFuture<List<BatchResult>> flushStatements();
+
+  /**
+   * Runs work, for example calls to mappers, on the underlying session. The session must not be used outside of the
+   * function.
+   * @param <T> the result type
+   * @param work the work to run on the pool
+   * @return the result of the work
+   */
+  <T> CompletableFuture<T> execute(Function<SqlSession, T> work);
+
+  /**
+   * Closes the underlying session once the operations called before have completed. Operations called afterwards fail.
+   * @return completed when the session is closed
+   */
+  CompletableFuture<Void> close();
+
+  Configuration getConfiguration();
+
+}
@@ -0,0 +1,76 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+/**
+ * The options of a {@link SqlSession#bulkLoad(String, java.util.Iterator, BulkLoadOptions) bulk load}.
+ *
+ * @since 3.5.3
+ */
+public class BulkLoadOptions {
+
+  public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+  private int chunkSize = DEFAULT_CHUNK_SIZE;
+  private int commitInterval;
+  private boolean continueOnFailure;
+
+  /**
+   * Sets the number of rows executed before the pending batch statements are flushed. At most this many parameter
+   * objects are held by the session at any time.
+   */
+  public BulkLoadOptions chunkSize(int chunkSize) {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("The chunk size must be at least 1 but was " + chunkSize);
+    }
+    this.chunkSize = chunkSize;
+    return this;
+  }
+
+  /**
+   * Sets the number of chunks after which the session is committed. A failed chunk rolls back all chunks since the last
+   * commit. With 0, the default, the bulk load never commits and leaves the transaction to the caller.
+   */
+  public BulkLoadOptions commitInterval(int commitInterval) {
+    if (commitInterval < 0) {
+      throw new IllegalArgumentException("The commit interval must not be negative but was " + commitInterval);
+    }
+    this.commitInterval = commitInterval;
+    return this;
+  }
+
+  /**
+   * Sets whether the bulk load goes on with the next chunk when a chunk fails. By default it stops at the first failure.
+   * Only applies with a commit interval, as without one a failure is thrown.
+   */
+  public BulkLoadOptions continueOnFailure(boolean continueOnFailure) {
+    this.continueOnFailure = continueOnFailure;
+    return this;
+  }
+
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  public int getCommitInterval() {
+    return commitInterval;
+  }
+
+  public boolean isContinueOnFailure() {
+    return continueOnFailure;
+  }
+
+}
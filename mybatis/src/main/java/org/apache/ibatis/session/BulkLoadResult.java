@@ -0,0 +1,135 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a {@link SqlSession#bulkLoad(String, java.util.Iterator, BulkLoadOptions) bulk load}.
+ * <p>
+ * Unlike the {@link org.apache.ibatis.executor.BatchResult}s of a flush, it holds no parameter objects, only counts
+ * and the failures.
+ *
+ * @since 3.5.3
+ */
+public class BulkLoadResult {
+
+  private final List<Failure> failures = new ArrayList<>();
+  private long rowCount;
+  private long updateCount;
+  private long uncountedRowCount;
+  private long failedRowCount;
+  private int chunkCount;
+
+  /**
+   * Returns the number of parameter objects read, including those of failed chunks.
+   */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Returns the number of rows the driver reported as updated by the chunks that did not fail. Statements for which the
+   * driver reports no count ({@link java.sql.Statement#SUCCESS_NO_INFO}) are not included, see
+   * {@link #getUncountedRowCount()}.
+   */
+  public long getUpdateCount() {
+    return updateCount;
+  }
+
+  /**
+   * Returns the number of parameter objects of the chunks that did not fail whose statement succeeded without the
+   * driver reporting how many rows it updated ({@link java.sql.Statement#SUCCESS_NO_INFO}). When it is not zero,
+   * {@link #getUpdateCount()} is a lower bound.
+   */
+  public long getUncountedRowCount() {
+    return uncountedRowCount;
+  }
+
+  /**
+   * Returns the number of parameter objects whose updates were rolled back because of a failure.
+   */
+  public long getFailedRowCount() {
+    return failedRowCount;
+  }
+
+  /**
+   * Returns the number of chunks executed, including failed ones.
+   */
+  public int getChunkCount() {
+    return chunkCount;
+  }
+
+  public List<Failure> getFailures() {
+    return Collections.unmodifiableList(failures);
+  }
+
+  public boolean isSuccessful() {
+    return failures.isEmpty();
+  }
+
+  void addChunk(long rowCount, long updateCount, long uncountedRowCount) {
+    this.chunkCount++;
+    this.rowCount += rowCount;
+    this.updateCount += updateCount;
+    this.uncountedRowCount += uncountedRowCount;
+  }
+
+  void addFailure(Failure failure, long rolledBackUpdateCount, long rolledBackUncountedRowCount) {
+    this.failures.add(failure);
+    this.failedRowCount += failure.getRowCount();
+    this.updateCount -= rolledBackUpdateCount;
+    this.uncountedRowCount -= rolledBackUncountedRowCount;
+  }
+
+  /**
+   * A failed chunk and the chunks rolled back with it.
+   */
+  public static class Failure {
+
+    private final long firstRow;
+    private final long rowCount;
+    private final RuntimeException cause;
+
+    Failure(long firstRow, long rowCount, RuntimeException cause) {
+      this.firstRow = firstRow;
+      this.rowCount = rowCount;
+      this.cause = cause;
+    }
+
+    /**
+     * Returns the zero-based position of the first rolled back parameter object.
+     */
+    public long getFirstRow() {
+      return firstRow;
+    }
+
+    /**
+     * Returns the number of rolled back parameter objects, starting at {@link #getFirstRow()}.
+     */
+    public long getRowCount() {
+      return rowCount;
+    }
+
+    public RuntimeException getCause() {
+      return cause;
+    }
+
+  }
+
+}
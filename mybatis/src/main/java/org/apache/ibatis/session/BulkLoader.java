@@ -0,0 +1,122 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.ibatis.exceptions.ExceptionFactory;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.ErrorContext;
+
+/**
+ * Runs a {@link SqlSession#bulkLoad(String, Iterator, BulkLoadOptions) bulk load} through the public methods of a
+ * session, so that every {@link SqlSession} implementation gets it.
+ *
+ * @since 3.5.3
+ */
+final class BulkLoader {
+
+  private BulkLoader() {
+    // Prevent Instantiation
+  }
+
+  static BulkLoadResult load(SqlSession sqlSession, String statement, Iterator<?> parameters, BulkLoadOptions options) {
+    try {
+      sqlSession.getConfiguration().getMappedStatement(statement);
+    } catch (Exception e) {
+      throw ExceptionFactory.wrapException("Error bulk loading.  Cause: " + e, e);
+    } finally {
+      ErrorContext.instance().reset();
+    }
+    // without a commit interval the transaction belongs to the caller
+    boolean ownsTransaction = options.getCommitInterval() > 0;
+    BulkLoadResult result = new BulkLoadResult();
+    List<Object> chunk = new ArrayList<>();
+    long row = 0;
+    long uncommittedFirstRow = 0;
+    UpdateCounts uncommitted = new UpdateCounts();
+    int uncommittedChunkCount = 0;
+    while (parameters.hasNext()) {
+      while (chunk.size() < options.getChunkSize() && parameters.hasNext()) {
+        chunk.add(parameters.next());
+      }
+      UpdateCounts counts = new UpdateCounts();
+      try {
+        for (Object parameter : chunk) {
+          counts.add(sqlSession.update(statement, parameter));
+        }
+        for (BatchResult batchResult : sqlSession.flushStatements()) {
+          for (int updateCount : batchResult.getUpdateCounts()) {
+            counts.add(updateCount);
+          }
+        }
+        result.addChunk(chunk.size(), counts.updateCount, counts.uncountedRowCount);
+        uncommitted.updateCount += counts.updateCount;
+        uncommitted.uncountedRowCount += counts.uncountedRowCount;
+      } catch (RuntimeException e) {
+        RuntimeException cause = ExceptionFactory.wrapException("Error bulk loading rows " + (row + 1) + " to "
+            + (row + chunk.size()) + ".  Cause: " + e, e);
+        ErrorContext.instance().reset();
+        if (!ownsTransaction) {
+          throw cause;
+        }
+        result.addChunk(chunk.size(), 0, 0);
+        // a failed chunk takes the chunks since the last commit with it
+        sqlSession.rollback();
+        long failedRowCount = row + chunk.size() - uncommittedFirstRow;
+        result.addFailure(new BulkLoadResult.Failure(uncommittedFirstRow, failedRowCount, cause),
+            uncommitted.updateCount, uncommitted.uncountedRowCount);
+        uncommittedFirstRow = row + chunk.size();
+        uncommitted = new UpdateCounts();
+        uncommittedChunkCount = 0;
+        if (!options.isContinueOnFailure()) {
+          return result;
+        }
+      }
+      row += chunk.size();
+      chunk.clear();
+      if (ownsTransaction && ++uncommittedChunkCount >= options.getCommitInterval()) {
+        sqlSession.commit();
+        uncommittedFirstRow = row;
+        uncommitted = new UpdateCounts();
+        uncommittedChunkCount = 0;
+      }
+    }
+    if (ownsTransaction && uncommittedChunkCount > 0) {
+      sqlSession.commit();
+    }
+    return result;
+  }
+
+  private static final class UpdateCounts {
+
+    private long updateCount;
+    private long uncountedRowCount;
+
+    void add(int updateCount) {
+      if (updateCount == Statement.SUCCESS_NO_INFO) {
+        uncountedRowCount++;
+      } else if (updateCount > 0) {
+        // batched updates return a negative placeholder, their counts come with the flush
+        this.updateCount += updateCount;
+      }
+    }
+  }
+
+}
@@ -25,6 +25,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 
 import org.apache.ibatis.binding.MapperRegistry;
@@ -38,11 +42,13 @@ import org.apache.ibatis.cache.decorators.FifoCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.SoftCache;
 import org.apache.ibatis.cache.decorators.WeakCache;
+import org.apache.ibatis.cache.impl.ConcurrentCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.datasource.jndi.JndiDataSourceFactory;
 import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
 import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.BatchFlushListener;
 import org.apache.ibatis.executor.CachingExecutor;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ReuseExecutor;
@@ -52,6 +58,7 @@ import org.apache.ibatis.executor.loader.ProxyFactory;
 import org.apache.ibatis.executor.loader.cglib.CglibProxyFactory;
 import org.apache.ibatis.executor.loader.javassist.JavassistProxyFactory;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.resultset.CompiledRowMapper;
 import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
 import org.apache.ibatis.executor.statement.RoutingStatementHandler;
@@ -86,6 +93,7 @@ import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
 import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.scripting.LanguageDriverRegistry;
 import org.apache.ibatis.scripting.defaults.RawLanguageDriver;
+import org.apache.ibatis.scripting.xmltags.OgnlCache;
 import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
 import org.apache.ibatis.transaction.Transaction;
 import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
@@ -113,6 +121,10 @@ public class Configuration {
   protected boolean callSettersOnNulls;
   protected boolean useActualParamName = true;
   protected boolean returnInstanceForEmptyRow;
+  protected boolean compiledRowMappingEnabled;
+  protected int dynamicSqlCacheSize = 32;
+  protected boolean compiledExpressionsEnabled;
+  protected final OgnlCache ognlCache = new OgnlCache(OgnlCache.DEFAULT_SIZE);
 
   protected String logPrefix;
   protected Class<? extends Log> logImpl;
@@ -122,6 +134,17 @@ public class Configuration {
   protected Set<String> lazyLoadTriggerMethods = new HashSet<>(Arrays.asList("equals", "clone", "hashCode", "toString"));
   protected Integer defaultStatementTimeout;
   protected Integer defaultFetchSize;
+  protected Integer defaultBatchSize;
+  protected Integer batchMaxPendingRows;
+  protected BatchFlushListener batchFlushListener;
+  protected boolean batchReorderingEnabled;
+  protected Integer batchFlushParallelism;
+  protected ExecutorService batchFlushExecutorService;
+  protected Integer cursorPrefetchSize;
+  protected Integer asyncPoolSize;
+  protected ExecutorService asyncExecutorService;
+  protected Integer nestedSelectParallelism;
+  protected ExecutorService nestedSelectExecutorService;
   protected ResultSetType defaultResultSetType;
   protected ExecutorType defaultExecutorType = ExecutorType.SIMPLE;
   protected AutoMappingBehavior autoMappingBehavior = AutoMappingBehavior.PARTIAL;
@@ -173,6 +196,11 @@ public class Configuration {
    */
   protected final Map<String, String> cacheRefMap = new HashMap<>();
 
+  /*
+   * Row mappers compiled for simple result maps. The key is the result map id and the column signature of the result set.
+   */
+  protected final Map<String, CompiledRowMapper> compiledRowMappers = new ConcurrentHashMap<>();
+
   public Configuration(Environment environment) {
     this();
     this.environment = environment;
@@ -189,6 +217,7 @@ public class Configuration {
     typeAliasRegistry.registerAlias("PERPETUAL", PerpetualCache.class);
     typeAliasRegistry.registerAlias("FIFO", FifoCache.class);
     typeAliasRegistry.registerAlias("LRU", LruCache.class);
+    typeAliasRegistry.registerAlias("CONCURRENT", ConcurrentCache.class);
     typeAliasRegistry.registerAlias("SOFT", SoftCache.class);
     typeAliasRegistry.registerAlias("WEAK", WeakCache.class);
 
@@ -266,6 +295,77 @@ public class Configuration {
     this.returnInstanceForEmptyRow = returnEmptyInstance;
   }
 
+  /**
+   * @since 3.5.3
+   */
+  public boolean isCompiledRowMappingEnabled() {
+    return compiledRowMappingEnabled;
+  }
+
+  /**
+   * Sets whether rows of simple result maps are mapped by compiled row mappers instead of through {@code MetaObject}.
+   *
+   * @param compiledRowMappingEnabled true to compile a row mapper per result map and column layout
+   * @since 3.5.3
+   */
+  public void setCompiledRowMappingEnabled(boolean compiledRowMappingEnabled) {
+    this.compiledRowMappingEnabled = compiledRowMappingEnabled;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public int getDynamicSqlCacheSize() {
+    return dynamicSqlCacheSize;
+  }
+
+  /**
+   * Sets how many distinct generated SQL texts each dynamic statement keeps parsed, so that only its SQL nodes have to
+   * be evaluated when the same SQL is generated again.
+   *
+   * @param dynamicSqlCacheSize the maximum number of parsed SQL texts per statement, 0 disables the cache
+   * @since 3.5.3
+   */
+  public void setDynamicSqlCacheSize(int dynamicSqlCacheSize) {
+    this.dynamicSqlCacheSize = dynamicSqlCacheSize;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public boolean isCompiledExpressionsEnabled() {
+    return compiledExpressionsEnabled;
+  }
+
+  /**
+   * Sets whether the test expressions of {@code <if>} and {@code <when>} that use only the common OGNL subset are
+   * compiled into direct evaluations. Other expressions are always evaluated by OGNL.
+   *
+   * @param compiledExpressionsEnabled true to compile the test expressions
+   * @since 3.5.3
+   */
+  public void setCompiledExpressionsEnabled(boolean compiledExpressionsEnabled) {
+    this.compiledExpressionsEnabled = compiledExpressionsEnabled;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public OgnlCache getOgnlCache() {
+    return ognlCache;
+  }
+
+  /**
+   * Sets how many parsed OGNL expressions this configuration keeps, the least recently used ones are evicted beyond
+   * it.
+   *
+   * @param ognlCacheSize the maximum number of parsed expressions
+   * @since 3.5.3
+   */
+  public void setOgnlCacheSize(int ognlCacheSize) {
+    ognlCache.setMaxSize(ognlCacheSize);
+  }
+
   public String getDatabaseId() {
     return databaseId;
   }
@@ -433,6 +533,264 @@ public class Configuration {
     this.defaultFetchSize = defaultFetchSize;
   }
 
+  /**
+   * @since 3.5.3
+   */
+  public Integer getDefaultBatchSize() {
+    return defaultBatchSize;
+  }
+
+  /**
+   * Sets the number of rows the batch executor collects for a statement before it flushes on its own. A statement can
+   * override it with its own batch size. The results of such flushes are passed to the {@link BatchFlushListener} when
+   * one is set. Otherwise only their update counts are kept for the next flush, the parameter objects are released.
+   *
+   * @param defaultBatchSize the batch size or {@code null} to flush only when asked to
+   * @since 3.5.3
+   */
+  public void setDefaultBatchSize(Integer defaultBatchSize) {
+    this.defaultBatchSize = defaultBatchSize;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public Integer getBatchMaxPendingRows() {
+    return batchMaxPendingRows;
+  }
+
+  /**
+   * Sets the number of rows, over all statements, the batch executor collects before it flushes on its own. The
+   * results of such flushes are passed to the {@link BatchFlushListener} when one is set. Otherwise only their update
+   * counts are kept for the next flush, the parameter objects are released.
+   *
+   * @param batchMaxPendingRows the maximum number of pending rows or {@code null} for no limit
+   * @since 3.5.3
+   */
+  public void setBatchMaxPendingRows(Integer batchMaxPendingRows) {
+    this.batchMaxPendingRows = batchMaxPendingRows;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public BatchFlushListener getBatchFlushListener() {
+    return batchFlushListener;
+  }
+
+  /**
+   * Sets the listener that receives the results of the statements batch executors flushed on their own.
+   *
+   * @param batchFlushListener the listener or {@code null} to retain the results until statements are flushed
+   * @since 3.5.3
+   */
+  public void setBatchFlushListener(BatchFlushListener batchFlushListener) {
+    this.batchFlushListener = batchFlushListener;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public boolean isBatchReorderingEnabled() {
+    return batchReorderingEnabled;
+  }
+
+  /**
+   * Sets whether the batch executor adds an update to the batch already started for the same statement and SQL
+   * instead of starting a new batch when other updates came in between. Batches are then executed in the order their
+   * first update was added.
+   *
+   * @param batchReorderingEnabled true to group interleaved updates by statement and SQL
+   * @since 3.5.3
+   */
+  public void setBatchReorderingEnabled(boolean batchReorderingEnabled) {
+    this.batchReorderingEnabled = batchReorderingEnabled;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public Integer getBatchFlushParallelism() {
+    return batchFlushParallelism;
+  }
+
+  /**
+   * Sets the number of batches the batch executor flushes at the same time. Only the batches of statements marked with
+   * {@link MappedStatement#isFlushInParallel()} are flushed in parallel. They run on connections borrowed from the data
+   * source and are committed on their own, outside of the session's transaction.
+   *
+   * @param batchFlushParallelism the number of concurrent flushes or {@code null} (or less than 2) to flush on the
+   *          session's connection
+   * @since 3.5.3
+   */
+  public void setBatchFlushParallelism(Integer batchFlushParallelism) {
+    this.batchFlushParallelism = batchFlushParallelism;
+  }
+
+  /**
+   * Returns the executor service shared by all batch executors to flush batches in parallel, a pool of
+   * {@link #getBatchFlushParallelism()} threads unless another executor service was set.
+   *
+   * @return the executor service
+   * @since 3.5.3
+   */
+  public synchronized ExecutorService getBatchFlushExecutorService() {
+    if (batchFlushExecutorService == null) {
+      int poolSize = batchFlushParallelism == null ? 1 : Math.max(1, batchFlushParallelism);
+      AtomicInteger threadCount = new AtomicInteger();
+      batchFlushExecutorService = Executors.newFixedThreadPool(poolSize, runnable -> {
+        Thread thread = new Thread(runnable, "mybatis-batch-flush-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return batchFlushExecutorService;
+  }
+
+  /**
+   * Sets the executor service flushing the batches of all batch executors in parallel. It is not shut down by MyBatis.
+   *
+   * @param batchFlushExecutorService the executor service
+   * @since 3.5.3
+   */
+  public synchronized void setBatchFlushExecutorService(ExecutorService batchFlushExecutorService) {
+    this.batchFlushExecutorService = batchFlushExecutorService;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public Integer getCursorPrefetchSize() {
+    return cursorPrefetchSize;
+  }
+
+  /**
+   * Sets the number of mapped objects a cursor fetches ahead on a background thread while they are consumed. Result maps
+   * with nested selects are always fetched on the caller's thread.
+   *
+   * @param cursorPrefetchSize the number of objects fetched ahead or {@code null} to fetch on the caller's thread
+   * @since 3.5.3
+   */
+  public void setCursorPrefetchSize(Integer cursorPrefetchSize) {
+    this.cursorPrefetchSize = cursorPrefetchSize;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public Integer getAsyncPoolSize() {
+    return asyncPoolSize;
+  }
+
+  /**
+   * Sets the number of threads of the pool created for {@link AsyncSqlSession}s when no executor service is set.
+   *
+   * @param asyncPoolSize the number of threads or {@code null} for the default of 10
+   * @since 3.5.3
+   */
+  public void setAsyncPoolSize(Integer asyncPoolSize) {
+    this.asyncPoolSize = asyncPoolSize;
+  }
+
+  /**
+   * Returns the executor service running the operations of {@link AsyncSqlSession}s, creating a fixed pool of daemon
+   * threads sized by {@link #getAsyncPoolSize()} when none is set.
+   *
+   * @since 3.5.3
+   */
+  public synchronized ExecutorService getAsyncExecutorService() {
+    if (asyncExecutorService == null) {
+      int poolSize = asyncPoolSize == null ? 10 : asyncPoolSize;
+      AtomicInteger threadCount = new AtomicInteger();
+      asyncExecutorService = Executors.newFixedThreadPool(poolSize, runnable -> {
+        Thread thread = new Thread(runnable, "mybatis-async-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return asyncExecutorService;
+  }
+
+  /**
+   * Sets the executor service running the operations of {@link AsyncSqlSession}s. It is not shut down by MyBatis.
+   *
+   * @param asyncExecutorService the executor service
+   * @since 3.5.3
+   */
+  public synchronized void setAsyncExecutorService(ExecutorService asyncExecutorService) {
+    this.asyncExecutorService = asyncExecutorService;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public Integer getNestedSelectParallelism() {
+    return nestedSelectParallelism;
+  }
+
+  /**
+   * Sets the number of eager nested selects without a batch select that run concurrently once all rows of a statement
+   * are mapped. Each of them runs once per distinct parameter, on a connection of its own, so they do not see the
+   * uncommitted changes of the session; they are therefore run one by one on the session's connection while the session
+   * has uncommitted changes.
+   *
+   * @param nestedSelectParallelism the number of concurrent nested selects or {@code null} (or less than 2) to run them
+   *          one by one while the rows are mapped
+   * @since 3.5.3
+   */
+  public void setNestedSelectParallelism(Integer nestedSelectParallelism) {
+    this.nestedSelectParallelism = nestedSelectParallelism;
+  }
+
+  /**
+   * Returns the executor service shared by all statements to run their nested selects concurrently, a pool of
+   * {@link #getNestedSelectParallelism()} threads unless another executor service was set.
+   *
+   * @return the executor service
+   * @since 3.5.3
+   */
+  public synchronized ExecutorService getNestedSelectExecutorService() {
+    if (nestedSelectExecutorService == null) {
+      int poolSize = nestedSelectParallelism == null ? 1 : Math.max(1, nestedSelectParallelism);
+      AtomicInteger threadCount = new AtomicInteger();
+      nestedSelectExecutorService = Executors.newFixedThreadPool(poolSize, runnable -> {
+        Thread thread = new Thread(runnable, "mybatis-nested-select-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return nestedSelectExecutorService;
+  }
+
+  /**
+   * Sets the executor service running the concurrent nested selects of all statements. It is not shut down by MyBatis.
+   *
+   * @param nestedSelectExecutorService the executor service
+   * @since 3.5.3
+   */
+  public synchronized void setNestedSelectExecutorService(ExecutorService nestedSelectExecutorService) {
+    this.nestedSelectExecutorService = nestedSelectExecutorService;
+  }
+
+  /**
+   * @since 3.5.3
+   */
+  public boolean isCompiledInterceptorChainEnabled() {
+    return interceptorChain.isCompiled();
+  }
+
+  /**
+   * Sets whether the interceptors are applied to executors and statement, parameter and result set handlers through a
+   * single proxy that resolves once per type of target which interceptors are interested in each method. Interceptors
+   * that override {@link Interceptor#plugin(Object)} are still applied by their own {@code plugin} method.
+   *
+   * @param compiledInterceptorChainEnabled true to apply the interceptors through a single proxy
+   * @since 3.5.3
+   */
+  public void setCompiledInterceptorChainEnabled(boolean compiledInterceptorChainEnabled) {
+    interceptorChain.setCompiled(compiledInterceptorChainEnabled);
+  }
+
   /**
    * @since 3.5.2
    */
@@ -744,6 +1102,13 @@ public class Configuration {
     return incompleteMethods;
   }
 
+  /**
+   * @since 3.5.3
+   */
+  public Map<String, CompiledRowMapper> getCompiledRowMappers() {
+    return compiledRowMappers;
+  }
+
   public MappedStatement getMappedStatement(String id) {
     return this.getMappedStatement(id, true);
   }
@@ -17,6 +17,7 @@ package org.apache.ibatis.session;
 
 import java.io.Closeable;
 import java.sql.Connection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -216,6 +217,36 @@ public interface SqlSession extends Closeable {
    */
   int delete(String statement, Object parameter);
 
+  /**
+   * Execute an insert, update or delete statement once for each of the parameter objects, in chunks.
+   * Equivalent to {@code bulkLoad(statement, parameters, new BulkLoadOptions())}.
+   * @param statement Unique identifier matching the statement to execute.
+   * @param parameters The parameter objects, each passed to the statement.
+   * @return BulkLoadResult the counts and failures of the load
+   * @since 3.5.3
+   */
+  default BulkLoadResult bulkLoad(String statement, Iterator<?> parameters) {
+    return bulkLoad(statement, parameters, new BulkLoadOptions());
+  }
+
+  /**
+   * Execute an insert, update or delete statement once for each of the parameter objects, in chunks.
+   * The parameter objects are read one chunk at a time; after each chunk the batch statements are flushed and,
+   * depending on the options, the session is committed. When a chunk fails and a commit interval is set, the session is
+   * rolled back and the failure is reported in the result rather than thrown. Without a commit interval the failure is
+   * thrown and the transaction is left to the caller. Best used with a {@link ExecutorType#BATCH} session.
+   * The default implementation only calls {@link #update(String, Object)}, {@link #flushStatements()},
+   * {@link #commit()} and {@link #rollback()}.
+   * @param statement Unique identifier matching the statement to execute.
+   * @param parameters The parameter objects, each passed to the statement.
+   * @param options The chunk size, commit interval and failure handling.
+   * @return BulkLoadResult the counts and failures of the load
+   * @since 3.5.3
+   */
+  default BulkLoadResult bulkLoad(String statement, Iterator<?> parameters, BulkLoadOptions options) {
+    return BulkLoader.load(this, statement, parameters, options);
+  }
+
   /**
    * Flushes batch statements and commits database connection.
    * Note that database connection will not be committed if no updates/deletes/inserts were called.
@@ -17,6 +17,8 @@ package org.apache.ibatis.session;
 
 import java.sql.Connection;
 
+import org.apache.ibatis.session.defaults.DefaultAsyncSqlSession;
+
 /**
  * Creates an {@link SqlSession} out of a connection or a DataSource
  *
@@ -40,6 +42,26 @@ public interface SqlSessionFactory {
 
   SqlSession openSession(ExecutorType execType, Connection connection);
 
+  /**
+   * Opens a session whose operations run on {@link Configuration#getAsyncExecutorService()}.
+   * @return a new async session
+   * @since 3.5.3
+   */
+  default AsyncSqlSession openAsyncSession() {
+    return openAsyncSession(getConfiguration().getDefaultExecutorType());
+  }
+
+  /**
+   * Opens a session of the given executor type whose operations run on {@link Configuration#getAsyncExecutorService()}.
+   * The default implementation wraps {@link #openSession(ExecutorType)}.
+   * @param execType the executor type
+   * @return a new async session
+   * @since 3.5.3
+   */
+  default AsyncSqlSession openAsyncSession(ExecutorType execType) {
+    return new DefaultAsyncSqlSession(openSession(execType), getConfiguration().getAsyncExecutorService());
+  }
+
   Configuration getConfiguration();
 
 }
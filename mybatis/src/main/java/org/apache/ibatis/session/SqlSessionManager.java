@@ -21,6 +21,7 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -151,6 +152,16 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
     return sqlSessionFactory.openSession(execType, connection);
   }
 
+  @Override
+  public AsyncSqlSession openAsyncSession() {
+    return sqlSessionFactory.openAsyncSession();
+  }
+
+  @Override
+  public AsyncSqlSession openAsyncSession(ExecutorType execType) {
+    return sqlSessionFactory.openAsyncSession(execType);
+  }
+
   @Override
   public Configuration getConfiguration() {
     return sqlSessionFactory.getConfiguration();
@@ -256,6 +267,16 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
     return sqlSessionProxy.delete(statement, parameter);
   }
 
+  @Override
+  public BulkLoadResult bulkLoad(String statement, Iterator<?> parameters) {
+    return sqlSessionProxy.bulkLoad(statement, parameters);
+  }
+
+  @Override
+  public BulkLoadResult bulkLoad(String statement, Iterator<?> parameters, BulkLoadOptions options) {
+    return sqlSessionProxy.bulkLoad(statement, parameters, options);
+  }
+
   @Override
   public <T> T getMapper(Class<T> type) {
     return getConfiguration().getMapper(type, this);
@@ -0,0 +1,91 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session.defaults;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.exceptions.ExceptionFactory;
+import org.apache.ibatis.session.AsyncCursor;
+import org.apache.ibatis.session.SqlSession;
+
+/**
+ * The default implementation for {@link AsyncCursor}, reading a {@link Cursor} of the session on its pool.
+ *
+ * @since 3.5.3
+ */
+class DefaultAsyncCursor<T> implements AsyncCursor<T> {
+
+  private final DefaultAsyncSqlSession asyncSqlSession;
+  private final Function<SqlSession, Cursor<T>> opener;
+
+  // only used by the operations of the session, which run one after the other
+  private Cursor<T> cursor;
+  private Iterator<T> iterator;
+  private volatile boolean consumed;
+
+  DefaultAsyncCursor(DefaultAsyncSqlSession asyncSqlSession, Function<SqlSession, Cursor<T>> opener) {
+    this.asyncSqlSession = asyncSqlSession;
+    this.opener = opener;
+  }
+
+  @Override
+  public CompletableFuture<List<T>> fetch(int maxItems) {
+    return asyncSqlSession.submit(session -> {
+      if (consumed) {
+        return Collections.emptyList();
+      }
+      if (cursor == null) {
+        cursor = opener.apply(session);
+        iterator = cursor.iterator();
+      }
+      List<T> items = new ArrayList<>(Math.min(maxItems, 1024));
+      while (items.size() < maxItems && iterator.hasNext()) {
+        items.add(iterator.next());
+      }
+      if (items.size() < maxItems) {
+        consumed = true;
+      }
+      return items;
+    });
+  }
+
+  @Override
+  public boolean isConsumed() {
+    return consumed;
+  }
+
+  @Override
+  public CompletableFuture<Void> close() {
+    return asyncSqlSession.submit(session -> {
+      if (cursor != null) {
+        try {
+          cursor.close();
+        } catch (IOException e) {
+          throw ExceptionFactory.wrapException("Error closing cursor.  Cause: " + e, e);
+        }
+      }
+      return null;
+    });
+  }
+
+}
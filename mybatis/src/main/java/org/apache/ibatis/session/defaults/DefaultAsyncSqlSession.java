@@ -0,0 +1,165 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session.defaults;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.AsyncCursor;
+import org.apache.ibatis.session.AsyncSqlSession;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionException;
+
+/**
+ * The default implementation for {@link AsyncSqlSession}.
+ *
+ * @since 3.5.3
+ */
+public class DefaultAsyncSqlSession implements AsyncSqlSession {
+
+  private final SqlSession sqlSession;
+  private final Executor executor;
+
+  private CompletableFuture<?> lastOperation = CompletableFuture.completedFuture(null);
+  private boolean closed;
+
+  public DefaultAsyncSqlSession(SqlSession sqlSession, Executor executor) {
+    this.sqlSession = sqlSession;
+    this.executor = executor;
+  }
+
+  @Override
+  public <T> CompletableFuture<T> selectOne(String statement) {
+    return submit(session -> session.selectOne(statement));
+  }
+
+  @Override
+  public <T> CompletableFuture<T> selectOne(String statement, Object parameter) {
+    return submit(session -> session.selectOne(statement, parameter));
+  }
+
+  @Override
+  public <E> CompletableFuture<List<E>> selectList(String statement) {
+    return submit(session -> session.selectList(statement));
+  }
+
+  @Override
+  public <E> CompletableFuture<List<E>> selectList(String statement, Object parameter) {
+    return submit(session -> session.selectList(statement, parameter));
+  }
+
+  @Override
+  public <E> CompletableFuture<List<E>> selectList(String statement, Object parameter, RowBounds rowBounds) {
+    return submit(session -> session.selectList(statement, parameter, rowBounds));
+  }
+
+  @Override
+  public <K, V> CompletableFuture<Map<K, V>> selectMap(String statement, Object parameter, String mapKey) {
+    return submit(session -> session.selectMap(statement, parameter, mapKey));
+  }
+
+  @Override
+  public <E> AsyncCursor<E> selectCursor(String statement, Object parameter) {
+    return new DefaultAsyncCursor<>(this, session -> session.selectCursor(statement, parameter));
+  }
+
+  @Override
+  public <E> AsyncCursor<E> selectCursor(String statement, Object parameter, RowBounds rowBounds) {
+    return new DefaultAsyncCursor<>(this, session -> session.selectCursor(statement, parameter, rowBounds));
+  }
+
+  @Override
+  public CompletableFuture<Integer> insert(String statement, Object parameter) {
+    return submit(session -> session.insert(statement, parameter));
+  }
+
+  @Override
+  public CompletableFuture<Integer> update(String statement, Object parameter) {
+    return submit(session -> session.update(statement, parameter));
+  }
+
+  @Override
+  public CompletableFuture<Integer> delete(String statement, Object parameter) {
+    return submit(session -> session.delete(statement, parameter));
+  }
+
+  @Override
+  public CompletableFuture<Void> commit() {
+    return submit(session -> {
+      session.commit();
+      return null;
+    });
+  }
+
+  @Override
+  public CompletableFuture<Void> rollback() {
+    return submit(session -> {
+      session.rollback();
+      return null;
+    });
+  }
+
+  @Override
+  public CompletableFuture<List<BatchResult>> flushStatements() {
+    return submit(SqlSession::flushStatements);
+  }
+
+  @Override
+  public <T> CompletableFuture<T> execute(Function<SqlSession, T> work) {
+    return submit(work);
+  }
+
+  @Override
+  public synchronized CompletableFuture<Void> close() {
+    if (closed) {
+      return CompletableFuture.completedFuture(null);
+    }
+    CompletableFuture<Void> close = submit(session -> {
+      session.close();
+      return null;
+    });
+    closed = true;
+    return close;
+  }
+
+  @Override
+  public Configuration getConfiguration() {
+    return sqlSession.getConfiguration();
+  }
+
+  /**
+   * Runs an operation on the session after the previously submitted ones, whether they succeeded or not.
+   */
+  synchronized <T> CompletableFuture<T> submit(Function<SqlSession, T> operation) {
+    if (closed) {
+      CompletableFuture<T> failed = new CompletableFuture<>();
+      failed.completeExceptionally(new SqlSessionException("Error:  The async session is already closed."));
+      return failed;
+    }
+    CompletableFuture<T> result = lastOperation
+        .handle((value, failure) -> null)
+        .thenApplyAsync(ignored -> operation.apply(sqlSession), executor);
+    lastOperation = result;
+    return result;
+  }
+
+}
@@ -16,12 +16,15 @@
 package org.apache.ibatis.builder.xml.dynamic;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.io.IOException;
 import java.io.Reader;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -376,6 +379,53 @@ class DynamicSqlSourceTest extends BaseDataTest {
     assertEquals("__frch_u_0", boundSql.getParameterMappings().get(3).getProperty());
   }
 
+  @Test
+  void shouldReuseParameterMappingsForSameGeneratedSql() throws Exception {
+    DynamicSqlSource source = createDynamicSqlSource(new TextSqlNode("SELECT * FROM BLOG WHERE ID in"),
+        new ForEachSqlNode(new Configuration(), mixedContents(new TextSqlNode("#{item}")), "array", null, "item", "(", ")", ","));
+    BoundSql first = source.getBoundSql(Collections.singletonMap("array", new String[] {"one", "two"}));
+    BoundSql second = source.getBoundSql(Collections.singletonMap("array", new String[] {"three", "four"}));
+    assertEquals(first.getSql(), second.getSql());
+    assertNotSame(first.getParameterMappings(), second.getParameterMappings());
+    assertSame(first.getParameterMappings().get(0), second.getParameterMappings().get(0));
+    assertEquals("three", second.getAdditionalParameter("__frch_item_0"));
+    BoundSql third = source.getBoundSql(Collections.singletonMap("array", new String[] {"one", "two", "three"}));
+    assertEquals(3, third.getParameterMappings().size());
+  }
+
+  @Test
+  void shouldNotReuseParameterMappingsForDifferentBindingTypes() throws Exception {
+    DynamicSqlSource source = createDynamicSqlSource(new TextSqlNode("SELECT * FROM BLOG WHERE ID in"),
+        new ForEachSqlNode(new Configuration(), mixedContents(new TextSqlNode("#{item}")), "array", null, "item", "(", ")", ","));
+    BoundSql first = source.getBoundSql(Collections.singletonMap("array", new String[] {"one"}));
+    BoundSql second = source.getBoundSql(Collections.singletonMap("array", new Integer[] {1}));
+    BoundSql third = source.getBoundSql(Collections.singletonMap("array", new Integer[] {2}));
+    assertEquals(String.class, first.getParameterMappings().get(0).getJavaType());
+    assertEquals(Integer.class, second.getParameterMappings().get(0).getJavaType());
+    assertSame(second.getParameterMappings().get(0), third.getParameterMappings().get(0));
+  }
+
+  @Test
+  void shouldNotReuseParameterMappingsResolvedFromMapValues() throws Exception {
+    DynamicSqlSource source = createDynamicSqlSource(new TextSqlNode("SELECT * FROM BLOG WHERE ID = #{_parameter.id}"));
+    BoundSql first = source.getBoundSql(Collections.singletonMap("id", "one"));
+    BoundSql second = source.getBoundSql(Collections.singletonMap("id", 1));
+    assertEquals(String.class, first.getParameterMappings().get(0).getJavaType());
+    assertEquals(Integer.class, second.getParameterMappings().get(0).getJavaType());
+  }
+
+  @Test
+  void shouldNotReuseParameterMappingsWhenCacheIsDisabled() throws Exception {
+    DynamicSqlSource source = createDynamicSqlSource(new TextSqlNode("SELECT * FROM BLOG WHERE ID = #{id}"));
+    BoundSql first = source.getBoundSql(new Bean("one"));
+    assertSame(first.getParameterMappings().get(0), source.getBoundSql(new Bean("two")).getParameterMappings().get(0));
+    Configuration configuration = new Configuration();
+    configuration.setDynamicSqlCacheSize(0);
+    source = new DynamicSqlSource(configuration, mixedContents(new TextSqlNode("SELECT * FROM BLOG WHERE ID = #{id}")));
+    first = source.getBoundSql(new Bean("one"));
+    assertNotSame(first.getParameterMappings().get(0), source.getBoundSql(new Bean("two")).getParameterMappings().get(0));
+  }
+
   private DynamicSqlSource createDynamicSqlSource(SqlNode... contents) throws IOException, SQLException {
     createBlogDataSource();
     final String resource = "org/apache/ibatis/builder/MapperConfig.xml";
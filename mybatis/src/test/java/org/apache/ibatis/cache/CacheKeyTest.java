@@ -100,6 +100,45 @@ class CacheKeyTest {
     Assertions.assertEquals(cacheKey, serialize(cacheKey));
   }
 
+  @Test
+  void shouldGrowBeyondExpectedUpdateCount() throws Exception {
+    CacheKey key1 = new CacheKey(1);
+    CacheKey key2 = new CacheKey();
+    for (int i = 0; i < 25; i++) {
+      key1.update(i);
+      key2.update(i);
+    }
+    assertEquals(25, key1.getUpdateCount());
+    assertEquals(key1, key2);
+    assertEquals(key1.hashCode(), key2.hashCode());
+    assertEquals(key2.toString(), key1.toString());
+    assertEquals(key1, serialize(key1));
+  }
+
+  @Test
+  void shouldCopyPrefixWithoutSharingUpdates() {
+    CacheKey prefix = new CacheKey();
+    prefix.update("statement");
+    prefix.update(0);
+    CacheKey key1 = new CacheKey(prefix, 1);
+    key1.update("select 1");
+    key1.update("extra");
+    CacheKey key2 = new CacheKey(new Object[]{"statement", 0, "select 1", "extra"});
+    assertEquals(key2, key1);
+    assertEquals(key2.hashCode(), key1.hashCode());
+    assertEquals(2, prefix.getUpdateCount());
+    assertEquals(new CacheKey(new Object[]{"statement", 0}), prefix);
+  }
+
+  @Test
+  void shouldNotShareUpdatesWithClone() throws Exception {
+    CacheKey key = new CacheKey(new Object[]{"hello"});
+    CacheKey clone = key.clone();
+    clone.update("world");
+    assertEquals(1, key.getUpdateCount());
+    assertNotEquals(key, clone);
+  }
+
   private static <T> T serialize(T object) throws Exception {
     ByteArrayOutputStream baos = new ByteArrayOutputStream();
     new ObjectOutputStream(baos).writeObject(object);
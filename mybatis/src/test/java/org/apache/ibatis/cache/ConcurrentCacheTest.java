@@ -0,0 +1,154 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.impl.ConcurrentCache;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentCacheTest {
+
+  @Test
+  void shouldRemoveLeastRecentlyUsedItemInBeyondFiveEntries() {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.setSize(5);
+    cache.setSampleSize(5);
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    assertEquals(0, cache.getObject(0));
+    cache.putObject(5, 5);
+    assertNull(cache.getObject(1));
+    assertEquals(5, cache.getSize());
+    assertEquals(1, cache.getEvictionCount());
+  }
+
+  @Test
+  void shouldNeverExceedSizeWithSampledEviction() {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.setSize(100);
+    for (int i = 0; i < 1000; i++) {
+      cache.putObject(i, i);
+      assertEquals(i, cache.getObject(i));
+    }
+    assertEquals(100, cache.getSize());
+    assertEquals(900, cache.getEvictionCount());
+    assertEquals(999, cache.getObject(999));
+  }
+
+  @Test
+  void shouldEvictWhenShrunk() {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    for (int i = 0; i < 10; i++) {
+      cache.putObject(i, i);
+    }
+    cache.setSize(3);
+    assertEquals(3, cache.getSize());
+    assertEquals(7, cache.getEvictionCount());
+    assertThrows(CacheException.class, () -> cache.setSize(0));
+  }
+
+  @Test
+  void shouldCountHitsAndMisses() {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.putObject("a", "A");
+    cache.putObject("b", null);
+    assertEquals("A", cache.getObject("a"));
+    assertNull(cache.getObject("b"));
+    assertNull(cache.getObject("c"));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(2, cache.getMissCount());
+    assertEquals(1.0 / 3, cache.getHitRatio(), 0.0001);
+  }
+
+  @Test
+  void shouldReplaceValueOfExistingKey() {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.putObject("a", "A");
+    cache.putObject("a", "B");
+    assertEquals("B", cache.getObject("a"));
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  void shouldRemoveItemOnDemand() {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.putObject(0, 0);
+    cache.putObject(1, 1);
+    assertEquals(0, cache.removeObject(0));
+    assertNull(cache.getObject(0));
+    assertEquals(1, cache.getObject(1));
+    assertNull(cache.removeObject(0));
+  }
+
+  @Test
+  void shouldFlushAllItemsOnDemand() {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    cache.clear();
+    assertNull(cache.getObject(0));
+    assertNull(cache.getObject(4));
+    assertEquals(0, cache.getSize());
+    cache.putObject(0, 0);
+    assertEquals(0, cache.getObject(0));
+  }
+
+  @Test
+  void shouldStayBoundedUnderConcurrentAccess() throws Exception {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.setSize(64);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        futures.add(executor.submit(() -> {
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(256);
+            Object value = cache.getObject(key);
+            if (value == null) {
+              cache.putObject(key, key);
+            } else {
+              assertEquals(key, value);
+            }
+            if (i % 1000 == 0) {
+              cache.removeObject(key);
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertTrue(cache.getSize() <= 64);
+    assertEquals(160000, cache.getHitCount() + cache.getMissCount());
+  }
+
+}
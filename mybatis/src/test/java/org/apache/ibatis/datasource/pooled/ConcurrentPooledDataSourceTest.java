@@ -0,0 +1,267 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.datasource.DataSourceException;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.io.Resources;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentPooledDataSourceTest extends BaseDataTest {
+
+  private ConcurrentPooledDataSource ds;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    Properties props = Resources.getResourceAsProperties(JPETSTORE_PROPERTIES);
+    ds = new ConcurrentPooledDataSource();
+    ds.setDriver(props.getProperty("driver"));
+    ds.setUrl(props.getProperty("url"));
+    ds.setUsername(props.getProperty("username"));
+    ds.setPassword(props.getProperty("password"));
+  }
+
+  @AfterEach
+  void tearDown() {
+    ds.forceCloseAll();
+  }
+
+  @Test
+  void shouldProperlyMaintainPoolOf3ActiveAnd2IdleConnections() throws Exception {
+    runScript(ds, JPETSTORE_DDL);
+    ds.setDefaultAutoCommit(false);
+    ds.setPoolMaximumActiveConnections(3);
+    ds.setPoolMaximumIdleConnections(2);
+    ds.setPoolMaximumCheckoutTime(10000);
+    ds.setPoolPingConnectionsNotUsedFor(1);
+    ds.setPoolPingEnabled(true);
+    ds.setPoolPingQuery("SELECT * FROM PRODUCT");
+    ds.setPoolTimeToWait(10000);
+    List<Connection> connections = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      connections.add(ds.getConnection());
+    }
+    assertEquals(3, ds.getPoolState().getActiveConnectionCount());
+    for (Connection c : connections) {
+      c.close();
+    }
+    assertEquals(2, ds.getPoolState().getIdleConnectionCount());
+    assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+    assertEquals(4, ds.getPoolState().getRequestCount());
+    assertEquals(0, ds.getPoolState().getBadConnectionCount());
+    assertEquals(0, ds.getPoolState().getHadToWaitCount());
+    assertEquals(0, ds.getPoolState().getClaimedOverdueConnectionCount());
+    assertNotNull(ds.getPoolState().toString());
+  }
+
+  @Test
+  void shouldHandOutTheConnectionLastReturnedByTheSameThread() throws Exception {
+    Connection first = ds.getConnection();
+    Connection second = ds.getConnection();
+    Connection realSecond = PooledDataSource.unwrapConnection(second);
+    first.close();
+    second.close();
+    Connection again = ds.getConnection();
+    assertSame(realSecond, PooledDataSource.unwrapConnection(again));
+    again.close();
+  }
+
+  @Test
+  void shouldInvalidateTheProxyOnceReturned() throws Exception {
+    Connection c = ds.getConnection();
+    c.close();
+    assertThrows(SQLException.class, c::getAutoCommit);
+    assertNotNull(c.toString());
+  }
+
+  @Test
+  void shouldHandReturnedConnectionToWaitingThread() throws Exception {
+    ds.setPoolMaximumActiveConnections(1);
+    ds.setPoolTimeToWait(10000);
+    Connection c = ds.getConnection();
+    Connection real = PooledDataSource.unwrapConnection(c);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Connection> waiting = executor.submit(() -> {
+        try (Connection conn = ds.getConnection()) {
+          return PooledDataSource.unwrapConnection(conn);
+        }
+      });
+      while (ds.getPoolState().getHadToWaitCount() == 0) {
+        Thread.sleep(10);
+      }
+      c.close();
+      assertSame(real, waiting.get(5, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(1, ds.getPoolState().getHadToWaitCount());
+    assertEquals(2, ds.getPoolState().getRequestCount());
+  }
+
+  @Test
+  void shouldNotWaitForConnectionsBeingOpenedWhenReturningOne() throws Exception {
+    CountDownLatch opening = new CountDownLatch(1);
+    CountDownLatch opened = new CountDownLatch(1);
+    UnpooledDataSource unpooled = new UnpooledDataSource(ds.getDriver(), ds.getUrl(), ds.getUsername(), ds.getPassword()) {
+      private final AtomicInteger count = new AtomicInteger();
+
+      @Override
+      public Connection getConnection() throws SQLException {
+        if (count.incrementAndGet() == 2) {
+          opening.countDown();
+          try {
+            opened.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        return super.getConnection();
+      }
+    };
+    ConcurrentPooledDataSource pool = new ConcurrentPooledDataSource(unpooled);
+    pool.setPoolMaximumActiveConnections(2);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Connection c = pool.getConnection();
+      Future<Connection> slow = executor.submit(() -> pool.getConnection());
+      assertTrue(opening.await(5, TimeUnit.SECONDS));
+      Future<?> close = executor.submit(() -> {
+        c.close();
+        return null;
+      });
+      close.get(5, TimeUnit.SECONDS);
+      assertEquals(1, pool.getPoolState().getIdleConnectionCount());
+      opened.countDown();
+      slow.get(5, TimeUnit.SECONDS).close();
+    } finally {
+      opened.countDown();
+      executor.shutdownNow();
+      pool.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldClaimOverdueConnection() throws Exception {
+    ds.setPoolMaximumActiveConnections(1);
+    ds.setPoolMaximumCheckoutTime(50);
+    ds.setPoolTimeToWait(20);
+    Connection leaked = ds.getConnection();
+    Connection real = PooledDataSource.unwrapConnection(leaked);
+    Thread.sleep(100);
+    Connection c = ds.getConnection();
+    assertSame(real, PooledDataSource.unwrapConnection(c));
+    assertEquals(1, ds.getPoolState().getClaimedOverdueConnectionCount());
+    assertThrows(SQLException.class, leaked::getAutoCommit);
+    leaked.close();
+    assertEquals(1, ds.getPoolState().getBadConnectionCount());
+    assertEquals(1, ds.getPoolState().getActiveConnectionCount());
+    c.close();
+    assertEquals(1, ds.getPoolState().getIdleConnectionCount());
+  }
+
+  @Test
+  void shouldNotExceedMaximumActiveConnectionsUnderContention() throws Exception {
+    ds.setPoolMaximumActiveConnections(4);
+    ds.setPoolMaximumIdleConnections(4);
+    int threads = 16;
+    int iterations = 200;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<Integer>> results = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        results.add(executor.submit(() -> {
+          start.await();
+          int maxActive = 0;
+          for (int j = 0; j < iterations; j++) {
+            try (Connection c = ds.getConnection()) {
+              assertTrue(c.isValid(1));
+              maxActive = Math.max(maxActive, ds.getPoolState().getActiveConnectionCount());
+            }
+          }
+          return maxActive;
+        }));
+      }
+      start.countDown();
+      for (Future<Integer> result : results) {
+        assertTrue(result.get(30, TimeUnit.SECONDS) <= 4);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(threads * iterations, ds.getPoolState().getRequestCount());
+    assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+    assertTrue(ds.getPoolState().getIdleConnectionCount() <= 4);
+    assertEquals(0, ds.getPoolState().getBadConnectionCount());
+  }
+
+  @Test
+  void shouldCloseAllConnections() throws Exception {
+    Connection active = ds.getConnection();
+    ds.getConnection().close();
+    ds.forceCloseAll();
+    assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+    assertEquals(0, ds.getPoolState().getIdleConnectionCount());
+    assertThrows(SQLException.class, active::getAutoCommit);
+    active.close();
+    Connection c = ds.getConnection();
+    assertFalse(c.isClosed());
+    c.close();
+  }
+
+  @Test
+  void shouldBeSelectableThroughFactory() throws Exception {
+    Properties props = Resources.getResourceAsProperties(JPETSTORE_PROPERTIES);
+    props.setProperty("poolType", "concurrent");
+    props.setProperty("poolMaximumActiveConnections", "7");
+    PooledDataSourceFactory factory = new PooledDataSourceFactory();
+    factory.setProperties(props);
+    ConcurrentPooledDataSource dataSource = (ConcurrentPooledDataSource) factory.getDataSource();
+    assertEquals(7, dataSource.getPoolMaximumActiveConnections());
+    assertEquals(props.getProperty("url"), dataSource.getUrl());
+
+    PooledDataSourceFactory classicFactory = new PooledDataSourceFactory();
+    props.setProperty("poolType", "CLASSIC");
+    classicFactory.setProperties(props);
+    assertEquals(PooledDataSource.class, classicFactory.getDataSource().getClass());
+  }
+
+  @Test
+  void shouldRejectUnknownPoolType() {
+    Properties props = new Properties();
+    props.setProperty("poolType", "unknown");
+    assertThrows(DataSourceException.class, () -> new PooledDataSourceFactory().setProperties(props));
+  }
+
+}
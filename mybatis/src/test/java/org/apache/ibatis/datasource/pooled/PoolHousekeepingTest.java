@@ -0,0 +1,220 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.BooleanSupplier;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.junit.jupiter.api.Test;
+
+class PoolHousekeepingTest extends BaseDataTest {
+
+  @Test
+  void shouldOpenMinimumIdleConnectionsInBackground() throws Exception {
+    shouldOpenMinimumIdleConnectionsInBackground(false);
+    shouldOpenMinimumIdleConnectionsInBackground(true);
+  }
+
+  private void shouldOpenMinimumIdleConnectionsInBackground(boolean concurrent) throws Exception {
+    PooledDataSource ds = createDataSource(concurrent);
+    try {
+      ds.setPoolMinimumIdleConnections(2);
+      ds.setPoolHousekeepingPeriod(20);
+      ds.startHousekeeping();
+      await(() -> ds.getPoolState().getIdleConnectionCount() == 2);
+      assertEquals(2, ds.getPoolMetrics().getCreatedConnectionCount());
+      try (Connection c = ds.getConnection()) {
+        assertEquals(2, ds.getPoolMetrics().getCreatedConnectionCount());
+      }
+      Thread.sleep(60);
+      assertEquals(2, ds.getPoolState().getIdleConnectionCount());
+    } finally {
+      ds.stopHousekeeping();
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldEvictIdleConnectionsAboveMinimum() throws Exception {
+    shouldEvictIdleConnectionsAboveMinimum(false);
+    shouldEvictIdleConnectionsAboveMinimum(true);
+  }
+
+  private void shouldEvictIdleConnectionsAboveMinimum(boolean concurrent) throws Exception {
+    PooledDataSource ds = createDataSource(concurrent);
+    try {
+      ds.setPoolMinimumIdleConnections(1);
+      ds.setPoolMaximumIdleTime(100);
+      ds.setPoolHousekeepingPeriod(20);
+      openAndClose(ds, 3);
+      assertEquals(3, ds.getPoolState().getIdleConnectionCount());
+      ds.startHousekeeping();
+      await(() -> ds.getPoolMetrics().getEvictedConnectionCount() == 2);
+      assertEquals(1, ds.getPoolState().getIdleConnectionCount());
+      assertEquals(3, ds.getPoolMetrics().getCreatedConnectionCount());
+    } finally {
+      ds.stopHousekeeping();
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldCloseExpiredConnections() throws Exception {
+    shouldCloseExpiredConnections(false);
+    shouldCloseExpiredConnections(true);
+  }
+
+  private void shouldCloseExpiredConnections(boolean concurrent) throws Exception {
+    PooledDataSource ds = createDataSource(concurrent);
+    try {
+      ds.setPoolMaximumLifetime(100);
+      ds.setPoolHousekeepingPeriod(20);
+      openAndClose(ds, 2);
+      Connection active = ds.getConnection();
+      ds.startHousekeeping();
+      await(() -> ds.getPoolMetrics().getEvictedConnectionCount() == 1);
+      assertEquals(0, ds.getPoolState().getIdleConnectionCount());
+      active.close();
+      assertEquals(0, ds.getPoolState().getIdleConnectionCount());
+      assertEquals(2, ds.getPoolMetrics().getClosedConnectionCount());
+    } finally {
+      ds.stopHousekeeping();
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldPingIdleConnectionsInBackground() throws Exception {
+    shouldPingIdleConnectionsInBackground(false);
+    shouldPingIdleConnectionsInBackground(true);
+  }
+
+  private void shouldPingIdleConnectionsInBackground(boolean concurrent) throws Exception {
+    PooledDataSource ds = createDataSource(concurrent);
+    try {
+      ds.setPoolPingEnabled(true);
+      ds.setPoolPingQuery("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS");
+      ds.setPoolPingConnectionsNotUsedFor(50);
+      ds.setPoolHousekeepingPeriod(20);
+      openAndClose(ds, 1);
+      long validations = ds.getPoolMetrics().getValidationTime().getCount();
+      ds.startHousekeeping();
+      await(() -> ds.getPoolMetrics().getValidationTime().getCount() > validations + 1);
+      assertEquals(1, ds.getPoolState().getIdleConnectionCount());
+      assertEquals(0, ds.getPoolMetrics().getBadConnectionCount());
+      ds.stopHousekeeping();
+      PooledConnection idle = concurrent ? null : ds.getPoolState().idleConnections.get(0);
+      if (idle != null) {
+        assertFalse(ds.isPingDue(idle));
+      }
+      openAndClose(ds, 1);
+      assertEquals(1, ds.getPoolMetrics().getCreatedConnectionCount());
+      idle = concurrent ? null : ds.getPoolState().idleConnections.get(0);
+      if (idle != null) {
+        // the returned connection keeps the time of the last ping
+        assertTrue(idle.getTimeElapsedSinceLastPing() < 5000);
+      }
+    } finally {
+      ds.stopHousekeeping();
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldStopWhenPoolIsClosedOrReconfigured() throws Exception {
+    shouldStopWhenPoolIsClosedOrReconfigured(false);
+    shouldStopWhenPoolIsClosedOrReconfigured(true);
+  }
+
+  private void shouldStopWhenPoolIsClosedOrReconfigured(boolean concurrent) throws Exception {
+    PooledDataSource ds = createDataSource(concurrent);
+    try {
+      ds.setPoolMinimumIdleConnections(2);
+      ds.setPoolHousekeepingPeriod(20);
+      ds.startHousekeeping();
+      await(() -> ds.getPoolState().getIdleConnectionCount() == 2);
+      ds.forceCloseAll();
+      Thread.sleep(100);
+      assertEquals(0, ds.getPoolState().getIdleConnectionCount());
+      ds.startHousekeeping();
+      await(() -> ds.getPoolState().getIdleConnectionCount() == 2);
+      ds.setPoolMinimumIdleConnections(1);
+      Thread.sleep(100);
+      assertEquals(0, ds.getPoolState().getIdleConnectionCount());
+    } finally {
+      ds.stopHousekeeping();
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldBeStartedByFactory() throws Exception {
+    shouldBeStartedByFactory("CLASSIC");
+    shouldBeStartedByFactory("CONCURRENT");
+  }
+
+  private void shouldBeStartedByFactory(String poolType) throws Exception {
+    Properties props = Resources.getResourceAsProperties(JPETSTORE_PROPERTIES);
+    props.setProperty("poolType", poolType);
+    props.setProperty("poolMinimumIdleConnections", "3");
+    props.setProperty("poolHousekeepingPeriod", "20");
+    PooledDataSourceFactory factory = new PooledDataSourceFactory();
+    factory.setProperties(props);
+    PooledDataSource ds = (PooledDataSource) factory.getDataSource();
+    try {
+      await(() -> ds.getPoolState().getIdleConnectionCount() == 3);
+    } finally {
+      ds.stopHousekeeping();
+      ds.forceCloseAll();
+    }
+  }
+
+  private PooledDataSource createDataSource(boolean concurrent) throws Exception {
+    Properties props = Resources.getResourceAsProperties(JPETSTORE_PROPERTIES);
+    if (concurrent) {
+      return new ConcurrentPooledDataSource(props.getProperty("driver"), props.getProperty("url"),
+          props.getProperty("username"), props.getProperty("password"));
+    }
+    return new PooledDataSource(props.getProperty("driver"), props.getProperty("url"),
+        props.getProperty("username"), props.getProperty("password"));
+  }
+
+  private void openAndClose(PooledDataSource ds, int count) throws Exception {
+    List<Connection> connections = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      connections.add(ds.getConnection());
+    }
+    for (Connection c : connections) {
+      c.close();
+    }
+  }
+
+  private void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.currentTimeMillis() < deadline, "Timed out");
+      Thread.sleep(10);
+    }
+  }
+
+}
@@ -0,0 +1,159 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.junit.jupiter.api.Test;
+
+class PoolMetricsTest extends BaseDataTest {
+
+  @Test
+  void shouldComputePercentilesFromPowerOfTwoBuckets() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getPercentile(99, TimeUnit.NANOSECONDS));
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(i * 1000L);
+    }
+    histogram.record(-5);
+    assertEquals(101, histogram.getCount());
+    assertEquals(100000, histogram.getMax(TimeUnit.NANOSECONDS));
+    assertEquals(5050000, histogram.getTotal(TimeUnit.NANOSECONDS));
+    assertEquals(0, histogram.getPercentile(0, TimeUnit.NANOSECONDS));
+    long p50 = histogram.getPercentile(50, TimeUnit.NANOSECONDS);
+    assertTrue(p50 >= 50000 && p50 < 100000, "p50 was " + p50);
+    assertEquals(100000, histogram.getPercentile(100, TimeUnit.NANOSECONDS));
+    assertEquals(1, histogram.getBucketCounts()[0]);
+    assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(101, TimeUnit.NANOSECONDS));
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMax(TimeUnit.NANOSECONDS));
+  }
+
+  @Test
+  void shouldRecordMetricsOfClassicPool() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      assertPoolMetrics(ds);
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldRecordMetricsOfConcurrentPool() throws Exception {
+    Properties props = Resources.getResourceAsProperties(JPETSTORE_PROPERTIES);
+    PooledDataSource ds = new ConcurrentPooledDataSource(props.getProperty("driver"), props.getProperty("url"),
+        props.getProperty("username"), props.getProperty("password"));
+    try {
+      assertPoolMetrics(ds);
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  private void assertPoolMetrics(PooledDataSource ds) throws Exception {
+    ds.setPoolMaximumActiveConnections(1);
+    ds.setPoolMaximumIdleConnections(0);
+    ds.setPoolTimeToWait(100);
+    CountingListener listener = new CountingListener();
+    ds.setPoolMetricsListener(listener);
+    PoolMetrics metrics = ds.getPoolMetrics();
+
+    Connection c = ds.getConnection();
+    assertEquals(1, metrics.getActiveConnectionCount());
+    assertEquals(0, metrics.getIdleConnectionCount());
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<?> waiting = executor.submit(() -> {
+        ds.getConnection().close();
+        return null;
+      });
+      while (metrics.getPendingWaiterCount() == 0) {
+        Thread.sleep(10);
+      }
+      Thread.sleep(20);
+      c.close();
+      waiting.get(5, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(0, metrics.getPendingWaiterCount());
+    assertEquals(0, metrics.getActiveConnectionCount());
+    assertEquals(2, metrics.getCreatedConnectionCount());
+    assertEquals(2, metrics.getClosedConnectionCount());
+    assertEquals(0, metrics.getBadConnectionCount());
+    assertEquals(0, metrics.getClaimedOverdueConnectionCount());
+    assertEquals(2, metrics.getAcquireTime().getCount());
+    assertTrue(metrics.getAcquireTime().getMax(TimeUnit.MILLISECONDS) >= 20);
+    assertEquals(2, metrics.getCheckoutTime().getCount());
+    assertTrue(metrics.getCheckoutTime().getMax(TimeUnit.MILLISECONDS) >= 20);
+    assertEquals(4, metrics.getValidationTime().getCount());
+    assertNotNull(metrics.toString());
+
+    assertEquals(2, listener.acquired.get());
+    assertEquals(2, listener.returned.get());
+    assertEquals(4, listener.validated.get());
+    assertEquals(2, listener.created.get());
+    assertEquals(2, listener.closed.get());
+  }
+
+  private static class CountingListener implements PoolMetricsListener {
+    private final AtomicInteger acquired = new AtomicInteger();
+    private final AtomicInteger returned = new AtomicInteger();
+    private final AtomicInteger validated = new AtomicInteger();
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger closed = new AtomicInteger();
+
+    @Override
+    public void connectionAcquired(long acquireNanos) {
+      acquired.incrementAndGet();
+    }
+
+    @Override
+    public void connectionReturned(long checkoutNanos) {
+      returned.incrementAndGet();
+    }
+
+    @Override
+    public void connectionValidated(long validationNanos, boolean valid) {
+      assertTrue(valid);
+      validated.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCreated() {
+      created.incrementAndGet();
+    }
+
+    @Override
+    public void connectionClosed() {
+      closed.incrementAndGet();
+    }
+  }
+
+}
@@ -18,6 +18,11 @@ package org.apache.ibatis.mapping;
 import org.apache.ibatis.builder.InitializingObject;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.decorators.LoggingCache;
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.impl.ConcurrentCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -43,6 +48,38 @@ class CacheBuilderTest {
       .hasMessage("Failed cache initialization for 'test' on 'org.apache.ibatis.mapping.CacheBuilderTest$InitializingFailureCache'");
   }
 
+  @Test
+  void testConcurrentCacheIsNotSynchronized() {
+    Cache cache = new CacheBuilder("test").implementation(ConcurrentCache.class).size(10).build();
+    Assertions.assertThat(cache).isInstanceOf(LoggingCache.class);
+    ConcurrentCache concurrentCache = unwrap(cache);
+    for (int i = 0; i < 20; i++) {
+      concurrentCache.putObject(i, i);
+    }
+    Assertions.assertThat(concurrentCache.getSize()).isEqualTo(10);
+  }
+
+  @Test
+  void testReadWriteConcurrentCacheIsNotSynchronized() {
+    Cache cache = new CacheBuilder("test").implementation(PerpetualCache.class).addDecorator(ConcurrentCache.class)
+        .readWrite(true).clearInterval(60000L).build();
+    Assertions.assertThat(cache).isInstanceOf(LoggingCache.class);
+    Assertions.assertThat((Cache) unwrap(cache)).isInstanceOf(SerializedCache.class);
+  }
+
+  @Test
+  void testConcurrentCacheAsEviction() {
+    Cache cache = new CacheBuilder("test").implementation(PerpetualCache.class).addDecorator(ConcurrentCache.class).build();
+    Assertions.assertThat(cache).isInstanceOf(LoggingCache.class);
+    Assertions.assertThat((Cache) unwrap(cache)).isInstanceOf(ConcurrentCache.class);
+  }
+
+  @Test
+  void testDefaultCacheIsSynchronized() {
+    Cache cache = new CacheBuilder("test").implementation(PerpetualCache.class).addDecorator(LruCache.class).build();
+    Assertions.assertThat(cache).isInstanceOf(SynchronizedCache.class);
+  }
+
   @SuppressWarnings("unchecked")
   private <T> T unwrap(Cache cache) {
     Field field;
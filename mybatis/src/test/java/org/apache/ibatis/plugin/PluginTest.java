@@ -17,7 +17,9 @@ package org.apache.ibatis.plugin;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -38,6 +40,108 @@ class PluginTest {
     assertNotEquals("Always", map.toString());
   }
 
+  @Test
+  void shouldReadSignaturesOncePerInterceptorType() {
+    assertSame(Plugin.getSignatureMap(AlwaysMapPlugin.class), Plugin.getSignatureMap(AlwaysMapPlugin.class));
+  }
+
+  @Test
+  void shouldFailWithoutInterceptsAnnotation() {
+    Interceptor interceptor = invocation -> null;
+    assertThrows(PluginException.class, () -> interceptor.plugin(new HashMap<>()));
+  }
+
+  @Test
+  void compiledChainShouldApplyInterceptorsThroughOneProxy() {
+    List<String> calls = new ArrayList<>();
+    InterceptorChain chain = new InterceptorChain();
+    chain.setCompiled(true);
+    chain.addInterceptor(new RecordingMapPlugin("first", calls));
+    chain.addInterceptor(new RecordingMapPlugin("second", calls));
+    Map<String, String> target = new HashMap<>();
+    target.put("key", "value");
+    @SuppressWarnings("unchecked")
+    Map<String, String> map = (Map<String, String>) chain.pluginAll(target);
+    assertEquals("second(first(value))", map.get("key"));
+    assertEquals("[second, first]", calls.toString());
+    assertEquals(1, map.size());
+    assertEquals(target.toString(), map.toString());
+    assertEquals("[second, first]", calls.toString());
+  }
+
+  @Test
+  void compiledChainShouldKeepOrderAroundInterceptorsOverridingPlugin() {
+    List<String> calls = new ArrayList<>();
+    InterceptorChain chain = new InterceptorChain();
+    chain.setCompiled(true);
+    chain.addInterceptor(new RecordingMapPlugin("first", calls));
+    chain.addInterceptor(new WrappingMapPlugin("wrapping", calls));
+    chain.addInterceptor(new RecordingMapPlugin("last", calls));
+    Map<String, String> target = new HashMap<>();
+    target.put("key", "value");
+    @SuppressWarnings("unchecked")
+    Map<String, String> map = (Map<String, String>) chain.pluginAll(target);
+    assertEquals("last(wrapping(first(value)))", map.get("key"));
+    assertEquals("[last, wrapping, first]", calls.toString());
+  }
+
+  @Test
+  void compiledChainShouldUnwrapExceptions() {
+    InterceptorChain chain = new InterceptorChain();
+    chain.setCompiled(true);
+    chain.addInterceptor(new RecordingMapPlugin("first", new ArrayList<>()));
+    @SuppressWarnings("unchecked")
+    Map<String, String> map = (Map<String, String>) chain.pluginAll(new HashMap<String, String>() {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      public String get(Object key) {
+        throw new IllegalStateException("get");
+      }
+    });
+    assertEquals("get", assertThrows(IllegalStateException.class, () -> map.get("key")).getMessage());
+  }
+
+  @Test
+  void compiledChainShouldLeaveUninterceptedTargetsAlone() {
+    InterceptorChain chain = new InterceptorChain();
+    chain.setCompiled(true);
+    chain.addInterceptor(new RecordingMapPlugin("first", new ArrayList<>()));
+    List<String> target = new ArrayList<>();
+    assertSame(target, chain.pluginAll(target));
+  }
+
+  @Intercepts({
+      @Signature(type = Map.class, method = "get", args = {Object.class})})
+  public static class RecordingMapPlugin implements Interceptor {
+    private final String name;
+    private final List<String> calls;
+
+    RecordingMapPlugin(String name, List<String> calls) {
+      this.name = name;
+      this.calls = calls;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      calls.add(name);
+      return name + "(" + invocation.proceed() + ")";
+    }
+  }
+
+  @Intercepts({
+      @Signature(type = Map.class, method = "get", args = {Object.class})})
+  public static class WrappingMapPlugin extends RecordingMapPlugin {
+    WrappingMapPlugin(String name, List<String> calls) {
+      super(name, calls);
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+  }
+
   @Intercepts({
       @Signature(type = Map.class, method = "get", args = {Object.class})})
   public static class AlwaysMapPlugin implements Interceptor {
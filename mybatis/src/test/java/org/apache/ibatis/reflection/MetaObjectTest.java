@@ -26,6 +26,7 @@ import org.apache.ibatis.domain.blog.Section;
 import org.apache.ibatis.domain.misc.CustomBeanWrapper;
 import org.apache.ibatis.domain.misc.CustomBeanWrapperFactory;
 import org.apache.ibatis.domain.misc.RichType;
+import org.apache.ibatis.reflection.property.PropertyPath;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -166,6 +167,70 @@ class MetaObjectTest {
     assertNull(richWithNull.getValue("richType.richProperty"));
   }
 
+  @Test
+  void shouldGetAndSetNestedPropertyThroughParsedPath() {
+    MetaObject richWithNull = SystemMetaObject.forObject(new RichType());
+    PropertyPath path = PropertyPath.parse("richType.richType.richProperty");
+    assertNull(richWithNull.getValue(path));
+    richWithNull.setValue(path, null);
+    assertNull(richWithNull.getValue("richType"));
+    richWithNull.setValue(path, "foo");
+    assertEquals("foo", richWithNull.getValue(path));
+    assertEquals("foo", richWithNull.getValue("richType.richType.richProperty"));
+  }
+
+  @Test
+  void shouldGetAndSetIndexedItemsThroughParsedPath() {
+    MetaObject meta = SystemMetaObject.forObject(new RichType());
+    PropertyPath listItem = PropertyPath.parse("richType.richList[0]");
+    PropertyPath mapEntry = PropertyPath.parse("richMap[key].richProperty");
+    meta.setValue(listItem, "foo");
+    meta.setValue("richMap.key", new RichType());
+    meta.setValue(mapEntry, "bar");
+    assertEquals("foo", meta.getValue(listItem));
+    assertEquals("bar", meta.getValue(mapEntry));
+    assertEquals("bar", meta.getValue("richMap.key.richProperty"));
+  }
+
+  @Test
+  void shouldRebindToBeanOfSameClass() {
+    RichType first = new RichType();
+    RichType second = new RichType();
+    MetaObject meta = SystemMetaObject.forObject(first);
+    meta.setValue("richProperty", "first");
+    assertSame(meta, meta.rebind(second));
+    assertSame(second, meta.getOriginalObject());
+    meta.setValue("richProperty", "second");
+    assertEquals("first", first.getRichProperty());
+    assertEquals("second", second.getRichProperty());
+  }
+
+  @Test
+  void shouldNotRebindToOtherObjects() {
+    MetaObject meta = SystemMetaObject.forObject(new RichType());
+    MetaObject mapMeta = meta.rebind(new HashMap<String, Object>());
+    assertNotSame(meta, mapMeta);
+    mapMeta.setValue("key", "value");
+    assertEquals("value", mapMeta.getValue("key"));
+    assertNotSame(meta, meta.rebind(new Author()));
+    assertSame(SystemMetaObject.NULL_META_OBJECT, meta.rebind(null));
+    assertNotSame(SystemMetaObject.NULL_META_OBJECT, SystemMetaObject.NULL_META_OBJECT.rebind(new RichType()));
+    MetaObject custom = MetaObject.forObject(new Author(), SystemMetaObject.DEFAULT_OBJECT_FACTORY,
+        new CustomBeanWrapperFactory(), new DefaultReflectorFactory());
+    assertNotSame(custom, custom.rebind(new Author()));
+  }
+
+  @Test
+  void shouldParsePropertyPathOnce() {
+    PropertyPath path = PropertyPath.parse("richType.richList[0].name");
+    assertEquals(3, path.size());
+    assertEquals("richList", path.getSegment(1).getName());
+    assertEquals("0", path.getSegment(1).getIndex());
+    assertEquals("richList[0].name", path.getRemainder(1));
+    assertEquals("name", path.getSegment(2).getName());
+    assertNull(PropertyPath.parse(null));
+  }
+
   @Test
   void shouldVerifyHasReadablePropertiesReturnedByGetReadablePropertyNames() {
     MetaObject object = SystemMetaObject.forObject(new Author());
@@ -0,0 +1,152 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.ibatis.reflection.invoker.LambdaGetterInvoker;
+import org.apache.ibatis.reflection.invoker.LambdaSetterInvoker;
+import org.apache.ibatis.reflection.invoker.MethodHandleGetFieldInvoker;
+import org.apache.ibatis.reflection.invoker.MethodHandleSetFieldInvoker;
+import org.junit.jupiter.api.Test;
+
+class MethodHandleReflectorTest {
+
+  private final ReflectorFactory reflectorFactory = new MethodHandleReflectorFactory();
+
+  @Test
+  void shouldCacheReflectors() {
+    assertSame(reflectorFactory.findForClass(Bean.class), reflectorFactory.findForClass(Bean.class));
+    assertTrue(reflectorFactory.findForClass(Bean.class) instanceof MethodHandleReflector);
+  }
+
+  @Test
+  void shouldGenerateGettersAndSetters() throws Exception {
+    Reflector reflector = reflectorFactory.findForClass(Bean.class);
+    assertTrue(reflector.getGetInvoker("name") instanceof LambdaGetterInvoker);
+    assertTrue(reflector.getSetInvoker("name") instanceof LambdaSetterInvoker);
+    assertTrue(reflector.getGetInvoker("count") instanceof LambdaGetterInvoker);
+    assertTrue(reflector.getSetInvoker("count") instanceof LambdaSetterInvoker);
+    Bean bean = new Bean();
+    reflector.getSetInvoker("name").invoke(bean, new Object[] {"mybatis"});
+    reflector.getSetInvoker("count").invoke(bean, new Object[] {3});
+    reflector.getSetInvoker("parentId").invoke(bean, new Object[] {7L});
+    assertEquals("mybatis", reflector.getGetInvoker("name").invoke(bean, null));
+    assertEquals(3, reflector.getGetInvoker("count").invoke(bean, null));
+    assertEquals(7L, reflector.getGetInvoker("parentId").invoke(bean, null));
+  }
+
+  @Test
+  void shouldCallFluentAndPrivateSetters() throws Exception {
+    Reflector reflector = reflectorFactory.findForClass(Bean.class);
+    Bean bean = new Bean();
+    reflector.getSetInvoker("fluent").invoke(bean, new Object[] {"value"});
+    reflector.getSetInvoker("hidden").invoke(bean, new Object[] {true});
+    assertEquals("value", reflector.getGetInvoker("fluent").invoke(bean, null));
+    assertEquals(true, reflector.getGetInvoker("hidden").invoke(bean, null));
+  }
+
+  @Test
+  void shouldReadAndWriteFields() throws Exception {
+    Reflector reflector = reflectorFactory.findForClass(Bean.class);
+    assertTrue(reflector.getGetInvoker("field") instanceof MethodHandleGetFieldInvoker);
+    assertTrue(reflector.getSetInvoker("field") instanceof MethodHandleSetFieldInvoker);
+    Bean bean = new Bean();
+    reflector.getSetInvoker("field").invoke(bean, new Object[] {5});
+    assertEquals(5, reflector.getGetInvoker("field").invoke(bean, null));
+    reflector.getSetInvoker("staticField").invoke(bean, new Object[] {"static"});
+    assertEquals("static", reflector.getGetInvoker("staticField").invoke(null, null));
+    reflector.getSetInvoker("finalField").invoke(bean, new Object[] {"changed"});
+    assertEquals("changed", reflector.getGetInvoker("finalField").invoke(bean, null));
+  }
+
+  @Test
+  void shouldReportExceptionsLikeReflection() {
+    Bean bean = new Bean();
+    MetaObject metaObject = MetaObject.forObject(bean, SystemMetaObject.DEFAULT_OBJECT_FACTORY,
+        SystemMetaObject.DEFAULT_OBJECT_WRAPPER_FACTORY, reflectorFactory);
+    assertEquals("fails", assertThrows(IllegalStateException.class, () -> metaObject.getValue("failing")).getMessage());
+    assertThrows(ReflectionException.class, () -> metaObject.setValue("count", null));
+    assertThrows(ReflectionException.class, () -> metaObject.setValue("count", "three"));
+    assertNull(metaObject.getValue("name"));
+    assertFalse(metaObject.hasGetter("class"));
+  }
+
+  static class Parent {
+    private Long parentId;
+
+    public Long getParentId() {
+      return parentId;
+    }
+
+    public void setParentId(Long parentId) {
+      this.parentId = parentId;
+    }
+  }
+
+  static class Bean extends Parent {
+    private static String staticField;
+    private final String finalField = "final";
+    private String name;
+    private int count;
+    private String fluent;
+    private boolean hidden;
+    private int field;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    public void setCount(int count) {
+      this.count = count;
+    }
+
+    public String getFluent() {
+      return fluent;
+    }
+
+    public Bean setFluent(String fluent) {
+      this.fluent = fluent;
+      return this;
+    }
+
+    private boolean isHidden() {
+      return hidden;
+    }
+
+    private void setHidden(boolean hidden) {
+      this.hidden = hidden;
+    }
+
+    public String getFailing() {
+      throw new IllegalStateException("fails");
+    }
+  }
+
+}
@@ -0,0 +1,138 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class CompiledExpressionTest {
+
+  private static final String[] EXPRESSIONS = {
+      "username", "username != null", "username == 'cbegin'", "username != null and username != ''",
+      "password == null or password.length() == 0", "id", "id == 1", "id != 1", "id > 0", "id >= 1", "id < 1",
+      "id lte 0", "id gt 0 && !(id eq 2)", "not username", "id == 1L", "id == 1.0", "id > -1", "favouriteSection != null",
+      "favouriteSection != null", "bio.isEmpty()", "email.length() > 3", "true", "false", "null", "(id == 1)",
+      "username == \"cbegin\"", "password", "id == '1'"
+  };
+
+  private static final String[] MAP_EXPRESSIONS = {
+      "name != null", "name == \"a\"", "list != null and list.size() > 0", "list.size > 1", "list.isEmpty",
+      "list.isEmpty()", "map.size == 1", "map.isEmpty()", "map.key", "map.keys", "map.values.size", "array.length",
+      "array.length == 2", "missing == null", "flag", "flag and name", "name or flag", "count >= 10",
+      "count > 9.5", "author.username == 'cbegin'", "author.id == 1", "empty == ''", "char == 'c'",
+      "list.size() == count"
+  };
+
+  private final Configuration configuration = new Configuration();
+  private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+
+  @Test
+  void shouldEvaluateLikeOgnlOnBean() {
+    Author author = new Author(1, "cbegin", null, "cbegin@apache.org", "", Section.NEWS);
+    for (String expression : EXPRESSIONS) {
+      assertSameAsOgnl(expression, author);
+      assertSameAsOgnl(expression, new DynamicContext(configuration, author).getBindings());
+    }
+  }
+
+  @Test
+  void shouldEvaluateLikeOgnlOnMap() {
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("name", "a");
+    parameter.put("list", Arrays.asList(1, 2));
+    parameter.put("map", Collections.singletonMap("key", "value"));
+    parameter.put("array", new int[] {1, 2});
+    parameter.put("flag", Boolean.TRUE);
+    parameter.put("count", 10);
+    parameter.put("author", new Author(1, "cbegin", null, "cbegin@apache.org", "", Section.NEWS));
+    parameter.put("empty", "");
+    parameter.put("char", 'c');
+    for (String expression : MAP_EXPRESSIONS) {
+      assertSameAsOgnl(expression, parameter);
+      assertSameAsOgnl(expression, new DynamicContext(configuration, parameter).getBindings());
+    }
+  }
+
+  @Test
+  void shouldNotCompileUnsupportedExpressions() {
+    String[] expressions = {"id + 1 > 2", "list[0] == 1", "name.equals('a')", "name instanceof String", "id in {1, 2}",
+        "@java.lang.Math@max(1, 2)", "#this", "flag ? 1 : 0", "name = 'a'", "0x10 > 1", "id > 1e3", "'a\\'b'",
+        "name.trim()", "id > - name", "id & 1", "(id == 1", "id ==", ""};
+    for (String expression : expressions) {
+      assertNull(CompiledExpression.compile(expression, new DefaultReflectorFactory(), configuration.getOgnlCache()), expression);
+    }
+  }
+
+  @Test
+  void shouldFallBackToOgnlForValuesItCannotRead() {
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("string", "abc");
+    parameter.put("set", new ArrayList<>(Arrays.asList(1, 2)));
+    parameter.put("nothing", null);
+    Map<String, Object> bindings = new DynamicContext(configuration, parameter).getBindings();
+    // no getter named length on String, OGNL calls length()
+    assertSameAsOgnl("string.length == 3", bindings);
+    assertSameAsOgnl("set.empty", bindings);
+    assertSameAsOgnl("_parameter != null and _parameter.string == 'abc'", bindings);
+    BuilderException e = assertThrows(BuilderException.class,
+        () -> CompiledExpression.compile("nothing.value", new DefaultReflectorFactory(), configuration.getOgnlCache()).getValue(bindings));
+    assertTrue(e.getMessage().contains("nothing.value"));
+  }
+
+  @Test
+  void shouldCacheGetterPerParameterType() {
+    CompiledExpression expression = CompiledExpression.compile("username != null", new DefaultReflectorFactory(), configuration.getOgnlCache());
+    assertEquals(true, expression.getValue(new Author(1, "cbegin", null, null, null, null)));
+    assertEquals(false, expression.getValue(new Author(1, null, null, null, null, null)));
+    assertEquals(false, expression.getValue(Collections.singletonMap("other", "value")));
+    assertEquals(true, expression.getValue(Collections.singletonMap("username", "value")));
+    assertEquals(true, expression.getValue(new Author(1, "cbegin", null, null, null, null)));
+  }
+
+  @Test
+  void shouldApplyCompiledTestInIfSqlNode() {
+    Configuration configuration = new Configuration();
+    configuration.setCompiledExpressionsEnabled(true);
+    IfSqlNode node = new IfSqlNode(configuration, new StaticTextSqlNode("WHERE id = #{id}"), "id != null and id > 0");
+    DynamicContext context = new DynamicContext(configuration, new Author(1));
+    assertTrue(node.apply(context));
+    assertEquals("WHERE id = #{id}", context.getSql());
+    assertFalse(node.apply(new DynamicContext(configuration, new Author(-1))));
+  }
+
+  private void assertSameAsOgnl(String expression, Object root) {
+    CompiledExpression compiled = CompiledExpression.compile(expression, configuration.getReflectorFactory(), configuration.getOgnlCache());
+    assertNotNull(compiled, expression);
+    Object expected = OgnlCache.getValue(expression, root);
+    Object actual = compiled.getValue(root);
+    assertEquals(expected, actual, expression);
+    assertEquals(evaluator.evaluateBoolean(expression, root), evaluator.evaluateBoolean(compiled, root), expression);
+  }
+
+}
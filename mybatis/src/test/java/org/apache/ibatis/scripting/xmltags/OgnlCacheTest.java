@@ -0,0 +1,64 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collections;
+
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class OgnlCacheTest {
+
+  @Test
+  void shouldCountHitsAndMisses() {
+    OgnlCache cache = new OgnlCache(10);
+    assertEquals(1, cache.evaluate("id", Collections.singletonMap("id", 1)));
+    assertEquals(2, cache.evaluate("id", Collections.singletonMap("id", 2)));
+    assertEquals(1, cache.getMissCount());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  void shouldStayWithinMaxSize() {
+    OgnlCache cache = new OgnlCache(10);
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i, cache.evaluate(String.valueOf(i), null));
+    }
+    assertEquals(10, cache.getSize());
+    cache.setMaxSize(5);
+    assertEquals(5, cache.getMaxSize());
+    assertEquals(5, cache.getSize());
+    cache.clear();
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  void shouldBeScopedToConfiguration() {
+    Configuration configuration = new Configuration();
+    configuration.setOgnlCacheSize(2);
+    DynamicContext context = new DynamicContext(configuration, Collections.singletonMap("name", "value"));
+    new TextSqlNode("${name} ${name.length()} ${name.toUpperCase()}").apply(context);
+    assertEquals("value 5 VALUE", context.getSql());
+    assertSame(configuration.getOgnlCache(), context.getOgnlCache());
+    assertEquals(2, configuration.getOgnlCache().getSize());
+    assertEquals(3, configuration.getOgnlCache().getMissCount());
+    assertEquals(0, new Configuration().getOgnlCache().getSize());
+  }
+
+}
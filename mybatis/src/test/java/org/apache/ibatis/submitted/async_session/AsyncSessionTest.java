@@ -0,0 +1,168 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.async_session;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.AsyncCursor;
+import org.apache.ibatis.session.AsyncSqlSession;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionException;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class AsyncSessionTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/async_session/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/async_session/CreateDB.sql");
+  }
+
+  @Test
+  void shouldSelectOnPoolThread() throws Exception {
+    AsyncSqlSession session = sqlSessionFactory.openAsyncSession();
+    CompletableFuture<List<User>> users = session.selectList("getUsers");
+    CompletableFuture<User> user = session.selectOne("getUser", 3);
+    session.close().get();
+    assertEquals(25, users.get().size());
+    assertTrue(users.get().get(0).getMappingThread().startsWith("mybatis-async-"));
+    assertEquals("User3", user.get().getName());
+  }
+
+  @Test
+  void shouldRunOperationsInOrder() throws Exception {
+    AsyncSqlSession session = sqlSessionFactory.openAsyncSession(ExecutorType.BATCH);
+    session.insert("insertUser", new User(26, "User26"));
+    session.insert("insertUser", new User(27, "User27"));
+    CompletableFuture<Integer> flushed = session.flushStatements()
+        .thenApply(results -> results.get(0).getUpdateCounts().length);
+    CompletableFuture<User> inserted = session.selectOne("getUser", 27);
+    session.rollback();
+    CompletableFuture<User> rolledBack = session.selectOne("getUser", 27);
+    session.close().get();
+    assertEquals(Integer.valueOf(2), flushed.get());
+    assertEquals("User27", inserted.get().getName());
+    assertNull(rolledBack.get());
+  }
+
+  @Test
+  void shouldOpenAsyncSessionFromAnySqlSessionFactory() throws Exception {
+    SqlSessionFactory factory = mock(SqlSessionFactory.class);
+    when(factory.getConfiguration()).thenReturn(sqlSessionFactory.getConfiguration());
+    when(factory.openSession(any(ExecutorType.class))).thenAnswer(
+        invocation -> sqlSessionFactory.openSession(invocation.<ExecutorType>getArgument(0)));
+    when(factory.openAsyncSession()).thenCallRealMethod();
+    when(factory.openAsyncSession(any(ExecutorType.class))).thenCallRealMethod();
+    AsyncSqlSession session = factory.openAsyncSession();
+    try {
+      assertEquals("User4", session.<User>selectOne("getUser", 4).get().getName());
+    } finally {
+      session.close().get();
+    }
+    verify(factory).openSession(sqlSessionFactory.getConfiguration().getDefaultExecutorType());
+  }
+
+  @Test
+  void shouldExecuteMapperCalls() throws Exception {
+    AsyncSqlSession session = sqlSessionFactory.openAsyncSession();
+    try {
+      User user = session.execute(s -> s.getMapper(Mapper.class).getUser(5)).get();
+      assertEquals("User5", user.getName());
+    } finally {
+      session.close().get();
+    }
+  }
+
+  @Test
+  void shouldFetchCursorOnDemand() throws Exception {
+    AsyncSqlSession session = sqlSessionFactory.openAsyncSession();
+    try {
+      AsyncCursor<User> cursor = session.selectCursor("getUsers", null);
+      List<User> first = cursor.fetch(10).get();
+      assertEquals(10, first.size());
+      assertEquals(Integer.valueOf(1), first.get(0).getId());
+      assertFalse(cursor.isConsumed());
+      assertEquals(Integer.valueOf(11), cursor.fetch(10).get().get(0).getId());
+      List<User> last = cursor.fetch(10).get();
+      assertEquals(5, last.size());
+      assertEquals(Integer.valueOf(25), last.get(4).getId());
+      assertTrue(cursor.isConsumed());
+      assertTrue(cursor.fetch(10).get().isEmpty());
+      cursor.close().get();
+    } finally {
+      session.close().get();
+    }
+  }
+
+  @Test
+  void shouldContinueAfterFailure() throws Exception {
+    AsyncSqlSession session = sqlSessionFactory.openAsyncSession();
+    CompletableFuture<List<User>> failed = session.selectList("getBadUsers");
+    CompletableFuture<User> user = session.selectOne("getUser", 1);
+    session.close().get();
+    ExecutionException e = assertThrows(ExecutionException.class, failed::get);
+    assertTrue(e.getCause() instanceof PersistenceException);
+    assertEquals("User1", user.get().getName());
+  }
+
+  @Test
+  void shouldRejectOperationsAfterClose() throws Exception {
+    AsyncSqlSession session = sqlSessionFactory.openAsyncSession();
+    session.close().get();
+    ExecutionException e = assertThrows(ExecutionException.class, () -> session.selectOne("getUser", 1).get());
+    assertTrue(e.getCause() instanceof SqlSessionException);
+    assertTrue(session.close().isDone());
+  }
+
+  @Test
+  void shouldUseConfiguredExecutorService() throws Exception {
+    ExecutorService executorService = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "custom-async"));
+    ExecutorService previous = sqlSessionFactory.getConfiguration().getAsyncExecutorService();
+    sqlSessionFactory.getConfiguration().setAsyncExecutorService(executorService);
+    try {
+      AsyncSqlSession session = sqlSessionFactory.openAsyncSession();
+      CompletableFuture<User> user = session.selectOne("getUser", 2);
+      session.close().get();
+      assertEquals("custom-async", user.get().getMappingThread());
+    } finally {
+      sqlSessionFactory.getConfiguration().setAsyncExecutorService(previous);
+      executorService.shutdown();
+    }
+  }
+
+}
@@ -0,0 +1,156 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_auto_flush;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchAutoFlushTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_auto_flush/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/batch_auto_flush/CreateDB.sql");
+  }
+
+  @Test
+  void shouldFlushWhenStatementBatchSizeIsReached() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 0; i < 7; i++) {
+        mapper.insertUser(i, "User" + i);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(3, results.size());
+      assertEquals(3, results.get(0).getUpdateCounts().length);
+      assertEquals(3, results.get(1).getUpdateCounts().length);
+      assertEquals(1, results.get(2).getParameterObjects().size());
+      assertEquals(1, results.get(2).getUpdateCounts().length);
+      assertEquals(7, mapper.countUsers());
+    }
+  }
+
+  @Test
+  void shouldReleaseParameterObjectsOfAutoFlushedBatchesWithoutListener() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 0; i < 7; i++) {
+        mapper.insertUser(i, "User" + i);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(3, results.size());
+      for (BatchResult result : results.subList(0, 2)) {
+        assertTrue(result.getParameterObjects().isEmpty());
+        assertArrayEquals(new int[] { 1, 1, 1 }, result.getUpdateCounts());
+        assertTrue(result.getMappedStatement().getId().endsWith("insertUser"));
+      }
+      // the rows flushed on request still come with their parameter objects
+      assertEquals(1, results.get(2).getParameterObjects().size());
+    }
+  }
+
+  @Test
+  void shouldDeliverAutoFlushedResultsToListener() {
+    List<List<BatchResult>> flushes = new ArrayList<>();
+    sqlSessionFactory.getConfiguration().setBatchFlushListener(flushes::add);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 0; i < 7; i++) {
+        mapper.insertUser(i, "User" + i);
+      }
+      assertEquals(2, flushes.size());
+      assertEquals(3, flushes.get(0).get(0).getUpdateCounts().length);
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(1, results.size());
+      assertEquals(1, results.get(0).getParameterObjects().size());
+      assertEquals(2, flushes.size());
+    }
+  }
+
+  @Test
+  void shouldUseDefaultBatchSize() {
+    sqlSessionFactory.getConfiguration().setDefaultBatchSize(2);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 0; i < 5; i++) {
+        mapper.insertLog(i, "Log" + i);
+      }
+      for (int i = 0; i < 5; i++) {
+        mapper.insertUser(i, "User" + i);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(5, results.size());
+      assertEquals(2, results.get(0).getUpdateCounts().length);
+      assertEquals(2, results.get(1).getUpdateCounts().length);
+      // the log statement still pending is flushed with the first batch of users
+      assertEquals(1, results.get(2).getUpdateCounts().length);
+      assertEquals(3, results.get(3).getUpdateCounts().length);
+      assertEquals(2, results.get(4).getParameterObjects().size());
+    }
+  }
+
+  @Test
+  void shouldFlushWhenMaxPendingRowsIsReached() {
+    List<String> flushedStatements = new ArrayList<>();
+    sqlSessionFactory.getConfiguration().setBatchMaxPendingRows(4);
+    sqlSessionFactory.getConfiguration().setBatchFlushListener(results -> results
+        .forEach(result -> flushedStatements.add(result.getMappedStatement().getId())));
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 0; i < 3; i++) {
+        mapper.insertLog(i, "Log" + i);
+        mapper.insertUser(i, "User" + i);
+      }
+      assertEquals(4, flushedStatements.size());
+      assertTrue(flushedStatements.get(0).endsWith("insertLog"));
+      assertTrue(flushedStatements.get(1).endsWith("insertUser"));
+      assertEquals(2, sqlSession.flushStatements().size());
+      assertEquals(3, mapper.countUsers());
+    }
+  }
+
+  @Test
+  void shouldDiscardRetainedResultsOnRollback() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 0; i < 4; i++) {
+        mapper.insertUser(i, "User" + i);
+      }
+      sqlSession.rollback();
+      assertTrue(sqlSession.flushStatements().isEmpty());
+      assertEquals(0, mapper.countUsers());
+    }
+  }
+
+}
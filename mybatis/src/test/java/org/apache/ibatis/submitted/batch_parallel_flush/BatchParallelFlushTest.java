@@ -0,0 +1,267 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_parallel_flush;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.BatchExecutorException;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchParallelFlushTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+  private PrepareThreadRecorder recorder;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_parallel_flush/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/batch_parallel_flush/CreateDB.sql");
+    recorder = new PrepareThreadRecorder();
+    sqlSessionFactory.getConfiguration().addInterceptor(recorder);
+  }
+
+  @Test
+  void shouldFlushBatchesOnBorrowedConnections() {
+    sqlSessionFactory.getConfiguration().setBatchFlushParallelism(2);
+    List<User> users = new ArrayList<>();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 0; i < 3; i++) {
+        User user = new User("User" + i);
+        users.add(user);
+        mapper.insertUser(user);
+      }
+      for (int i = 0; i < 3; i++) {
+        mapper.insertLog(i, "Log" + i);
+      }
+      assertTrue(recorder.getThreadNames().isEmpty());
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(2, results.size());
+      assertTrue(results.get(0).getMappedStatement().getId().endsWith("insertUser"));
+      assertEquals(3, results.get(0).getUpdateCounts().length);
+      assertTrue(results.get(1).getMappedStatement().getId().endsWith("insertLog"));
+      assertEquals(3, results.get(1).getUpdateCounts().length);
+      assertEquals(2, recorder.getThreadNames().size());
+      for (String threadName : recorder.getThreadNames()) {
+        assertTrue(threadName.startsWith("mybatis-batch-flush-"));
+      }
+      for (int i = 0; i < 3; i++) {
+        assertEquals(Integer.valueOf(i + 1), users.get(i).getId());
+      }
+      // committed on their own connections
+      sqlSession.rollback(true);
+    }
+    assertEquals(3, count("countUsers"));
+    assertEquals(3, count("countLogs"));
+  }
+
+  @Test
+  void shouldShareFlushThreadsBetweenFlushes() {
+    sqlSessionFactory.getConfiguration().setBatchFlushParallelism(2);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 0; i < 5; i++) {
+        mapper.insertUser(new User("User" + i));
+        mapper.insertLog(i, "Log" + i);
+        assertEquals(2, sqlSession.flushStatements().size());
+      }
+    }
+    assertEquals(10, recorder.getThreadNames().size());
+    assertTrue(new HashSet<>(recorder.getThreadNames()).size() <= 2, recorder.getThreadNames().toString());
+    assertEquals(5, count("countLogs"));
+  }
+
+  @Test
+  void shouldReportFailedBatchAndKeepOthers() {
+    sqlSessionFactory.getConfiguration().setBatchFlushParallelism(2);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUser(new User("User0"));
+      mapper.insertLog(1, "Log1");
+      mapper.insertLog(1, "Log1");
+      PersistenceException e = assertThrows(PersistenceException.class, sqlSession::flushStatements);
+      BatchExecutorException cause = (BatchExecutorException) e.getCause();
+      assertTrue(cause.getFailingStatementId().endsWith("insertLog"));
+      assertEquals(1, cause.getSuccessfulBatchResults().size());
+      assertTrue(cause.getSuccessfulBatchResults().get(0).getMappedStatement().getId().endsWith("insertUser"));
+    }
+    assertEquals(1, count("countUsers"));
+    assertEquals(0, count("countLogs"));
+  }
+
+  @Test
+  void shouldFlushStatementsWithSelectKeyOnSessionConnection() {
+    sqlSessionFactory.getConfiguration().setBatchFlushParallelism(2);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUser(new User("User0"));
+      Log log = new Log("Log1");
+      mapper.insertLogWithSelectKey(log);
+      assertEquals(Collections.singletonList(Thread.currentThread().getName()), recorder.getThreadNames());
+      assertEquals(2, sqlSession.flushStatements().size());
+      assertEquals(2, recorder.getThreadNames().size());
+      assertTrue(recorder.getThreadNames().get(1).startsWith("mybatis-batch-flush-"));
+      sqlSession.rollback(true);
+    }
+    assertEquals(1, count("countUsers"));
+    assertEquals(0, count("countLogs"));
+  }
+
+  @Test
+  void shouldFlushOnSessionConnectionByDefault() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUser(new User("User0"));
+      mapper.insertLog(1, "Log1");
+      assertEquals(2, sqlSession.flushStatements().size());
+      sqlSession.rollback(true);
+    }
+    assertEquals(0, count("countUsers"));
+    assertEquals(0, count("countLogs"));
+  }
+
+  @Test
+  void shouldFlushStatementsNotMarkedAsIndependentOnSessionConnection() {
+    sqlSessionFactory.getConfiguration().setBatchFlushParallelism(2);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertParent(1);
+      mapper.insertChild(1, 1);
+      mapper.insertChild(2, 1);
+      assertEquals(2, sqlSession.flushStatements().size());
+      assertEquals(Arrays.asList(Thread.currentThread().getName(), Thread.currentThread().getName()),
+          recorder.getThreadNames());
+      sqlSession.rollback(true);
+    }
+    assertEquals(0, count("countChildren"));
+  }
+
+  @Test
+  void shouldFlushBatchesOfTheSameTableInOrder() {
+    sqlSessionFactory.getConfiguration().setBatchFlushParallelism(2);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertLog(1, "Log1");
+      mapper.insertUser(new User("User0"));
+      mapper.updateLog(1, "Updated");
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(3, results.size());
+      assertTrue(results.get(2).getMappedStatement().getId().endsWith("updateLog"));
+      assertArrayEquals(new int[] { 1 }, results.get(2).getUpdateCounts());
+      assertEquals(2, recorder.getThreadNames().size());
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals("Updated", sqlSession.getMapper(Mapper.class).getLogMessage(1));
+    }
+    assertEquals(1, count("countUsers"));
+  }
+
+  @Test
+  void shouldFlushOnSessionConnectionWhenSessionWritesTheSameTable() {
+    sqlSessionFactory.getConfiguration().setBatchFlushParallelism(2);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertLog(5, "Log5");
+      mapper.insertLogWithSelectKey(new Log("Log1"));
+      assertEquals(2, sqlSession.flushStatements().size());
+      assertEquals(Arrays.asList(Thread.currentThread().getName(), Thread.currentThread().getName()),
+          recorder.getThreadNames());
+      sqlSession.rollback(true);
+    }
+    assertEquals(0, count("countLogs"));
+  }
+
+  @Test
+  void shouldStopWaitingForBatchesLockedOutBySession() {
+    sqlSessionFactory.getConfiguration().setBatchFlushParallelism(2);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertLogWithSelectKey(new Log("Log1"));
+      sqlSession.flushStatements();
+      // bounds the wait for the batches flushed in parallel
+      sqlSessionFactory.getConfiguration().setDefaultStatementTimeout(1);
+      // the same row, updated on another connection while the session holds its lock
+      mapper.updateLog(1, "Updated");
+      assertTimeoutPreemptively(Duration.ofSeconds(30),
+          () -> assertThrows(PersistenceException.class, sqlSession::flushStatements));
+      sqlSession.rollback(true);
+    }
+  }
+
+  private int count(String statement) {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return sqlSession.selectOne("org.apache.ibatis.submitted.batch_parallel_flush.Mapper." + statement);
+    }
+  }
+
+  @Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = { Connection.class, Integer.class }))
+  public static class PrepareThreadRecorder implements Interceptor {
+
+    private final List<String> threadNames = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      String sql = ((StatementHandler) invocation.getTarget()).getBoundSql().getSql();
+      if (sql.trim().startsWith("insert")) {
+        threadNames.add(Thread.currentThread().getName());
+      }
+      return invocation.proceed();
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+
+    List<String> getThreadNames() {
+      return threadNames;
+    }
+
+  }
+
+}
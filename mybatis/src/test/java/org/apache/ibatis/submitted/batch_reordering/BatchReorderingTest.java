@@ -0,0 +1,102 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_reordering;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchReorderingTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_reordering/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/batch_reordering/CreateDB.sql");
+  }
+
+  @Test
+  void shouldGroupInterleavedUpdates() {
+    sqlSessionFactory.getConfiguration().setBatchReorderingEnabled(true);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 0; i < 3; i++) {
+        mapper.insertLog(i, "Log" + i);
+        mapper.insertUser(i, "User" + i);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(2, results.size());
+      assertTrue(results.get(0).getMappedStatement().getId().endsWith("insertLog"));
+      assertEquals(3, results.get(0).getUpdateCounts().length);
+      assertTrue(results.get(1).getMappedStatement().getId().endsWith("insertUser"));
+      assertEquals(3, results.get(1).getUpdateCounts().length);
+      assertEquals(3, mapper.countUsers());
+      assertEquals(3, mapper.countLogs());
+    }
+  }
+
+  @Test
+  void shouldStartNewBatchForInterleavedUpdatesByDefault() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 0; i < 3; i++) {
+        mapper.insertLog(i, "Log" + i);
+        mapper.insertUser(i, "User" + i);
+      }
+      assertEquals(6, sqlSession.flushStatements().size());
+    }
+  }
+
+  @Test
+  void shouldApplyBatchSizeToGroupedUpdates() {
+    List<BatchResult> flushed = new ArrayList<>();
+    sqlSessionFactory.getConfiguration().setBatchReorderingEnabled(true);
+    sqlSessionFactory.getConfiguration().setDefaultBatchSize(2);
+    sqlSessionFactory.getConfiguration().setBatchFlushListener(flushed::addAll);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertLog(0, "Log0");
+      mapper.insertUser(0, "User0");
+      mapper.insertLog(1, "Log1");
+      assertEquals(2, flushed.size());
+      assertEquals(2, flushed.get(0).getParameterObjects().size());
+      assertEquals(1, flushed.get(1).getParameterObjects().size());
+      mapper.insertUser(1, "User1");
+      mapper.insertLog(2, "Log2");
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(2, results.size());
+      assertEquals(2, mapper.countUsers());
+      assertEquals(3, mapper.countLogs());
+    }
+  }
+
+}
@@ -0,0 +1,190 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.bulk_load;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.Reader;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.BulkLoadOptions;
+import org.apache.ibatis.session.BulkLoadResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BulkLoadTest {
+
+  private static final String INSERT_USER = "org.apache.ibatis.submitted.bulk_load.Mapper.insertUser";
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/bulk_load/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/bulk_load/CreateDB.sql");
+  }
+
+  @Test
+  void shouldLoadAllRowsInChunks() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      BulkLoadResult result = sqlSession.bulkLoad(INSERT_USER, users(0, 2500),
+          new BulkLoadOptions().commitInterval(1));
+      assertTrue(result.isSuccessful());
+      assertEquals(2500, result.getRowCount());
+      assertEquals(2500, result.getUpdateCount());
+      assertEquals(3, result.getChunkCount());
+      assertEquals(0, result.getFailedRowCount());
+    }
+    assertEquals(2500, countUsers());
+  }
+
+  @Test
+  void shouldRollBackFailedChunkAndContinue() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      sqlSession.insert(INSERT_USER, user(15));
+      sqlSession.commit();
+      BulkLoadResult result = sqlSession.bulkLoad(INSERT_USER, users(0, 30),
+          new BulkLoadOptions().chunkSize(10).commitInterval(1).continueOnFailure(true));
+      assertFalse(result.isSuccessful());
+      assertEquals(30, result.getRowCount());
+      assertEquals(20, result.getUpdateCount());
+      assertEquals(3, result.getChunkCount());
+      assertEquals(10, result.getFailedRowCount());
+      assertEquals(1, result.getFailures().size());
+      BulkLoadResult.Failure failure = result.getFailures().get(0);
+      assertEquals(10, failure.getFirstRow());
+      assertEquals(10, failure.getRowCount());
+      assertTrue(failure.getCause() instanceof PersistenceException);
+    }
+    assertEquals(21, countUsers());
+  }
+
+  @Test
+  void shouldRollBackUncommittedChunksAndStop() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      sqlSession.insert(INSERT_USER, user(35));
+      sqlSession.commit();
+      BulkLoadResult result = sqlSession.bulkLoad(INSERT_USER, users(0, 50),
+          new BulkLoadOptions().chunkSize(10).commitInterval(2));
+      assertEquals(40, result.getRowCount());
+      assertEquals(20, result.getUpdateCount());
+      assertEquals(4, result.getChunkCount());
+      assertEquals(1, result.getFailures().size());
+      assertEquals(20, result.getFailures().get(0).getFirstRow());
+      assertEquals(20, result.getFailures().get(0).getRowCount());
+    }
+    assertEquals(21, countUsers());
+  }
+
+  @Test
+  void shouldLeaveTransactionToCallerWithoutCommitInterval() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      BulkLoadResult result = sqlSession.bulkLoad(INSERT_USER, users(0, 50), new BulkLoadOptions().chunkSize(20));
+      assertEquals(50, result.getUpdateCount());
+      assertEquals(50, sqlSession.getMapper(Mapper.class).countUsers());
+      sqlSession.rollback();
+    }
+    assertEquals(0, countUsers());
+  }
+
+  @Test
+  void shouldThrowAndLeaveTransactionToCallerWithoutCommitInterval() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      sqlSession.insert(INSERT_USER, user(15));
+      sqlSession.commit();
+      sqlSession.insert(INSERT_USER, user(100));
+      PersistenceException e = assertThrows(PersistenceException.class,
+          () -> sqlSession.bulkLoad(INSERT_USER, users(0, 30), new BulkLoadOptions().chunkSize(10)));
+      assertTrue(e.getMessage().contains("Error bulk loading rows 11 to 20"));
+      sqlSession.commit();
+    }
+    // the work of the caller before the bulk load was not rolled back
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(1, mapper.countUsersWithId(100));
+      assertEquals(1, mapper.countUsersWithId(9));
+    }
+  }
+
+  @Test
+  void shouldCountRowsWithoutUpdateCountOfAnySqlSession() {
+    SqlSession sqlSession = mock(SqlSession.class);
+    when(sqlSession.getConfiguration()).thenReturn(sqlSessionFactory.getConfiguration());
+    when(sqlSession.bulkLoad(anyString(), any(), any())).thenCallRealMethod();
+    when(sqlSession.update(anyString(), any())).thenReturn(BatchExecutor.BATCH_UPDATE_RETURN_VALUE);
+    BatchResult batchResult = new BatchResult(null, "insert");
+    batchResult.setUpdateCounts(new int[] { Statement.SUCCESS_NO_INFO, 1, Statement.SUCCESS_NO_INFO });
+    when(sqlSession.flushStatements()).thenReturn(Collections.singletonList(batchResult));
+    BulkLoadResult result = sqlSession.bulkLoad(INSERT_USER, users(0, 3), new BulkLoadOptions().commitInterval(1));
+    assertTrue(result.isSuccessful());
+    assertEquals(1, result.getUpdateCount());
+    assertEquals(2, result.getUncountedRowCount());
+    verify(sqlSession).commit();
+    verify(sqlSession, never()).rollback();
+  }
+
+  @Test
+  void shouldCountUpdatesOfSimpleExecutor() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      BulkLoadResult result = sqlSession.bulkLoad(INSERT_USER, users(0, 25),
+          new BulkLoadOptions().chunkSize(10).commitInterval(1));
+      assertEquals(25, result.getUpdateCount());
+      assertEquals(3, result.getChunkCount());
+    }
+    assertEquals(25, countUsers());
+  }
+
+  private int countUsers() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return sqlSession.getMapper(Mapper.class).countUsers();
+    }
+  }
+
+  private static Iterator<Map<String, Object>> users(int from, int to) {
+    return IntStream.range(from, to).mapToObj(BulkLoadTest::user).iterator();
+  }
+
+  private static Map<String, Object> user(int id) {
+    Map<String, Object> user = new HashMap<>();
+    user.put("id", id);
+    user.put("name", "User" + id);
+    return user;
+  }
+
+}
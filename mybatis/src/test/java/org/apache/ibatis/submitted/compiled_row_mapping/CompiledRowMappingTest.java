@@ -0,0 +1,132 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.compiled_row_mapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CompiledRowMappingTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    // create an SqlSessionFactory
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/compiled_row_mapping/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    // populate in-memory database
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/compiled_row_mapping/CreateDB.sql");
+  }
+
+  @BeforeEach
+  void resetSettings() {
+    sqlSessionFactory.getConfiguration().setCallSettersOnNulls(false);
+    sqlSessionFactory.getConfiguration().setReturnInstanceForEmptyRow(false);
+    sqlSessionFactory.getConfiguration().getCompiledRowMappers().clear();
+  }
+
+  @Test
+  void shouldMapExplicitMappingsThroughSettersAndFields() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      User user = mapper.getUser(1);
+      assertEquals(Integer.valueOf(1), user.getId());
+      assertEquals("User1", user.getName());
+      assertEquals("one", user.getNickName());
+      assertEquals(31, user.getAge());
+    }
+    assertTrue(sqlSessionFactory.getConfiguration().getCompiledRowMappers().keySet().stream()
+        .anyMatch(key -> key.startsWith("org.apache.ibatis.submitted.compiled_row_mapping.Mapper.userMap@")));
+  }
+
+  @Test
+  void shouldReuseCompiledMapperForEveryRow() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<User> users = sqlSession.getMapper(Mapper.class).getUsers();
+      assertEquals(3, users.size());
+      assertEquals("User2", users.get(1).getName());
+      assertEquals(0, users.get(1).getAge());
+      assertEquals("none", users.get(1).getNickName());
+      assertEquals(Integer.valueOf(3), users.get(2).getId());
+      assertNull(users.get(2).getName());
+    }
+    assertEquals(1, sqlSessionFactory.getConfiguration().getCompiledRowMappers().size());
+  }
+
+  @Test
+  void shouldMapAutomaticMappings() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      User user = sqlSession.getMapper(Mapper.class).getUserAutoMapped(1);
+      assertEquals(Integer.valueOf(1), user.getId());
+      assertEquals("User1", user.getName());
+      assertEquals("one", user.getNickName());
+      assertEquals(31, user.getAge());
+    }
+  }
+
+  @Test
+  void shouldCallSettersOnNullsExceptPrimitives() {
+    sqlSessionFactory.getConfiguration().setCallSettersOnNulls(true);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      User user = sqlSession.getMapper(Mapper.class).getUser(2);
+      assertEquals("User2", user.getName());
+      assertNull(user.getNickName());
+      assertEquals(0, user.getAge());
+    }
+  }
+
+  @Test
+  void shouldReturnNullForEmptyRow() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertNull(sqlSession.getMapper(Mapper.class).getNamesOnly(3));
+    }
+  }
+
+  @Test
+  void shouldReturnInstanceForEmptyRowIfEnabled() {
+    sqlSessionFactory.getConfiguration().setReturnInstanceForEmptyRow(true);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      User user = sqlSession.getMapper(Mapper.class).getNamesOnly(3);
+      assertNotNull(user);
+      assertNull(user.getName());
+    }
+  }
+
+  @Test
+  void shouldFallBackForNestedProperties() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      User user = sqlSession.getMapper(Mapper.class).getUserWithAddress(1);
+      assertEquals(Integer.valueOf(1), user.getId());
+      assertEquals("User1", user.getName());
+      assertEquals("Tokyo", user.getAddress().getCity());
+    }
+  }
+
+}
@@ -0,0 +1,130 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cursor_prefetch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.defaults.DefaultCursor;
+import org.apache.ibatis.cursor.defaults.PrefetchingCursor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class CursorPrefetchTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cursor_prefetch/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    sqlSessionFactory.getConfiguration().setCursorPrefetchSize(10);
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/cursor_prefetch/CreateDB.sql");
+  }
+
+  @Test
+  void shouldMapRowsOnBackgroundThread() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> cursor = sqlSession.getMapper(Mapper.class).getUsers();
+      assertTrue(cursor instanceof PrefetchingCursor);
+      assertFalse(cursor.isOpen());
+      assertEquals(-1, cursor.getCurrentIndex());
+      int count = 0;
+      for (User user : cursor) {
+        count++;
+        assertEquals(Integer.valueOf(count), user.getId());
+        assertEquals("User" + count, user.getName());
+        assertTrue(user.getMappingThread().startsWith("mybatis-cursor-prefetch-"));
+        assertEquals(count - 1, cursor.getCurrentIndex());
+        assertTrue(cursor.isOpen());
+      }
+      assertEquals(100, count);
+      assertTrue(cursor.isConsumed());
+      assertFalse(cursor.isOpen());
+    }
+  }
+
+  @Test
+  void shouldApplyRowBounds() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> cursor = sqlSession.getMapper(Mapper.class).getUsers(new RowBounds(20, 15));
+      Iterator<User> iterator = cursor.iterator();
+      for (int i = 0; i < 15; i++) {
+        assertEquals(Integer.valueOf(21 + i), iterator.next().getId());
+        assertEquals(20 + i, cursor.getCurrentIndex());
+      }
+      assertFalse(iterator.hasNext());
+      assertThrows(NoSuchElementException.class, iterator::next);
+      assertTrue(cursor.isConsumed());
+    }
+  }
+
+  @Test
+  void shouldStopFetchingWhenClosedEarly() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> cursor = sqlSession.getMapper(Mapper.class).getUsers();
+      Iterator<User> iterator = cursor.iterator();
+      assertEquals(Integer.valueOf(1), iterator.next().getId());
+      cursor.close();
+      assertFalse(cursor.isOpen());
+      assertFalse(cursor.isConsumed());
+      assertFalse(iterator.hasNext());
+    }
+  }
+
+  @Test
+  void shouldCloseCursorWithSession() {
+    Cursor<User> cursor;
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      cursor = sqlSession.getMapper(Mapper.class).getUsers();
+      assertTrue(cursor.iterator().hasNext());
+    }
+    assertFalse(cursor.isOpen());
+  }
+
+  @Test
+  void shouldRethrowMappingFailure() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> cursor = sqlSession.getMapper(Mapper.class).getUsersWithBadColumn();
+      Iterator<User> iterator = cursor.iterator();
+      assertThrows(RuntimeException.class, iterator::hasNext);
+      assertFalse(cursor.isOpen());
+    }
+  }
+
+  @Test
+  void shouldFetchOnCallerThreadWithNestedSelects() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> cursor = sqlSession.getMapper(Mapper.class).getUsersWithFriend();
+      assertTrue(cursor instanceof DefaultCursor);
+      User user = cursor.iterator().next();
+      assertEquals(Thread.currentThread().getName(), user.getMappingThread());
+    }
+  }
+
+}
@@ -0,0 +1,189 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.multi_row_insert;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MultiRowInsertTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+  private PreparedSqlRecorder recorder;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/multi_row_insert/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/multi_row_insert/CreateDB.sql");
+    recorder = new PreparedSqlRecorder();
+    sqlSessionFactory.getConfiguration().addInterceptor(recorder);
+  }
+
+  @Test
+  void shouldInsertRowsInMultiRowStatements() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 0; i < 5; i++) {
+        mapper.insertLog(i, i == 3 ? null : "Log" + i);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(1, results.size());
+      assertArrayEquals(new int[] { 1, 1, 1, 1, 1 }, results.get(0).getUpdateCounts());
+      assertEquals(5, results.get(0).getParameterObjects().size());
+      assertEquals(Arrays.asList(
+          "insert into logs (id, message) values (?, ?), (?, ?)",
+          "insert into logs (id, message) values (?, ?)"), recorder.getSqls());
+      assertEquals(Arrays.asList("Log0", "Log1", "Log2", null, "Log4"), mapper.selectLogMessages());
+    }
+  }
+
+  @Test
+  void shouldAssignGeneratedKeysToEachRow() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<User> users = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        User user = new User("User" + i);
+        users.add(user);
+        mapper.insertUser(user);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertArrayEquals(new int[] { 1, 1, 1, 1 }, results.get(0).getUpdateCounts());
+      assertEquals(Arrays.asList(
+          "insert into users (name) values (?), (?), (?)",
+          "insert into users (name) values (?)"), recorder.getSqls());
+      List<User> inserted = mapper.selectUsers();
+      assertEquals(4, inserted.size());
+      for (int i = 0; i < 4; i++) {
+        assertNotNull(users.get(i).getId());
+        assertEquals(inserted.get(i).getId(), users.get(i).getId());
+        assertEquals(inserted.get(i).getName(), users.get(i).getName());
+      }
+    }
+  }
+
+  @Test
+  void shouldBatchRowByRowWhenKeysAreSelectedAfterInsert() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 0; i < 3; i++) {
+        mapper.insertUserWithSelectKey(new User("User" + i));
+      }
+      // a select key runs once per row, which a multi-row insert cannot match
+      assertEquals(Arrays.asList("insert into users (name) values (?)"), recorder.getSqls());
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(3, results.get(0).getUpdateCounts().length);
+      assertEquals(1, recorder.getSqls().size());
+      assertEquals(3, mapper.selectUsers().size());
+    }
+  }
+
+  @Test
+  void shouldNotCoalesceRowsOfSameSqlWithOtherProperties() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertLogWithChoice(0, "Log0", "Other0", false);
+      mapper.insertLogWithChoice(1, "Log1", "Other1", false);
+      mapper.insertLogWithChoice(2, "Log2", "Other2", true);
+      mapper.insertLogWithChoice(3, "Log3", "Other3", true);
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(2, results.size());
+      assertEquals(2, results.get(0).getParameterObjects().size());
+      assertEquals(2, results.get(1).getParameterObjects().size());
+      assertEquals(Arrays.asList("Log0", "Log1", "Other2", "Other3"), mapper.selectLogMessages());
+    }
+  }
+
+  @Test
+  void shouldBatchRowByRowWhenStatementDoesNotQualify() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 0; i < 3; i++) {
+        mapper.insertLogFromSelect(i, "Log" + i);
+      }
+      assertEquals(1, recorder.getSqls().size());
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(3, results.get(0).getUpdateCounts().length);
+      assertEquals(1, recorder.getSqls().size());
+      assertEquals(Arrays.asList("Log0", "Log1", "Log2"), mapper.selectLogMessages());
+    }
+  }
+
+  @Test
+  void shouldNotRewriteWithOtherExecutors() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertLog(0, "Log0");
+      mapper.insertLog(1, "Log1");
+      assertEquals(2, recorder.getSqls().size());
+      assertEquals(Arrays.asList("Log0", "Log1"), mapper.selectLogMessages());
+    }
+  }
+
+  @Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = { Connection.class, Integer.class }))
+  public static class PreparedSqlRecorder implements Interceptor {
+
+    private final List<String> sqls = new ArrayList<>();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      String sql = ((StatementHandler) invocation.getTarget()).getBoundSql().getSql();
+      if (sql.trim().startsWith("insert")) {
+        sqls.add(sql.replaceAll("\\s+", " ").trim());
+      }
+      return invocation.proceed();
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+
+    List<String> getSqls() {
+      return sqls;
+    }
+
+  }
+
+}
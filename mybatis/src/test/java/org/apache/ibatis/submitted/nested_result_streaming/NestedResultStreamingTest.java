@@ -0,0 +1,123 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.nested_result_streaming;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class NestedResultStreamingTest {
+
+  private static final int[] POST_COUNTS = { 2, 1, 3, 1 };
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/nested_result_streaming/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/nested_result_streaming/CreateDB.sql");
+  }
+
+  @Test
+  void shouldStreamCompleteObjectsToCursor() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession();
+         Cursor<Blog> cursor = sqlSession.getMapper(Mapper.class).getBlogs()) {
+      int index = 0;
+      for (Blog blog : cursor) {
+        assertEquals(Integer.valueOf(index + 1), blog.getId());
+        assertEquals(POST_COUNTS[index], blog.getPosts().size());
+        index++;
+      }
+      assertEquals(4, index);
+    }
+  }
+
+  @Test
+  void shouldStreamCompleteObjectsToResultHandler() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Integer> postCounts = new ArrayList<>();
+      sqlSession.getMapper(Mapper.class).getBlogs(RowBounds.DEFAULT,
+          context -> postCounts.add(context.getResultObject().getPosts().size()));
+      assertEquals(4, postCounts.size());
+      for (int i = 0; i < POST_COUNTS.length; i++) {
+        // each blog is complete when it is handed over
+        assertEquals(Integer.valueOf(POST_COUNTS[i]), postCounts.get(i));
+      }
+    }
+  }
+
+  @Test
+  void shouldApplyRowBoundsToObjects() {
+    sqlSessionFactory.getConfiguration().setSafeRowBoundsEnabled(true);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Blog> blogs = new ArrayList<>();
+      sqlSession.getMapper(Mapper.class).getBlogs(new RowBounds(1, 2), context -> blogs.add(context.getResultObject()));
+      assertEquals(2, blogs.size());
+      assertEquals(Integer.valueOf(2), blogs.get(0).getId());
+      assertEquals(1, blogs.get(0).getPosts().size());
+      assertEquals(Integer.valueOf(3), blogs.get(1).getId());
+      assertEquals(3, blogs.get(1).getPosts().size());
+    }
+  }
+
+  @Test
+  void shouldSkipObjectsAtTheEnd() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Blog> blogs = new ArrayList<>();
+      sqlSession.getMapper(Mapper.class).getBlogs(new RowBounds(3, 10), context -> blogs.add(context.getResultObject()));
+      assertEquals(1, blogs.size());
+      assertEquals(Integer.valueOf(4), blogs.get(0).getId());
+    }
+  }
+
+  @Test
+  void shouldApplyRowBoundsToObjectsOfList() {
+    sqlSessionFactory.getConfiguration().setSafeRowBoundsEnabled(true);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Blog> blogs = sqlSession.getMapper(Mapper.class).getBlogs(new RowBounds(2, 1));
+      assertEquals(1, blogs.size());
+      assertEquals(Integer.valueOf(3), blogs.get(0).getId());
+      assertEquals(3, blogs.get(0).getPosts().size());
+    }
+  }
+
+  @Test
+  void shouldRejectResultHandlerOfUnorderedStatement() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      PersistenceException e = assertThrows(PersistenceException.class,
+          () -> sqlSession.getMapper(Mapper.class).getUnorderedBlogs(RowBounds.DEFAULT, context -> { }));
+      assertTrue(e.getCause() instanceof ExecutorException);
+    }
+  }
+
+}
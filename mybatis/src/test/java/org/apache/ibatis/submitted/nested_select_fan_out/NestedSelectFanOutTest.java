@@ -0,0 +1,204 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.nested_select_fan_out;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class NestedSelectFanOutTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+  private PreparedSqlRecorder recorder;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/nested_select_fan_out/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/nested_select_fan_out/CreateDB.sql");
+    recorder = new PreparedSqlRecorder();
+    sqlSessionFactory.getConfiguration().addInterceptor(recorder);
+  }
+
+  @Test
+  void shouldLoadNestedObjectsWithOneQueryPerBatchSelect() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Blog> blogs = sqlSession.selectList("selectBatchedBlogs");
+      assertBlogs(blogs);
+      assertSame(blogs.get(0).getAuthor(), blogs.get(2).getAuthor());
+      assertNotSame(blogs.get(0).getPosts(), blogs.get(2).getPosts());
+    }
+    assertEquals(3, recorder.getSqls().size());
+    assertEquals("select id, title, author_id from blog order by id", recorder.getSqls().get(0));
+    // distinct keys only, and no key for the blog without author
+    assertEquals("select id, name from author where id in ( ? , ? )", recorder.getSqls().get(1));
+    assertEquals("select id, blog_id as blogId, subject from post where blog_id in ( ? , ? , ? , ? ) order by id",
+        recorder.getSqls().get(2));
+  }
+
+  @Test
+  void shouldLoadNestedObjectsOfSingleRow() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Blog blog = sqlSession.selectOne("selectBatchedBlog", 2);
+      assertEquals("Bob", blog.getAuthor().getName());
+      assertEquals(1, blog.getPosts().size());
+      assertEquals("Post3", blog.getPosts().get(0).getSubject());
+    }
+    assertEquals(3, recorder.getSqls().size());
+  }
+
+  @Test
+  void shouldSelectOneByOneForResultHandler() {
+    List<Blog> blogs = new ArrayList<>();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.select("selectBatchedBlogs", context -> {
+        Blog blog = (Blog) context.getResultObject();
+        // the objects must be complete when they are handed over
+        assertNotNull(blog.getPosts());
+        blogs.add(blog);
+      });
+    }
+    assertBlogs(blogs);
+    // 1 + 2 authors (the third is cached) + 4 posts
+    assertEquals(7, recorder.getSqls().size());
+  }
+
+  @Test
+  void shouldRunNestedSelectsConcurrently() {
+    sqlSessionFactory.getConfiguration().setNestedSelectParallelism(4);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Blog> blogs = sqlSession.selectList("selectBlogs");
+      assertBlogs(blogs);
+    }
+    List<String> threads = recorder.getThreads();
+    // once per distinct parameter: 2 authors and 4 blogs
+    assertEquals(7, threads.size());
+    assertEquals(Thread.currentThread().getName(), threads.get(0));
+    for (String thread : threads.subList(1, threads.size())) {
+      assertTrue(thread.startsWith("mybatis-nested-select-"), thread);
+    }
+  }
+
+  @Test
+  void shouldShareNestedSelectThreadsBetweenStatements() {
+    sqlSessionFactory.getConfiguration().setNestedSelectParallelism(2);
+    for (int i = 0; i < 3; i++) {
+      try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+        assertBlogs(sqlSession.selectList("selectBlogs"));
+      }
+    }
+    Set<String> threads = new HashSet<>(recorder.getThreads());
+    threads.remove(Thread.currentThread().getName());
+    assertTrue(threads.size() <= 2, threads.toString());
+  }
+
+  @Test
+  void shouldSelectOneByOneOnSessionConnectionWithUncommittedChanges() {
+    sqlSessionFactory.getConfiguration().setNestedSelectParallelism(4);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Post post = new Post();
+      post.setId(5);
+      post.setBlogId(4);
+      post.setSubject("Post5");
+      sqlSession.insert("insertPost", post);
+      List<Blog> blogs = sqlSession.selectList("selectBlogs");
+      assertEquals(1, blogs.get(3).getPosts().size());
+      assertEquals("Post5", blogs.get(3).getPosts().get(0).getSubject());
+      sqlSession.rollback();
+    }
+    // 1 insert, 1 + 2 authors (the third is cached) + 4 posts
+    assertEquals(Collections.nCopies(8, Thread.currentThread().getName()), recorder.getThreads());
+  }
+
+  @Test
+  void shouldSelectOneByOneByDefault() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Blog> blogs = sqlSession.selectList("selectBlogs");
+      assertBlogs(blogs);
+    }
+    assertEquals(Collections.nCopies(7, Thread.currentThread().getName()), recorder.getThreads());
+  }
+
+  private void assertBlogs(List<Blog> blogs) {
+    assertEquals(4, blogs.size());
+    assertEquals("Alice", blogs.get(0).getAuthor().getName());
+    assertEquals("Bob", blogs.get(1).getAuthor().getName());
+    assertEquals("Alice", blogs.get(2).getAuthor().getName());
+    assertNull(blogs.get(3).getAuthor());
+    assertEquals(2, blogs.get(0).getPosts().size());
+    assertEquals("Post1", blogs.get(0).getPosts().get(0).getSubject());
+    assertEquals("Post2", blogs.get(0).getPosts().get(1).getSubject());
+    assertEquals(1, blogs.get(1).getPosts().size());
+    assertEquals("Post3", blogs.get(1).getPosts().get(0).getSubject());
+    assertEquals(1, blogs.get(2).getPosts().size());
+    assertEquals("Post4", blogs.get(2).getPosts().get(0).getSubject());
+    assertTrue(blogs.get(3).getPosts().isEmpty());
+  }
+
+  @Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = { Connection.class, Integer.class }))
+  public static class PreparedSqlRecorder implements Interceptor {
+
+    private final List<String> sqls = new ArrayList<>();
+    private final List<String> threads = new ArrayList<>();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      String sql = ((StatementHandler) invocation.getTarget()).getBoundSql().getSql();
+      synchronized (this) {
+        sqls.add(sql.replaceAll("\\s+", " ").trim());
+        threads.add(Thread.currentThread().getName());
+      }
+      return invocation.proceed();
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    synchronized List<String> getSqls() {
+      return new ArrayList<>(sqls);
+    }
+
+    synchronized List<String> getThreads() {
+      return new ArrayList<>(threads);
+    }
+
+  }
+
+}
@@ -0,0 +1,45 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.param_map;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+public interface Mapper {
+
+  @Select("select id, name from users where id = #{id} and name = #{name}")
+  User getUserByIdAndName(@Param("id") Integer id, @Param("name") String name);
+
+  @Select("select id, name from users where id = #{param1} and name = #{param2}")
+  User getUserByGenericNames(Integer id, String name);
+
+  @Select("select id, name from users where id = #{user.id} or name = #{other.name} order by id")
+  List<User> getUsersByExamples(@Param("user") User user, @Param("other") User other);
+
+  @Select({"<script>",
+      "select id, name from users",
+      "<where><if test='id != null'>id = #{id}</if><if test='name != null'>and name = #{name}</if></where>",
+      "order by id",
+      "</script>"})
+  List<User> findUsers(@Param("id") Integer id, @Param("name") String name);
+
+  @Insert("insert into users (id, name) values (#{id}, #{name})")
+  int insertUser(@Param("id") Integer id, @Param("name") String name);
+
+}
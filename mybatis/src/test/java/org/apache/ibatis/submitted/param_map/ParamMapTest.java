@@ -0,0 +1,114 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.param_map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ParamMapTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/param_map/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/param_map/CreateDB.sql");
+  }
+
+  @Test
+  void shouldBindNamedParameters() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      User user = mapper.getUserByIdAndName(2, "User2");
+      assertEquals(Integer.valueOf(2), user.getId());
+      assertNull(mapper.getUserByIdAndName(2, "User1"));
+      assertNull(mapper.getUserByIdAndName(null, "User1"));
+    }
+  }
+
+  @Test
+  void shouldBindGenericNames() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals("User3", mapper.getUserByGenericNames(3, "User3").getName());
+    }
+  }
+
+  @Test
+  void shouldBindNestedProperties() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<User> users = mapper.getUsersByExamples(user(1, null), user(null, "User3"));
+      assertEquals(2, users.size());
+      assertEquals(Integer.valueOf(1), users.get(0).getId());
+      assertEquals(Integer.valueOf(3), users.get(1).getId());
+      users = mapper.getUsersByExamples(user(2, null), null);
+      assertEquals(1, users.size());
+      assertEquals(Integer.valueOf(2), users.get(0).getId());
+    }
+  }
+
+  @Test
+  void shouldHitLocalCacheWithSameArguments() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      User user = mapper.getUserByIdAndName(1, "User1");
+      assertSame(user, mapper.getUserByIdAndName(1, "User1"));
+      assertNull(mapper.getUserByIdAndName(1, "User2"));
+    }
+  }
+
+  @Test
+  void shouldBindDynamicStatements() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(3, mapper.findUsers(null, null).size());
+      assertEquals(1, mapper.findUsers(2, null).size());
+      assertEquals("User3", mapper.findUsers(null, "User3").get(0).getName());
+    }
+  }
+
+  @Test
+  void shouldBindInsertParameters() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(1, mapper.insertUser(4, "User4"));
+      assertEquals("User4", mapper.getUserByIdAndName(4, "User4").getName());
+      sqlSession.rollback();
+    }
+  }
+
+  private static User user(Integer id, String name) {
+    User user = new User();
+    user.setId(id);
+    user.setName(name);
+    return user;
+  }
+
+}